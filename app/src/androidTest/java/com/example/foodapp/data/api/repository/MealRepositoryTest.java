@@ -0,0 +1,219 @@
+package com.example.foodapp.data.api.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.foodapp.data.api.APIClient;
+import com.example.foodapp.data.api.APIInterface;
+import com.example.foodapp.data.api.model.CategoriesList;
+import com.example.foodapp.data.api.model.Meal;
+import com.example.foodapp.data.api.model.MealsList;
+import com.example.foodapp.data.cache.SnapshotStore;
+import com.example.foodapp.data.dao.FavoriteDatabase;
+import com.example.foodapp.data.dao.entity.CatalogCategoryEntity;
+import com.example.foodapp.data.dao.entity.CatalogMealEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Checks that the repository displays the categories and their meals of the synchronized
+ * catalog first, then revalidates them with the API and writes what changed back to the
+ * catalog.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MealRepositoryTest {
+
+    private static final String CATEGORIES_JSON = "{\"categories\":["
+            + "{\"idCategory\":\"1\",\"strCategory\":\"Beef\"},"
+            + "{\"idCategory\":\"2\",\"strCategory\":\"Dessert\"}]}";
+    private static final String BEEF_JSON = "{\"meals\":["
+            + "{\"idMeal\":\"52878\",\"strMeal\":\"Beef and Oyster pie\"}]}";
+    private static final String DESSERT_JSON = "{\"meals\":["
+            + "{\"idMeal\":\"52768\",\"strMeal\":\"Apple Frangipan Tart\"}]}";
+
+    @Rule
+    public final TemporaryFolder snapshots = new TemporaryFolder();
+
+    private MockWebServer server;
+    private FavoriteDatabase database;
+    private MealRepository repository;
+
+    // Paths of the requests received by the server.
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                HttpUrl url = request.getRequestUrl();
+                requests.add(request.getPath());
+                switch (url.pathSegments().get(url.pathSize() - 1)) {
+                    case "categories.php":
+                        return new MockResponse().setBody(CATEGORIES_JSON);
+                    case "filter.php":
+                        return new MockResponse().setBody(
+                                "Beef".equals(url.queryParameter("c")) ? BEEF_JSON : DESSERT_JSON);
+                    default:
+                        return new MockResponse().setResponseCode(404);
+                }
+            }
+        });
+        server.start();
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, FavoriteDatabase.class).build();
+        APIInterface api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create(APIClient.getGson()))
+                .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+                .build()
+                .create(APIInterface.class);
+        repository = new MealRepository(api, database.mealDescriptionDao(),
+                database.catalogDao(), new SnapshotStore(snapshots.getRoot()));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        database.close();
+        server.shutdown();
+    }
+
+    /**
+     * Stores the Beef category and its meals in the catalog, as a synchronization would.
+     */
+    private void synchronizeBeef() {
+        database.catalogDao().replaceCategories(Collections.singletonList(
+                new CatalogCategoryEntity("Beef", "1", null, null, false)));
+        database.catalogDao().replaceMealsOfCategory("Beef", Arrays.asList(
+                new CatalogMealEntity("52878", "Beef and Oyster pie", null, "Beef", false),
+                new CatalogMealEntity("52874", "Beef and Mustard Pie", null, "Beef", false)));
+    }
+
+    /**
+     * Waits for the writes the repository started on the write executor of the database,
+     * by occupying all of its threads at once.
+     */
+    private static void awaitDatabaseWrites() throws InterruptedException {
+        int threads = 4;
+        CountDownLatch started = new CountDownLatch(threads);
+        CountDownLatch occupied = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            FavoriteDatabase.databaseWriteExecutor.execute(() -> {
+                started.countDown();
+                try {
+                    started.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                occupied.countDown();
+            });
+        }
+        assertTrue(occupied.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void getCategories_emitsCatalog_thenRevalidatesIt() throws InterruptedException {
+        synchronizeBeef();
+
+        List<CategoriesList> emitted = repository.getCategories().toList().blockingGet();
+
+        assertEquals(2, emitted.size());
+        assertEquals(1, emitted.get(0).getCategories().size());
+        assertEquals("Beef", emitted.get(0).getCategories().get(0).getStrCategory());
+        assertEquals(2, emitted.get(1).getCategories().size());
+        assertEquals(Collections.singletonList("/categories.php"), requests);
+        awaitDatabaseWrites();
+        assertEquals(2, database.catalogDao().getCategories().blockingGet().size());
+    }
+
+    @Test
+    public void getCategories_withoutCatalog_callsAPI() {
+        CategoriesList categories = repository.getCategories().blockingLast();
+
+        assertEquals(2, categories.getCategories().size());
+        assertEquals(Collections.singletonList("/categories.php"), requests);
+    }
+
+    @Test
+    public void getMealsFromCategory_emitsCatalog_thenRevalidatesIt() throws InterruptedException {
+        synchronizeBeef();
+
+        List<MealsList> emitted = repository.getMealsFromCategory("Beef").toList().blockingGet();
+
+        assertEquals(2, emitted.size());
+        assertEquals(2, emitted.get(0).getMeals().size());
+        assertEquals("Beef and Mustard Pie", emitted.get(0).getMeals().get(0).getStrMeal());
+        // The meal the API no longer lists is gone from the list, then from the catalog
+        assertEquals(1, emitted.get(1).getMeals().size());
+        assertEquals(1, requests.size());
+        awaitDatabaseWrites();
+        List<CatalogMealEntity> stored =
+                database.catalogDao().getMealsOfCategory("Beef").blockingGet();
+        assertEquals(1, stored.size());
+        assertEquals("52878", stored.get(0).getIdMeal());
+    }
+
+    @Test
+    public void getMealsFromCategory_missingFromCatalog_callsAPI() {
+        synchronizeBeef();
+
+        MealsList meals = repository.getMealsFromCategory("Dessert").blockingFirst();
+
+        assertEquals("52768", meals.getMeals().get(0).getIdMeal());
+        assertEquals(1, requests.size());
+        assertTrue(requests.get(0).startsWith("/filter.php"));
+    }
+
+    @Test
+    public void streamMealsFromCategory_readsCatalog_thenRevalidatesIt() {
+        synchronizeBeef();
+
+        List<Meal> meals = repository.streamMealsFromCategory("Beef").toList().blockingGet();
+
+        assertEquals(2, meals.size());
+        assertEquals(1, requests.size());
+        // The next opening displays the meals the API lists now
+        assertEquals(1, repository.getCachedMealsFromCategory("Beef").getMeals().size());
+    }
+
+    @Test
+    public void refreshCategories_updatesCatalog() throws InterruptedException {
+        synchronizeBeef();
+
+        CategoriesList categories = repository.refreshCategories().blockingGet();
+
+        assertEquals(2, categories.getCategories().size());
+        awaitDatabaseWrites();
+        assertEquals(2, database.catalogDao().getCategories().blockingGet().size());
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.foodapp.data.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.foodapp.data.dao.entity.MealDescriptionWithIngredients;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Upgrades databases created with the exported schemas of the previous versions, and checks
+ * that the stored data is kept and that the result matches the schema of the current version.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseMigrationsTest {
+
+    private static final String TEST_DB = "migration-test";
+    // The current version of the database.
+    private static final int LATEST_VERSION = 9;
+    // Number of rows of the database migrated against the budget.
+    private static final int LARGE_ROW_COUNT = 10_000;
+    // Time the migrations may add to the first launch after an update.
+    private static final long STARTUP_BUDGET_MS = 500;
+
+    @Rule
+    public final MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), FavoriteDatabase.class);
+
+    @Test
+    public void migrationFrom5KeepsFavorites() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 5);
+        insertFavorites(db, 3);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true,
+                DatabaseMigrations.ALL);
+        assertEquals(3, count(db, "MealEntity"));
+        db.close();
+
+        FavoriteDatabase database = openMigratedDatabase();
+        List<String> favoriteIds = database.mealDao().getFavoriteIds().blockingFirst();
+        database.close();
+        assertEquals(new HashSet<>(Arrays.asList("0", "1", "2")),
+                new HashSet<>(favoriteIds));
+    }
+
+    @Test
+    public void migrationFrom6KeepsCachedDescriptions() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 6);
+        insertFavorites(db, 1);
+        db.execSQL("INSERT INTO MealDescriptionEntity (idMeal, strMeal, cachedAt) "
+                + "VALUES ('52772', 'Teriyaki Chicken Casserole', 1)");
+        db.execSQL("INSERT INTO IngredientEntity VALUES ('52772', 0, 'soy sauce', '3/4 cup')");
+        db.execSQL("INSERT INTO IngredientEntity VALUES ('52772', 1, 'water', '1/2 cup')");
+        db.close();
+
+        helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true,
+                DatabaseMigrations.MIGRATION_6_7, DatabaseMigrations.MIGRATION_7_8,
+                DatabaseMigrations.MIGRATION_8_9).close();
+
+        FavoriteDatabase database = openMigratedDatabase();
+        MealDescriptionWithIngredients description =
+                database.mealDescriptionDao().getMealDescription("52772").blockingGet();
+        database.close();
+        assertEquals("Teriyaki Chicken Casserole",
+                description.toMealDescription().getStrMeal());
+        assertEquals(2, description.toMealDescription().getIngredientCount());
+    }
+
+    @Test
+    public void migrationFrom7KeepsOrderOfFavorites() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 7);
+        insertFavorites(db, 3);
+        db.execSQL("UPDATE MealEntity SET strMeal = 'meal 1' WHERE idMeal = '1'");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true,
+                DatabaseMigrations.MIGRATION_7_8, DatabaseMigrations.MIGRATION_8_9);
+        // The favorites added last come first, as they were added after the others
+        assertEquals(Arrays.asList("2", "1", "0"),
+                ids(db, "SELECT idMeal FROM MealEntity ORDER BY createdAt DESC"));
+        // The names are sorted regardless of case
+        assertEquals(Arrays.asList("0", "1", "2"),
+                ids(db, "SELECT idMeal FROM MealEntity ORDER BY strMeal"));
+        db.close();
+    }
+
+    @Test
+    public void migrationFrom8KeepsDescriptionsOfCatalog() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 8);
+        db.execSQL("INSERT INTO CatalogMealEntity (idMeal, strMeal, strCategory) "
+                + "VALUES ('52772', 'Teriyaki Chicken Casserole', 'Chicken')");
+        db.execSQL("INSERT INTO CatalogMealEntity (idMeal, strMeal, strCategory) "
+                + "VALUES ('52795', 'Chicken Handi', 'Chicken')");
+        db.execSQL("INSERT INTO MealDescriptionEntity (idMeal, strMeal, cachedAt) "
+                + "VALUES ('52772', 'Teriyaki Chicken Casserole', 1)");
+        db.close();
+
+        helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true,
+                DatabaseMigrations.MIGRATION_8_9).close();
+
+        FavoriteDatabase database = openMigratedDatabase();
+        List<String> mealIds = database.catalogDao().getMealIdsToDescribe();
+        database.close();
+        // Only the meal that was not described yet is left to request
+        assertEquals(Arrays.asList("52795"), mealIds);
+    }
+
+    @Test
+    public void migrationsOfLargeDatabaseFitStartupBudget() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 5);
+        insertFavorites(db, LARGE_ROW_COUNT);
+        db.close();
+
+        long start = System.nanoTime();
+        db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true,
+                DatabaseMigrations.ALL);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(LARGE_ROW_COUNT, count(db, "MealEntity"));
+        db.close();
+
+        assertTrue("Migrating " + LARGE_ROW_COUNT + " rows took " + elapsedMs + " ms",
+                elapsedMs < STARTUP_BUDGET_MS);
+    }
+
+    /**
+     * Opens the migrated database with Room, which checks it against the compiled schema.
+     *
+     * @return the migrated database
+     */
+    private FavoriteDatabase openMigratedDatabase() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        return Room.databaseBuilder(context, FavoriteDatabase.class, TEST_DB)
+                .addMigrations(DatabaseMigrations.ALL)
+                .build();
+    }
+
+    private static void insertFavorites(SupportSQLiteDatabase db, int count) {
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < count; i++) {
+                db.execSQL("INSERT INTO MealEntity VALUES (?, ?, ?, ?)", new Object[]{
+                        String.valueOf(i), "Meal " + i, "https://example.com/" + i + ".jpg",
+                        "Beef"});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static List<String> ids(SupportSQLiteDatabase db, String query) {
+        List<String> ids = new ArrayList<>();
+        try (Cursor cursor = db.query(query)) {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+            }
+        }
+        return ids;
+    }
+
+    private static int count(SupportSQLiteDatabase db, String table) {
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM " + table)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
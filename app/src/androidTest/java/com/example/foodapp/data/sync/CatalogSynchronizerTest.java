@@ -0,0 +1,195 @@
+package com.example.foodapp.data.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.foodapp.data.api.APIClient;
+import com.example.foodapp.data.api.APIInterface;
+import com.example.foodapp.data.dao.FavoriteDatabase;
+import com.example.foodapp.data.index.IngredientIndex;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Synchronizes a small catalog served by a local server into an in-memory database, and
+ * checks that an interrupted synchronization resumes where it stopped, that a meal
+ * without description does not keep the synchronization from completing, and that the
+ * next synchronization deletes what the API no longer lists.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CatalogSynchronizerTest {
+
+    private static final String BEEF_CATEGORY_JSON = "{\"categories\":["
+            + "{\"idCategory\":\"1\",\"strCategory\":\"Beef\"}]}";
+    private static final String CATEGORIES_JSON = "{\"categories\":["
+            + "{\"idCategory\":\"1\",\"strCategory\":\"Beef\"},"
+            + "{\"idCategory\":\"2\",\"strCategory\":\"Dessert\"}]}";
+    private static final String BEEF_JSON = "{\"meals\":["
+            + "{\"idMeal\":\"52874\",\"strMeal\":\"Beef and Mustard Pie\"},"
+            + "{\"idMeal\":\"52878\",\"strMeal\":\"Beef and Oyster pie\"}]}";
+    private static final String SINGLE_BEEF_JSON = "{\"meals\":["
+            + "{\"idMeal\":\"52878\",\"strMeal\":\"Beef and Oyster pie\"}]}";
+    private static final String DESSERT_JSON = "{\"meals\":["
+            + "{\"idMeal\":\"52768\",\"strMeal\":\"Apple Frangipan Tart\"}]}";
+
+    private MockWebServer server;
+    private FavoriteDatabase database;
+
+    // Paths of the requests received by the server.
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    // IDs of the meals whose description the server fails to return.
+    private final Set<String> failingLookups = ConcurrentHashMap.newKeySet();
+    // IDs of the meals the server has no description for.
+    private final Set<String> undescribedMeals = ConcurrentHashMap.newKeySet();
+    // Bodies of the categories and of the meals of Beef served, changed to update the API.
+    private volatile String categoriesJson = CATEGORIES_JSON;
+    private volatile String beefJson = BEEF_JSON;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                HttpUrl url = request.getRequestUrl();
+                requests.add(request.getPath());
+                switch (url.pathSegments().get(url.pathSize() - 1)) {
+                    case "categories.php":
+                        return new MockResponse().setBody(categoriesJson);
+                    case "filter.php":
+                        return new MockResponse().setBody(
+                                "Beef".equals(url.queryParameter("c")) ? beefJson : DESSERT_JSON);
+                    case "lookup.php":
+                        String id = url.queryParameter("i");
+                        if (failingLookups.contains(id)) {
+                            return new MockResponse().setResponseCode(404);
+                        }
+                        if (undescribedMeals.contains(id)) {
+                            return new MockResponse().setBody("{\"meals\":null}");
+                        }
+                        return new MockResponse().setBody("{\"meals\":[{\"idMeal\":\"" + id
+                                + "\",\"strMeal\":\"Meal " + id + "\",\"strIngredient1\":\"Salt\","
+                                + "\"strMeasure1\":\"1 tsp\"}]}");
+                    default:
+                        return new MockResponse().setResponseCode(404);
+                }
+            }
+        });
+        server.start();
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = Room.inMemoryDatabaseBuilder(context, FavoriteDatabase.class).build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        database.close();
+        server.shutdown();
+    }
+
+    private CatalogSynchronizer createSynchronizer() {
+        APIInterface api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create(APIClient.getGson()))
+                .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+                .build()
+                .create(APIInterface.class);
+        return new CatalogSynchronizer(api, database.catalogDao(),
+                database.mealDescriptionDao(), new IngredientIndex(), 2, Schedulers.io());
+    }
+
+    private long countRequests(String path) {
+        return requests.stream().filter(request -> request.startsWith(path)).count();
+    }
+
+    @Test
+    public void synchronize_storesWholeCatalog() {
+        createSynchronizer().synchronize().blockingAwait();
+
+        assertEquals(3, database.catalogDao().countMeals());
+        assertEquals(2, database.catalogDao().getMealsOfCategory("Beef").blockingGet().size());
+        assertEquals(0, database.catalogDao().getMealIdsToDescribe().size());
+        assertNotNull(database.mealDescriptionDao().getMealDescription("52768").blockingGet());
+        assertEquals(1, countRequests("/categories.php"));
+        assertEquals(2, countRequests("/filter.php"));
+        assertEquals(3, countRequests("/lookup.php"));
+    }
+
+    @Test
+    public void interruptedSynchronization_resumesFromCheckpoint() {
+        failingLookups.add("52878");
+        Throwable error = createSynchronizer().synchronize().blockingGet();
+
+        assertNotNull(error);
+        assertEquals(3, database.catalogDao().countMeals());
+        assertEquals(1, database.catalogDao().getMealIdsToDescribe().size());
+
+        failingLookups.clear();
+        requests.clear();
+        createSynchronizer().synchronize().blockingAwait();
+
+        // Only the missing description is requested again
+        assertEquals(0, database.catalogDao().getMealIdsToDescribe().size());
+        assertEquals(0, countRequests("/filter.php"));
+        assertEquals(1, countRequests("/lookup.php"));
+        assertTrue(requests.get(requests.size() - 1).endsWith("i=52878"));
+    }
+
+    @Test
+    public void mealWithoutDescription_completesSynchronization() {
+        undescribedMeals.add("52878");
+        createSynchronizer().synchronize().blockingAwait();
+
+        assertNull(database.mealDescriptionDao().getMealDescription("52878").blockingGet());
+        assertEquals(0, database.catalogDao().getMealIdsToDescribe().size());
+
+        requests.clear();
+        createSynchronizer().synchronize().blockingAwait();
+
+        // The next synchronization starts over, and requests the missing description once
+        assertEquals(2, countRequests("/filter.php"));
+        assertEquals(1, countRequests("/lookup.php"));
+        assertEquals(0, database.catalogDao().getMealIdsToDescribe().size());
+    }
+
+    @Test
+    public void nextSynchronization_deletesWhatAPIDropped() {
+        createSynchronizer().synchronize().blockingAwait();
+
+        categoriesJson = BEEF_CATEGORY_JSON;
+        beefJson = SINGLE_BEEF_JSON;
+        createSynchronizer().synchronize().blockingAwait();
+
+        assertEquals(1, database.catalogDao().getCategories().blockingGet().size());
+        assertEquals(1, database.catalogDao().countMeals());
+        assertEquals("52878",
+                database.catalogDao().getMealsOfCategory("Beef").blockingGet().get(0).getIdMeal());
+    }
+}
@@ -1,5 +1,27 @@
 package com.example.foodapp.data.api;
 
+import android.content.Context;
+
+import com.example.foodapp.data.api.interceptor.CacheOnlyInterceptor;
+import com.example.foodapp.data.api.interceptor.CachePolicyInterceptor;
+import com.example.foodapp.data.api.interceptor.MetricsInterceptor;
+import com.example.foodapp.data.api.interceptor.OfflineCacheInterceptor;
+import com.example.foodapp.data.api.metrics.NetworkMetrics;
+import com.example.foodapp.data.api.model.Stag;
+import com.example.foodapp.data.api.resilience.CircuitBreaker;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.Schedulers;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
 import retrofit2.converter.gson.GsonConverterFactory;
@@ -13,9 +35,134 @@ public class APIClient {
     // The base URL of the API.
     public static final String BASE_URL ="https://www.themealdb.com/api/json/v1/1/";
 
+    // Name of the directory, in the app's cache directory, holding the HTTP responses.
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    // Maximum size of the HTTP cache on disk, in bytes.
+    private static final long HTTP_CACHE_SIZE = 10L * 1024 * 1024;
+
+    // Maximum number of idle connections kept open, shared by the API calls and the images.
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    // How long an idle connection is kept open, in minutes.
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    // Maximum number of concurrent requests, and of concurrent requests to a single host.
+    // Thumbnails and JSON are all served by themealdb.com, so the per-host limit matters most.
+    private static final int MAX_REQUESTS = 32;
+    private static final int MAX_REQUESTS_PER_HOST = 12;
+
+    // The latencies, sizes and sources of the responses of the API, by endpoint.
+    private static final NetworkMetrics metrics = new NetworkMetrics();
+
+    // The OkHttp client owning the connection pool and the dispatcher of the application.
+    private static OkHttpClient baseHttpClient;
+
+    // The OkHttp client shared by every call to the API.
+    private static OkHttpClient httpClient;
+
+    // The Gson instance decoding the responses of the API.
+    private static Gson gson;
+
     // The Retrofit client instance.
     private static Retrofit retrofit;
 
+    // The layer protecting the calls to the API against failures.
+    private static ResilientAPIService resilientService;
+
+    // The API service shared by every screen.
+    private static APIInterface service;
+
+    /**
+     * Initializes the shared OkHttp client with an on-disk cache of the API responses.
+     * Must be called before the first call to {@link #getClient()}, otherwise the API will
+     * be used without any cache.
+     *
+     * @param context any context of the application, used to locate its cache directory
+     */
+    public static synchronized void init(Context context) {
+        if (httpClient == null) {
+            File cacheDir = new File(context.getApplicationContext().getCacheDir(), HTTP_CACHE_DIR);
+            httpClient = buildHttpClient(new Cache(cacheDir, HTTP_CACHE_SIZE));
+        }
+    }
+
+    /**
+     * Returns the OkHttp client shared by every call to the API.
+     * If {@link #init(Context)} has not been called yet, a client without cache is created.
+     *
+     * @return the shared OkHttp client
+     */
+    public static synchronized OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            httpClient = buildHttpClient(null);
+        }
+        return httpClient;
+    }
+
+    /**
+     * Returns the OkHttp client whose connection pool and dispatcher are shared by the calls
+     * to the API and the loading of images by Glide, so that both reuse the same warm
+     * connections to themealdb.com instead of each opening their own.
+     * Clients derived from it with {@link OkHttpClient#newBuilder()} share its pool and
+     * dispatcher.
+     *
+     * @return the base OkHttp client, without cache nor interceptors
+     */
+    public static synchronized OkHttpClient getBaseHttpClient() {
+        if (baseHttpClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(MAX_REQUESTS);
+            dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+            baseHttpClient = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS,
+                            KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                    .dispatcher(dispatcher)
+                    .build();
+        }
+        return baseHttpClient;
+    }
+
+    /**
+     * Creates the OkHttp client of the API, sharing the connections of the base client:
+     * responses are stored in the given cache with a freshness depending on their endpoint,
+     * and stale responses are served when offline.
+     * Every call is measured in the shared {@link NetworkMetrics}.
+     *
+     * @param cache the disk cache of the responses, or null to disable caching
+     * @return a new OkHttp client
+     */
+    private static OkHttpClient buildHttpClient(Cache cache) {
+        return getBaseHttpClient().newBuilder()
+                .cache(cache)
+                .addInterceptor(new OfflineCacheInterceptor())
+                .addInterceptor(new MetricsInterceptor(metrics))
+                .addNetworkInterceptor(new CachePolicyInterceptor())
+                .build();
+    }
+
+    /**
+     * Returns the metrics of the calls made to the API since the application started.
+     *
+     * @return the network metrics, by endpoint
+     */
+    public static NetworkMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the Gson instance used to decode the responses of the API.
+     * The models of the API are decoded by the TypeAdapters generated by Stag at compile time,
+     * instead of Gson's reflection.
+     *
+     * @return the shared Gson instance
+     */
+    public static synchronized Gson getGson() {
+        if (gson == null) {
+            gson = new GsonBuilder()
+                    .registerTypeAdapterFactory(new Stag.Factory())
+                    .create();
+        }
+        return gson;
+    }
+
     /**
      * This method returns the Retrofit client instance. If it has not yet been initialized,
      * it will create a new instance using the base URL and add the necessary converter factories
@@ -23,15 +170,75 @@ public class APIClient {
      *
      * @return the Retrofit client instance.
      */
-    public static Retrofit getClient(){
+    public static synchronized Retrofit getClient(){
         if (retrofit == null){
             retrofit = new Retrofit.Builder()
                     .baseUrl(BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
+                    .client(getHttpClient())
+                    .addConverterFactory(GsonConverterFactory.create(getGson()))
                     .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
                     .build();
         }
         return retrofit;
     }
-}
 
+    /**
+     * Creates a service of the API reading only the HTTP cache of the shared client.
+     *
+     * @return an API service never reaching the network
+     */
+    private static APIInterface createCacheOnlyService() {
+        OkHttpClient cacheOnlyClient = getHttpClient().newBuilder()
+                .addInterceptor(new CacheOnlyInterceptor())
+                .build();
+        return getClient().newBuilder()
+                .client(cacheOnlyClient)
+                .build()
+                .create(APIInterface.class);
+    }
+
+    /**
+     * Returns the service shared by the whole application to call the API.
+     * Identical calls made while one is still running are merged into a single request,
+     * which is retried on transient failures, and answered from the HTTP cache while its
+     * endpoint is down.
+     *
+     * @return the shared API service
+     */
+    public static synchronized APIInterface getService() {
+        if (service == null) {
+            resilientService = new ResilientAPIService(getClient().create(APIInterface.class),
+                    createCacheOnlyService(), ResilientAPIService.defaultPolicies(),
+                    Schedulers.computation());
+            service = new CoalescingAPIService(resilientService);
+        }
+        return service;
+    }
+
+    /**
+     * Creates a service of the API for the background synchronization of the catalog.
+     * It shares the connections of the application, but neither its HTTP cache, which the
+     * whole catalog would flush, nor its circuit breakers, so that the failures of the
+     * synchronization never cut the screens off the API.
+     *
+     * @return a new API service, protected by the policies of the synchronization
+     */
+    public static APIInterface createSyncService() {
+        APIInterface api = getClient().newBuilder()
+                .client(getBaseHttpClient())
+                .build()
+                .create(APIInterface.class);
+        return new ResilientAPIService(api, ResilientAPIService.syncPolicies(),
+                Schedulers.computation());
+    }
+
+    /**
+     * Returns the circuit breaker of each endpoint of the API, to query their state.
+     *
+     * @return the circuit breakers by name of endpoint, like "lookup.php"
+     */
+    public static synchronized Map<String, CircuitBreaker> getCircuitBreakers() {
+        getService();
+        return resilientService.getCircuitBreakers();
+    }
+}
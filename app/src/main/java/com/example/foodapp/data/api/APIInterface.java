@@ -5,8 +5,12 @@ import com.example.foodapp.data.api.model.MealDescriptionsList;
 import com.example.foodapp.data.api.model.MealsList;
 
 import io.reactivex.Observable;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 public interface APIInterface {
     /**
@@ -26,6 +30,37 @@ public interface APIInterface {
     @GET("filter.php?")
     Observable<MealsList> getMealsFromCategory(@Query("c") String category);
 
+    /**
+     * This method retrieves a list of meals from a specified area from the API.
+     *
+     * @param area the area of the meals to retrieve, like "Italian".
+     * @return an Observable of the list of meals.
+     */
+    @GET("filter.php?")
+    Observable<MealsList> getMealsFromArea(@Query("a") String area);
+
+    /**
+     * This method retrieves a list of meals using a specified ingredient from the API.
+     *
+     * @param ingredient the main ingredient of the meals to retrieve, with underscores
+     *                   instead of spaces, like "chicken_breast".
+     * @return an Observable of the list of meals.
+     */
+    @GET("filter.php?")
+    Observable<MealsList> getMealsWithIngredient(@Query("i") String ingredient);
+
+    /**
+     * This method retrieves the raw list of meals from a specified category from the API.
+     * The body is not buffered, so that it can be decoded while it is being downloaded.
+     *
+     * @param category the category of meals to retrieve.
+     * @return an Observable of the body of the response, to be read and closed by the caller.
+     * @see StreamingListDecoder
+     */
+    @Streaming
+    @GET("filter.php?")
+    Observable<ResponseBody> streamMealsFromCategory(@Query("c") String category);
+
     /**
      * This method retrieves a description of a meal with a specified ID from the API.
      *
@@ -34,5 +69,48 @@ public interface APIInterface {
      */
     @GET("lookup.php?")
     Observable<MealDescriptionsList> getMealDescriptionFromId(@Query("i") String mealId);
-}
 
+    /**
+     * This method searches the meals whose name contains a text in the API.
+     *
+     * @param name the text to search in the names of the meals.
+     * @return an Observable of the descriptions of the meals found, null if there are none.
+     */
+    @GET("search.php?")
+    Observable<MealDescriptionsList> searchMealsByName(@Query("s") String name);
+
+    /**
+     * This method revalidates the list of categories of meals with the API, even if it is
+     * fresh in the HTTP cache. If the cached response has a validator, the request is
+     * conditional and the server answers 304 without any body when nothing changed.
+     *
+     * @return an Observable of the raw response, whose body must be closed by the caller.
+     */
+    @Headers("Cache-Control: max-age=0")
+    @GET("categories.php")
+    Observable<Response<ResponseBody>> revalidateCategoriesList();
+
+    /**
+     * This method revalidates the list of meals from a specified category with the API,
+     * even if it is fresh in the HTTP cache.
+     *
+     * @param category the category of meals to retrieve.
+     * @return an Observable of the raw response, whose body must be closed by the caller.
+     * @see #revalidateCategoriesList()
+     */
+    @Headers("Cache-Control: max-age=0")
+    @GET("filter.php?")
+    Observable<Response<ResponseBody>> revalidateMealsFromCategory(@Query("c") String category);
+
+    /**
+     * This method revalidates the description of a meal with the API, even if it is fresh
+     * in the HTTP cache.
+     *
+     * @param mealId the ID of the meal to retrieve.
+     * @return an Observable of the raw response, whose body must be closed by the caller.
+     * @see #revalidateCategoriesList()
+     */
+    @Headers("Cache-Control: max-age=0")
+    @GET("lookup.php?")
+    Observable<Response<ResponseBody>> revalidateMealDescriptionFromId(@Query("i") String mealId);
+}
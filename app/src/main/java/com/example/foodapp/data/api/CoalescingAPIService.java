@@ -0,0 +1,124 @@
+package com.example.foodapp.data.api;
+
+import com.example.foodapp.data.api.model.CategoriesList;
+import com.example.foodapp.data.api.model.MealDescriptionsList;
+import com.example.foodapp.data.api.model.MealsList;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Observable;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * An {@link APIInterface} deduplicating identical calls to the API.
+ * While a call for a given endpoint and argument is running, every other subscriber asking
+ * for the same data shares its Observable instead of sending a new request, and receives
+ * the result once it arrives (or right away if it already has).
+ */
+public class CoalescingAPIService implements APIInterface {
+
+    // The Retrofit implementation actually calling the API.
+    private final APIInterface delegate;
+
+    // The calls currently running, by endpoint and argument.
+    private final ConcurrentMap<String, Observable<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a coalescing layer around an API service.
+     *
+     * @param delegate the API service performing the network calls
+     */
+    public CoalescingAPIService(APIInterface delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Observable<CategoriesList> getCategoriesList() {
+        return coalesce("categories.php", delegate::getCategoriesList);
+    }
+
+    @Override
+    public Observable<MealsList> getMealsFromCategory(String category) {
+        return coalesce("filter.php?c=" + category, () -> delegate.getMealsFromCategory(category));
+    }
+
+    @Override
+    public Observable<MealsList> getMealsFromArea(String area) {
+        return coalesce("filter.php?a=" + area, () -> delegate.getMealsFromArea(area));
+    }
+
+    @Override
+    public Observable<MealsList> getMealsWithIngredient(String ingredient) {
+        return coalesce("filter.php?i=" + ingredient, () -> delegate.getMealsWithIngredient(ingredient));
+    }
+
+    @Override
+    public Observable<ResponseBody> streamMealsFromCategory(String category) {
+        // A streamed body can only be read once, so it cannot be shared between subscribers
+        return delegate.streamMealsFromCategory(category);
+    }
+
+    @Override
+    public Observable<MealDescriptionsList> getMealDescriptionFromId(String mealId) {
+        return coalesce("lookup.php?i=" + mealId, () -> delegate.getMealDescriptionFromId(mealId));
+    }
+
+    @Override
+    public Observable<MealDescriptionsList> searchMealsByName(String name) {
+        return coalesce("search.php?s=" + name, () -> delegate.searchMealsByName(name));
+    }
+
+    // Revalidations are explicitly requested and return bodies, so they are never shared
+
+    @Override
+    public Observable<Response<ResponseBody>> revalidateCategoriesList() {
+        return delegate.revalidateCategoriesList();
+    }
+
+    @Override
+    public Observable<Response<ResponseBody>> revalidateMealsFromCategory(String category) {
+        return delegate.revalidateMealsFromCategory(category);
+    }
+
+    @Override
+    public Observable<Response<ResponseBody>> revalidateMealDescriptionFromId(String mealId) {
+        return delegate.revalidateMealDescriptionFromId(mealId);
+    }
+
+    /**
+     * Returns the Observable of the running call for the given key, or starts a new one.
+     * The call is subscribed to lazily, so the key is only looked up on subscription.
+     *
+     * @param key the endpoint and argument identifying the call
+     * @param call creates the Observable performing the call
+     * @param <T> the type of the response
+     * @return an Observable sharing the result of the call with every subscriber of the same key
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Observable<T> coalesce(String key, Callable<Observable<T>> call) {
+        return Observable.defer(() -> (Observable<T>) inFlight.computeIfAbsent(key, k -> share(k, call)));
+    }
+
+    /**
+     * Wraps a call so that all its subscribers share a single request, and so that it is
+     * forgotten as soon as it terminates or every subscriber is gone.
+     *
+     * @param key the endpoint and argument identifying the call
+     * @param call creates the Observable performing the call
+     * @param <T> the type of the response
+     * @return the shared Observable of the call
+     */
+    private <T> Observable<T> share(String key, Callable<Observable<T>> call) {
+        AtomicReference<Observable<T>> self = new AtomicReference<>();
+        Observable<T> shared = Observable.defer(call)
+                .doFinally(() -> inFlight.remove(key, self.get()))
+                .replay()
+                .refCount();
+        self.set(shared);
+        return shared;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.foodapp.data.api;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+
+import java.io.InputStream;
+
+/**
+ * Configures Glide to download the images of the meals and categories with the OkHttp
+ * connection pool and dispatcher of {@link APIClient}, instead of its own HTTP stack.
+ * Images are not stored in the HTTP cache of the API, as Glide has its own disk cache.
+ */
+@GlideModule
+public class FoodAppGlideModule extends AppGlideModule {
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide,
+                                   @NonNull Registry registry) {
+        registry.replace(GlideUrl.class, InputStream.class,
+                new OkHttpUrlLoader.Factory(APIClient.getBaseHttpClient()));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        // No library of the application declares its module in the manifest anymore
+        return false;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.foodapp.data.api;
+
+import com.example.foodapp.data.api.model.CategoriesList;
+import com.example.foodapp.data.api.model.MealDescriptionsList;
+import com.example.foodapp.data.api.model.MealsList;
+import com.example.foodapp.data.api.resilience.CircuitBreaker;
+import com.example.foodapp.data.api.resilience.ResiliencePolicy;
+import com.example.foodapp.data.api.resilience.ResilienceTransformer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import okhttp3.ResponseBody;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * An {@link APIInterface} protecting every call to the API with the
+ * {@link ResiliencePolicy} of its endpoint: a timeout per attempt, retries of transient
+ * failures with an exponential backoff, and a {@link CircuitBreaker} per endpoint.
+ * While the circuit breaker of an endpoint is open, its calls are answered from the HTTP cache
+ * if a service reading only the cache is given, and fail at once otherwise.
+ */
+public class ResilientAPIService implements APIInterface {
+
+    private static final String CATEGORIES = "categories.php";
+    private static final String FILTER = "filter.php";
+    private static final String LOOKUP = "lookup.php";
+    private static final String SEARCH = "search.php";
+
+    // The Retrofit implementation actually calling the API.
+    private final APIInterface delegate;
+
+    // The Retrofit implementation reading only the HTTP cache, null if there is none.
+    private final APIInterface cacheOnlyDelegate;
+
+    // The policy of each endpoint.
+    private final Map<String, ResiliencePolicy> policies;
+
+    // The circuit breaker of each endpoint.
+    private final Map<String, CircuitBreaker> circuitBreakers = new HashMap<>();
+
+    // Runs the timeouts and the delays between attempts.
+    private final Scheduler scheduler;
+
+    private final Random random = new Random();
+
+    /**
+     * Creates a resilience layer around an API service.
+     *
+     * @param delegate the API service performing the network calls
+     * @param policies the policy of every endpoint, by name of endpoint like "lookup.php"
+     * @param scheduler the scheduler running the timeouts and the delays between attempts
+     */
+    public ResilientAPIService(APIInterface delegate, Map<String, ResiliencePolicy> policies,
+                               Scheduler scheduler) {
+        this(delegate, null, policies, scheduler);
+    }
+
+    /**
+     * Creates a resilience layer around an API service, falling back on the HTTP cache while
+     * an endpoint is down.
+     *
+     * @param delegate the API service performing the network calls
+     * @param cacheOnlyDelegate the same API service only reading the HTTP cache, or null
+     * @param policies the policy of every endpoint, by name of endpoint like "lookup.php"
+     * @param scheduler the scheduler running the timeouts and the delays between attempts
+     */
+    public ResilientAPIService(APIInterface delegate, APIInterface cacheOnlyDelegate,
+                               Map<String, ResiliencePolicy> policies, Scheduler scheduler) {
+        this.delegate = delegate;
+        this.cacheOnlyDelegate = cacheOnlyDelegate;
+        this.policies = policies;
+        this.scheduler = scheduler;
+        for (Map.Entry<String, ResiliencePolicy> endpoint : policies.entrySet()) {
+            ResiliencePolicy policy = endpoint.getValue();
+            circuitBreakers.put(endpoint.getKey(), new CircuitBreaker(endpoint.getKey(),
+                    policy.getFailureThreshold(), policy.getOpenDurationMillis(), scheduler));
+        }
+    }
+
+    /**
+     * Returns the policies used by the application for each endpoint of the API.
+     *
+     * @return the policies by name of endpoint
+     */
+    public static Map<String, ResiliencePolicy> defaultPolicies() {
+        Map<String, ResiliencePolicy> policies = new HashMap<>();
+        // The home screen is empty without the categories, so they are retried the most
+        policies.put(CATEGORIES, new ResiliencePolicy(TimeUnit.SECONDS.toMillis(8), 4,
+                500, TimeUnit.SECONDS.toMillis(8), 5, TimeUnit.SECONDS.toMillis(30)));
+        // The timeout covers the whole body of the lists of meals, but only the headers of
+        // the meals of a category streamed, whose body is read after the attempt answered
+        policies.put(FILTER, new ResiliencePolicy(TimeUnit.SECONDS.toMillis(8), 3,
+                500, TimeUnit.SECONDS.toMillis(5), 5, TimeUnit.SECONDS.toMillis(30)));
+        policies.put(LOOKUP, new ResiliencePolicy(TimeUnit.SECONDS.toMillis(6), 3,
+                300, TimeUnit.SECONDS.toMillis(4), 5, TimeUnit.SECONDS.toMillis(30)));
+        // A search is replaced by the next one as the user types, so it is retried only once
+        policies.put(SEARCH, new ResiliencePolicy(TimeUnit.SECONDS.toMillis(5), 1,
+                300, TimeUnit.SECONDS.toMillis(1), 5, TimeUnit.SECONDS.toMillis(30)));
+        return policies;
+    }
+
+    /**
+     * Returns the policies of the background synchronization of the catalog, for the
+     * endpoints it calls. Nobody waits for it, so its calls are given more time and more
+     * retries, and its circuit breakers stay open longer to spare a struggling API.
+     *
+     * @return the policies by name of endpoint
+     */
+    public static Map<String, ResiliencePolicy> syncPolicies() {
+        Map<String, ResiliencePolicy> policies = new HashMap<>();
+        policies.put(CATEGORIES, new ResiliencePolicy(TimeUnit.SECONDS.toMillis(20), 5,
+                1000, TimeUnit.SECONDS.toMillis(30), 10, TimeUnit.MINUTES.toMillis(5)));
+        policies.put(FILTER, new ResiliencePolicy(TimeUnit.SECONDS.toMillis(20), 5,
+                1000, TimeUnit.SECONDS.toMillis(30), 10, TimeUnit.MINUTES.toMillis(5)));
+        policies.put(LOOKUP, new ResiliencePolicy(TimeUnit.SECONDS.toMillis(15), 5,
+                1000, TimeUnit.SECONDS.toMillis(30), 10, TimeUnit.MINUTES.toMillis(5)));
+        return policies;
+    }
+
+    @Override
+    public Observable<CategoriesList> getCategoriesList() {
+        return protect(CATEGORIES, api -> api.getCategoriesList());
+    }
+
+    @Override
+    public Observable<MealsList> getMealsFromCategory(String category) {
+        return protect(FILTER, api -> api.getMealsFromCategory(category));
+    }
+
+    @Override
+    public Observable<MealsList> getMealsFromArea(String area) {
+        return protect(FILTER, api -> api.getMealsFromArea(area));
+    }
+
+    @Override
+    public Observable<MealsList> getMealsWithIngredient(String ingredient) {
+        return protect(FILTER, api -> api.getMealsWithIngredient(ingredient));
+    }
+
+    @Override
+    public Observable<ResponseBody> streamMealsFromCategory(String category) {
+        return protect(FILTER, api -> api.streamMealsFromCategory(category));
+    }
+
+    @Override
+    public Observable<MealDescriptionsList> getMealDescriptionFromId(String mealId) {
+        return protect(LOOKUP, api -> api.getMealDescriptionFromId(mealId));
+    }
+
+    @Override
+    public Observable<MealDescriptionsList> searchMealsByName(String name) {
+        return protect(SEARCH, api -> api.searchMealsByName(name));
+    }
+
+    @Override
+    public Observable<Response<ResponseBody>> revalidateCategoriesList() {
+        return delegate.revalidateCategoriesList()
+                .map(ResilientAPIService::requireSuccessful)
+                .compose(protect(CATEGORIES));
+    }
+
+    @Override
+    public Observable<Response<ResponseBody>> revalidateMealsFromCategory(String category) {
+        return delegate.revalidateMealsFromCategory(category)
+                .map(ResilientAPIService::requireSuccessful)
+                .compose(protect(FILTER));
+    }
+
+    @Override
+    public Observable<Response<ResponseBody>> revalidateMealDescriptionFromId(String mealId) {
+        return delegate.revalidateMealDescriptionFromId(mealId)
+                .map(ResilientAPIService::requireSuccessful)
+                .compose(protect(LOOKUP));
+    }
+
+    /**
+     * Turns an unsuccessful raw response into an error, like for the other calls, so that
+     * server errors are retried and counted by the circuit breaker.
+     *
+     * @param response the raw response of a call
+     * @return the response, if successful
+     * @throws HttpException if the response has an error status
+     */
+    private static Response<ResponseBody> requireSuccessful(Response<ResponseBody> response) {
+        if (!response.isSuccessful()) {
+            throw new HttpException(response);
+        }
+        return response;
+    }
+
+    /**
+     * Returns the circuit breaker of each endpoint, to query their state.
+     *
+     * @return the circuit breakers by name of endpoint
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    /**
+     * Protects a call to an endpoint, answered from the HTTP cache while the endpoint is down.
+     *
+     * @param endpoint the name of the endpoint
+     * @param call makes the call with a service
+     * @param <T> the type of the response
+     * @return the protected call
+     */
+    private <T> Observable<T> protect(String endpoint, Function<APIInterface, Observable<T>> call) {
+        Observable<T> fallback = cacheOnlyDelegate != null ? call.apply(cacheOnlyDelegate) : null;
+        return call.apply(delegate).compose(new ResilienceTransformer<>(policies.get(endpoint),
+                circuitBreakers.get(endpoint), scheduler, random, fallback));
+    }
+
+    /**
+     * Creates the transformer protecting a call to an endpoint.
+     * The revalidations are not answered from the cache, as they are asked to reach the server.
+     *
+     * @param endpoint the name of the endpoint
+     * @param <T> the type of the response
+     * @return the transformer applying the policy of the endpoint
+     */
+    private <T> ResilienceTransformer<T> protect(String endpoint) {
+        return new ResilienceTransformer<>(policies.get(endpoint), circuitBreakers.get(endpoint),
+                scheduler, random);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.foodapp.data.api;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.lang.reflect.Type;
+
+import io.reactivex.Observable;
+import okhttp3.ResponseBody;
+
+/**
+ * Decodes a JSON list from a response of the API while it is being downloaded.
+ * The responses of the API are objects holding their list in a single field, like
+ * <code>{"meals": [...]}</code>: each item of that list is emitted as soon as it is read,
+ * without ever materializing the whole response in memory.
+ *
+ * @param <T> the type of the items of the list
+ */
+public class StreamingListDecoder<T> {
+
+    private final Gson gson;
+    // Name of the field of the response holding the list.
+    private final String listField;
+    private final Type itemType;
+
+    /**
+     * Creates a decoder of the items of a list.
+     *
+     * @param gson the Gson instance used to decode each item
+     * @param listField the name of the field of the response holding the list
+     * @param itemType the type of the items of the list
+     */
+    public StreamingListDecoder(Gson gson, String listField, Type itemType) {
+        this.gson = gson;
+        this.listField = listField;
+        this.itemType = itemType;
+    }
+
+    /**
+     * Reads the items of the list from a response body. The body is read on the thread
+     * subscribing to the returned Observable, and closed once the list is read or when the
+     * subscription is disposed.
+     * Completes without emitting anything if the list is missing or null.
+     *
+     * @param body the body of a response of the API, requested with @Streaming
+     * @return an Observable emitting each item of the list, in order
+     */
+    public Observable<T> decode(ResponseBody body) {
+        return Observable.create(emitter -> {
+            emitter.setCancellable(body::close);
+            try (JsonReader reader = gson.newJsonReader(body.charStream())) {
+                reader.beginObject();
+                while (reader.hasNext() && !emitter.isDisposed()) {
+                    if (!reader.nextName().equals(listField) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext() && !emitter.isDisposed()) {
+                        T item = gson.fromJson(reader, itemType);
+                        if (item != null) {
+                            emitter.onNext(item);
+                        }
+                    }
+                    if (emitter.isDisposed()) {
+                        return;
+                    }
+                    reader.endArray();
+                }
+                emitter.onComplete();
+            } catch (Exception e) {
+                // Reading fails once the body is closed by a disposal, which is not an error
+                emitter.tryOnError(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.foodapp.data.api.interceptor;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Application interceptor answering every request from the disk cache only, even with a
+ * stale response, without ever reaching the network.
+ * Used to serve the last known data of an endpoint while its circuit breaker is open.
+ */
+public class CacheOnlyInterceptor implements Interceptor {
+
+    /**
+     * Proceeds with the request against the cache only.
+     *
+     * @param chain the chain of the call
+     * @return the cached response, or a 504 if nothing usable is cached
+     * @throws IOException if the cache cannot be read
+     */
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        return chain.proceed(OfflineCacheInterceptor.toCacheOnly(chain.request()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.foodapp.data.api.interceptor;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Network interceptor rewriting the caching headers of TheMealDB responses.
+ * The API does not send any freshness information, so every endpoint is given its own
+ * max-age here, depending on how often its data is expected to change.
+ */
+public class CachePolicyInterceptor implements Interceptor {
+
+    // Freshness (in seconds) of the responses of each endpoint of the API.
+    private static final Map<String, Long> MAX_AGE_BY_ENDPOINT = new HashMap<>();
+
+    static {
+        // The list of categories almost never changes
+        MAX_AGE_BY_ENDPOINT.put("categories.php", TimeUnit.DAYS.toSeconds(3));
+        // Meals get added to categories from time to time
+        MAX_AGE_BY_ENDPOINT.put("filter.php", TimeUnit.HOURS.toSeconds(6));
+        // The description of a meal is virtually immutable
+        MAX_AGE_BY_ENDPOINT.put("lookup.php", TimeUnit.DAYS.toSeconds(30));
+    }
+
+    /**
+     * Returns the freshness given to the responses of the endpoint of a request.
+     *
+     * @param request the request sent to the API
+     * @return the max-age in seconds, or null if the endpoint has no caching policy
+     */
+    private static Long maxAgeOf(Request request) {
+        List<String> segments = request.url().pathSegments();
+        return MAX_AGE_BY_ENDPOINT.get(segments.get(segments.size() - 1));
+    }
+
+    /**
+     * Replaces the Cache-Control header of successful GET responses with the max-age of
+     * their endpoint, so that OkHttp stores them in its disk cache.
+     *
+     * @param chain the chain of the network call
+     * @return the response of the server, with rewritten caching headers
+     * @throws IOException if the call failed
+     */
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        Long maxAge = maxAgeOf(request);
+        if (maxAge == null || !"GET".equals(request.method()) || !response.isSuccessful()) {
+            return response;
+        }
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "public, max-age=" + maxAge)
+                .build();
+    }
+}
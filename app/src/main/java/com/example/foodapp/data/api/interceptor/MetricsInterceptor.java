@@ -0,0 +1,152 @@
+package com.example.foodapp.data.api.interceptor;
+
+import androidx.annotation.NonNull;
+
+import com.example.foodapp.data.api.metrics.EndpointMetrics;
+import com.example.foodapp.data.api.metrics.NetworkMetrics;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.util.List;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Application interceptor recording the {@link NetworkMetrics} of every call to the API:
+ * its latency until the headers are received, whether it was answered by the cache or the
+ * network, the size of its body once read, and how it failed.
+ * Placed after the {@link OfflineCacheInterceptor}, so that a call failing offline is
+ * recorded as an error, and its fallback on the cache as a cached response.
+ */
+public class MetricsInterceptor implements Interceptor {
+
+    // The metrics being recorded.
+    private final NetworkMetrics metrics;
+
+    /**
+     * Creates an interceptor recording its measures in the given metrics.
+     *
+     * @param metrics the metrics to fill
+     */
+    public MetricsInterceptor(NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the name of the endpoint of a request, which is the last segment of its path.
+     *
+     * @param request the request sent to the API
+     * @return the name of the endpoint, like "lookup.php"
+     */
+    private static String endpointOf(Request request) {
+        List<String> segments = request.url().pathSegments();
+        return segments.get(segments.size() - 1);
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        EndpointMetrics endpoint = metrics.forEndpoint(endpointOf(request));
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            if (chain.call().isCanceled()) {
+                endpoint.recordCancellation();
+            } else if (isTimeout(e)) {
+                endpoint.recordTimeout();
+            } else {
+                endpoint.recordIoError();
+            }
+            throw e;
+        }
+        long latencyMs = (System.nanoTime() - start) / 1_000_000;
+        endpoint.recordResponse(sourceOf(response), response.code(), latencyMs);
+
+        ResponseBody body = response.body();
+        if (body == null) {
+            return response;
+        }
+        return response.newBuilder()
+                .body(ResponseBody.create(body.contentType(), body.contentLength(),
+                        Okio.buffer(new CountingSource(body.source(), endpoint))))
+                .build();
+    }
+
+    /**
+     * Tells where a response came from, based on the responses OkHttp attached to it.
+     * A conditional request keeps its cached response even when the server sends the whole
+     * body again, so only a 304 counts as revalidated. The 504 OkHttp makes up when a request
+     * restricted to the cache cannot be answered has neither a cached nor a network response.
+     *
+     * @param response the response of the call
+     * @return the source of the response
+     */
+    private static EndpointMetrics.Source sourceOf(Response response) {
+        Response networkResponse = response.networkResponse();
+        if (networkResponse == null) {
+            return response.cacheResponse() != null
+                    ? EndpointMetrics.Source.CACHE : EndpointMetrics.Source.CACHE_MISS;
+        }
+        if (networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return EndpointMetrics.Source.CONDITIONAL_CACHE;
+        }
+        return EndpointMetrics.Source.NETWORK;
+    }
+
+    private static boolean isTimeout(IOException e) {
+        return e instanceof SocketTimeoutException
+                || (e instanceof InterruptedIOException && "timeout".equals(e.getMessage()));
+    }
+
+    /**
+     * A source counting the bytes read from a response body, and recording them once the
+     * body is entirely read or closed.
+     */
+    private static class CountingSource extends ForwardingSource {
+
+        private final EndpointMetrics endpoint;
+        private long bytesRead;
+        private boolean recorded;
+
+        CountingSource(Source delegate, EndpointMetrics endpoint) {
+            super(delegate);
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public long read(@NonNull Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read == -1) {
+                record();
+            } else {
+                bytesRead += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            record();
+            super.close();
+        }
+
+        private void record() {
+            if (!recorded) {
+                recorded = true;
+                endpoint.recordBytes(bytesRead);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.foodapp.data.api.interceptor;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor serving responses from the disk cache, even stale ones,
+ * when the network cannot be reached.
+ */
+public class OfflineCacheInterceptor implements Interceptor {
+
+    // How old a cached response can be to still be displayed when offline.
+    private static final int MAX_STALE_DAYS = 60;
+
+    /**
+     * Proceeds with the request, and retries it against the cache only if it failed
+     * because of a network error.
+     *
+     * @param chain the chain of the call
+     * @return the response of the server, or the cached one if offline
+     * @throws IOException the original network error if nothing was cached for this request
+     */
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        try {
+            return chain.proceed(request);
+        } catch (IOException networkError) {
+            if (!"GET".equals(request.method())) {
+                throw networkError;
+            }
+            Response cached = chain.proceed(toCacheOnly(request));
+            // OkHttp answers 504 when an only-if-cached request cannot be satisfied
+            if (cached.code() == 504) {
+                cached.close();
+                throw networkError;
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Turns a request into one answered only by the cache, even with a stale response, as
+     * long as it is not older than what is displayed when offline.
+     * OkHttp answers such a request with a 504 if nothing usable is cached.
+     *
+     * @param request the request to the API
+     * @return the same request, only allowed to read the cache
+     */
+    public static Request toCacheOnly(Request request) {
+        return request.newBuilder()
+                .cacheControl(new CacheControl.Builder()
+                        .onlyIfCached()
+                        .maxStale(MAX_STALE_DAYS, TimeUnit.DAYS)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.foodapp.data.api.metrics;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.JsonObject;
+
+/**
+ * The metrics of the calls to one endpoint of the API: how long they took, how much they
+ * downloaded, where their responses came from and how they failed.
+ * Latencies are measured until the headers of the response are received.
+ */
+public class EndpointMetrics {
+
+    /**
+     * Where the response of a call came from.
+     */
+    public enum Source {
+        // The response was fresh in the disk cache: no request was sent.
+        CACHE,
+        // The cached response was revalidated by the server, which answered 304.
+        CONDITIONAL_CACHE,
+        // The whole response was downloaded.
+        NETWORK,
+        // A request only allowed to read the cache found nothing usable: OkHttp answered 504
+        // without sending it.
+        CACHE_MISS
+    }
+
+    // The name of the endpoint, like "lookup.php".
+    private final String name;
+
+    // Latencies of the responses served by the disk cache.
+    private final LatencyHistogram cacheLatencies = new LatencyHistogram();
+    // Latencies of the responses requiring the network, conditional or not.
+    private final LatencyHistogram networkLatencies = new LatencyHistogram();
+
+    private long cacheResponses;
+    private long conditionalCacheResponses;
+    private long networkResponses;
+    // Number of requests restricted to the cache that found nothing usable in it.
+    private long cacheMisses;
+    // Number of responses with an HTTP error status.
+    private long httpErrors;
+    // Number of calls that failed without response, timeouts excluded.
+    private long ioErrors;
+    private long timeouts;
+    // Number of calls cancelled before their response, for instance by a retry timeout.
+    private long cancellations;
+    // Bytes of the bodies read, decompressed.
+    private long responseBytes;
+
+    EndpointMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a call that received a response.
+     *
+     * @param source where the response came from
+     * @param code the HTTP status of the response
+     * @param latencyMs the time until the headers of the response were received
+     */
+    public synchronized void recordResponse(Source source, int code, long latencyMs) {
+        switch (source) {
+            case CACHE:
+                cacheResponses++;
+                cacheLatencies.record(latencyMs);
+                break;
+            case CONDITIONAL_CACHE:
+                conditionalCacheResponses++;
+                networkLatencies.record(latencyMs);
+                break;
+            case CACHE_MISS:
+                cacheMisses++;
+                cacheLatencies.record(latencyMs);
+                break;
+            default:
+                networkResponses++;
+                networkLatencies.record(latencyMs);
+        }
+        if (code >= 400) {
+            httpErrors++;
+        }
+    }
+
+    /**
+     * Records the size of a response body that was read.
+     *
+     * @param bytes the number of bytes read
+     */
+    public synchronized void recordBytes(long bytes) {
+        responseBytes += bytes;
+    }
+
+    /**
+     * Records a call that failed without response, for another reason than a timeout.
+     */
+    public synchronized void recordIoError() {
+        ioErrors++;
+    }
+
+    /**
+     * Records a call that timed out.
+     */
+    public synchronized void recordTimeout() {
+        timeouts++;
+    }
+
+    /**
+     * Records a call that was cancelled before its response.
+     */
+    public synchronized void recordCancellation() {
+        cancellations++;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of calls that got a response, whatever its source, including the
+     * answers of the cache telling it had nothing usable.
+     *
+     * @return the number of responses
+     */
+    public synchronized long getResponseCount() {
+        return cacheResponses + conditionalCacheResponses + networkResponses + cacheMisses;
+    }
+
+    /**
+     * Returns the share of the responses that did not download their body, either because
+     * they were fresh in the cache or because the server confirmed the cached version.
+     *
+     * @return the cache hit ratio, between 0 and 1
+     */
+    public synchronized double getCacheHitRatio() {
+        long responses = getResponseCount();
+        return responses == 0 ? 0 : (double) (cacheResponses + conditionalCacheResponses) / responses;
+    }
+
+    /**
+     * Estimates a percentile of the latencies of the responses requiring the network.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated latency in milliseconds, or 0 if there was no such response
+     */
+    public synchronized long getNetworkLatencyPercentileMs(double percentile) {
+        return networkLatencies.percentileMs(percentile);
+    }
+
+    public synchronized long getCacheResponses() {
+        return cacheResponses;
+    }
+
+    public synchronized long getConditionalCacheResponses() {
+        return conditionalCacheResponses;
+    }
+
+    public synchronized long getNetworkResponses() {
+        return networkResponses;
+    }
+
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public synchronized long getHttpErrors() {
+        return httpErrors;
+    }
+
+    public synchronized long getIoErrors() {
+        return ioErrors;
+    }
+
+    public synchronized long getTimeouts() {
+        return timeouts;
+    }
+
+    public synchronized long getCancellations() {
+        return cancellations;
+    }
+
+    public synchronized long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * Describes the metrics of the endpoint in JSON.
+     *
+     * @return the JSON description of the metrics
+     */
+    public synchronized JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("responses", getResponseCount());
+        json.addProperty("cacheResponses", cacheResponses);
+        json.addProperty("conditionalCacheResponses", conditionalCacheResponses);
+        json.addProperty("networkResponses", networkResponses);
+        json.addProperty("cacheMisses", cacheMisses);
+        json.addProperty("cacheHitRatio", getCacheHitRatio());
+        json.addProperty("httpErrors", httpErrors);
+        json.addProperty("ioErrors", ioErrors);
+        json.addProperty("timeouts", timeouts);
+        json.addProperty("cancellations", cancellations);
+        json.addProperty("responseBytes", responseBytes);
+        json.add("cacheLatency", cacheLatencies.toJson());
+        json.add("networkLatency", networkLatencies.toJson());
+        return json;
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d responses (%.0f%% cached), p50=%dms p90=%dms, %d bytes, "
+                        + "%d http errors, %d io errors, %d timeouts",
+                name, getResponseCount(), getCacheHitRatio() * 100,
+                networkLatencies.percentileMs(50), networkLatencies.percentileMs(90),
+                responseBytes, httpErrors, ioErrors, timeouts);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.foodapp.data.api.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * A histogram of latencies with fixed buckets, cheap enough to record every call.
+ * Percentiles are estimated as the upper bound of the bucket holding them.
+ * Not thread-safe: {@link EndpointMetrics} synchronizes the accesses.
+ */
+public class LatencyHistogram {
+
+    // Upper bounds of the buckets, in milliseconds. A last bucket holds the slower latencies.
+    static final long[] BUCKET_BOUNDS_MS = {25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final long[] counts = new long[BUCKET_BOUNDS_MS.length + 1];
+    private long count;
+    private long sumMs;
+    private long maxMs;
+
+    /**
+     * Records a latency.
+     *
+     * @param latencyMs the latency in milliseconds
+     */
+    void record(long latencyMs) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && latencyMs > BUCKET_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        count++;
+        sumMs += latencyMs;
+        maxMs = Math.max(maxMs, latencyMs);
+    }
+
+    /**
+     * Estimates a percentile of the recorded latencies.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, in milliseconds,
+     *         or 0 if nothing was recorded
+     */
+    long percentileMs(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_BOUNDS_MS.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(BUCKET_BOUNDS_MS[bucket], maxMs);
+            }
+        }
+        return maxMs;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMeanMs() {
+        return count == 0 ? 0 : sumMs / count;
+    }
+
+    long getMaxMs() {
+        return maxMs;
+    }
+
+    /**
+     * Describes the histogram in JSON: the count of each bucket, labelled by its upper bound,
+     * and the main percentiles.
+     *
+     * @return the JSON description of the histogram
+     */
+    JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", count);
+        json.addProperty("meanMs", getMeanMs());
+        json.addProperty("maxMs", maxMs);
+        json.addProperty("p50Ms", percentileMs(50));
+        json.addProperty("p90Ms", percentileMs(90));
+        json.addProperty("p99Ms", percentileMs(99));
+        JsonArray buckets = new JsonArray();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("le", bucket < BUCKET_BOUNDS_MS.length
+                    ? String.valueOf(BUCKET_BOUNDS_MS[bucket]) : "+Inf");
+            entry.addProperty("count", counts[bucket]);
+            buckets.add(entry);
+        }
+        json.add("buckets", buckets);
+        return json;
+    }
+}
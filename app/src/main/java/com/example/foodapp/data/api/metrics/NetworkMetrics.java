@@ -0,0 +1,68 @@
+package com.example.foodapp.data.api.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The metrics of the calls to the API, by endpoint.
+ * Filled by the {@link com.example.foodapp.data.api.interceptor.MetricsInterceptor} of the
+ * OkHttp client, and queried to follow the latencies and the efficiency of the caches.
+ */
+public class NetworkMetrics {
+
+    // The metrics of each endpoint, created on its first call.
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    // When the metrics were started or last reset, in milliseconds since the epoch.
+    private volatile long startedAt = System.currentTimeMillis();
+
+    /**
+     * Returns the metrics of an endpoint, creating them if needed.
+     *
+     * @param endpoint the name of the endpoint, like "lookup.php"
+     * @return the metrics of the endpoint
+     */
+    public EndpointMetrics forEndpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, EndpointMetrics::new);
+    }
+
+    /**
+     * Returns the metrics of every endpoint called so far.
+     *
+     * @return the metrics by name of endpoint, sorted by name
+     */
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpoints));
+    }
+
+    /**
+     * Forgets every metric recorded so far.
+     */
+    public void reset() {
+        endpoints.clear();
+        startedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Describes the metrics of every endpoint in JSON, to be dumped or sent elsewhere.
+     *
+     * @return a JSON snapshot of the metrics
+     */
+    public String toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("startedAt", startedAt);
+        json.addProperty("snapshotAt", System.currentTimeMillis());
+        JsonObject endpointsJson = new JsonObject();
+        for (Map.Entry<String, EndpointMetrics> endpoint : getEndpoints().entrySet()) {
+            endpointsJson.add(endpoint.getKey(), endpoint.getValue().toJson());
+        }
+        json.add("endpoints", endpointsJson);
+        return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.foodapp.data.api.model;
 
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
 import java.util.List;
 
@@ -9,6 +10,7 @@ import java.util.List;
  * This class represents a list of categories of meals as retrieved in TheMealDB API.
  * It includes a list of {@link Category} objects.
  */
+@UseStag
 public class CategoriesList {
 
     // The list of categories of meals.
@@ -25,6 +27,15 @@ public class CategoriesList {
         return categories;
     }
 
+    /**
+     * Sets the list of categories of meals.
+     *
+     * @param categories the list of categories of meals.
+     */
+    public void setCategories(List<Category> categories) {
+        this.categories = categories;
+    }
+
     @Override
     public String toString() {
         return "CategoriesList{" +
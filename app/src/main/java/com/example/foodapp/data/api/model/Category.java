@@ -4,10 +4,12 @@ import androidx.annotation.NonNull;
 
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
 /**
  * Class representing a category of meals as retrieved in TheMealDB API.
  */
+@UseStag
 public class Category {
 
     // The ID of the category.
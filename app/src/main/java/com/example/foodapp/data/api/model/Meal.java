@@ -2,10 +2,12 @@ package com.example.foodapp.data.api.model;
 
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
 /**
  * Class representing a meal as retrieved in TheMealDB API.
  */
+@UseStag
 public class Meal {
 
     // The name of the meal.
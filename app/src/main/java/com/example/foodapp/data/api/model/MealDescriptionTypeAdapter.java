@@ -0,0 +1,165 @@
+package com.example.foodapp.data.api.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a {@link MealDescription} in the format of TheMealDB API, without reflection.
+ * The numbered fields strIngredient1..20 and strMeasure1..20 are gathered into arrays
+ * holding only the non-empty ingredients, whose names are interned since the same
+ * ingredients appear in many meals.
+ */
+public class MealDescriptionTypeAdapter extends TypeAdapter<MealDescription> {
+
+    private static final String INGREDIENT_PREFIX = "strIngredient";
+    private static final String MEASURE_PREFIX = "strMeasure";
+
+    @Override
+    public void write(JsonWriter out, MealDescription description) throws IOException {
+        if (description == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("idMeal").value(description.getIdMeal());
+        out.name("strMeal").value(description.getStrMeal());
+        out.name("strDrinkAlternate").value(description.getStrDrinkAlternate());
+        out.name("strCategory").value(description.getStrCategory());
+        out.name("strArea").value(description.getStrArea());
+        out.name("strInstructions").value(description.getStrInstructions());
+        out.name("strMealThumb").value(description.getStrMealThumb());
+        out.name("strTags").value(description.getStrTags());
+        out.name("strYoutube").value(description.getStrYoutube());
+        for (int i = 0; i < description.getIngredientCount(); i++) {
+            out.name(INGREDIENT_PREFIX + (i + 1)).value(description.getIngredient(i));
+        }
+        for (int i = 0; i < description.getIngredientCount(); i++) {
+            out.name(MEASURE_PREFIX + (i + 1)).value(description.getMeasure(i));
+        }
+        out.endObject();
+    }
+
+    @Override
+    public MealDescription read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        MealDescription description = new MealDescription();
+        // Ingredients and measures by number, as they may come in any order
+        String[] ingredientSlots = new String[MealDescription.MAX_INGREDIENTS];
+        String[] measureSlots = new String[MealDescription.MAX_INGREDIENTS];
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (name) {
+                case "idMeal": description.setIdMeal(nextString(in)); break;
+                case "strMeal": description.setStrMeal(nextString(in)); break;
+                case "strDrinkAlternate": description.setStrDrinkAlternate(nextString(in)); break;
+                case "strCategory": description.setStrCategory(nextString(in)); break;
+                case "strArea": description.setStrArea(nextString(in)); break;
+                case "strInstructions": description.setStrInstructions(nextString(in)); break;
+                case "strMealThumb": description.setStrMealThumb(nextString(in)); break;
+                case "strTags": description.setStrTags(nextString(in)); break;
+                case "strYoutube": description.setStrYoutube(nextString(in)); break;
+                default:
+                    if (!readSlot(in, name, INGREDIENT_PREFIX, ingredientSlots)
+                            && !readSlot(in, name, MEASURE_PREFIX, measureSlots)) {
+                        in.skipValue();
+                    }
+            }
+        }
+        in.endObject();
+
+        setCompactIngredients(description, ingredientSlots, measureSlots);
+        return description;
+    }
+
+    /**
+     * Reads the value of a numbered field, like strIngredient12, into its slot.
+     *
+     * @param in the reader, positioned on the value of the field
+     * @param name the name of the field
+     * @param prefix the prefix of the numbered fields to read
+     * @param slots the values of the numbered fields, by number starting at 1
+     * @return true if the field was a valid numbered field and its value was read
+     * @throws IOException if the value could not be read
+     */
+    private static boolean readSlot(JsonReader in, String name, String prefix, String[] slots)
+            throws IOException {
+        if (!name.startsWith(prefix)) {
+            return false;
+        }
+        int number;
+        try {
+            number = Integer.parseInt(name.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (number < 1 || number > slots.length) {
+            return false;
+        }
+        slots[number - 1] = nextString(in);
+        return true;
+    }
+
+    /**
+     * Keeps only the non-empty ingredients, along with their measures.
+     *
+     * @param description the description to fill
+     * @param ingredientSlots the ingredients by number, possibly empty
+     * @param measureSlots the measures by number
+     */
+    private static void setCompactIngredients(MealDescription description,
+                                              String[] ingredientSlots, String[] measureSlots) {
+        int count = 0;
+        for (String ingredient : ingredientSlots) {
+            if (isPresent(ingredient)) {
+                count++;
+            }
+        }
+        String[] ingredients = new String[count];
+        String[] measures = new String[count];
+        int index = 0;
+        for (int slot = 0; slot < ingredientSlots.length; slot++) {
+            if (isPresent(ingredientSlots[slot])) {
+                ingredients[index] = ingredientSlots[slot].intern();
+                measures[index] = measureSlots[slot];
+                index++;
+            }
+        }
+        description.setIngredientsAndQuantities(ingredients, measures);
+    }
+
+    private static boolean isPresent(String ingredient) {
+        return ingredient != null && !ingredient.trim().isEmpty();
+    }
+
+    /**
+     * Reads a string value, accepting null and any other primitive.
+     *
+     * @param in the reader, positioned on the value
+     * @return the value as a string, or null
+     * @throws IOException if the value could not be read
+     */
+    private static String nextString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(in.nextBoolean());
+        }
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return in.nextString();
+        }
+        in.skipValue();
+        return null;
+    }
+}
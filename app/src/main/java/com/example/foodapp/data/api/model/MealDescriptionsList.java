@@ -2,6 +2,7 @@ package com.example.foodapp.data.api.model;
 
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
 import java.util.List;
 
@@ -9,6 +10,7 @@ import java.util.List;
  * A class that represents a list of meal descriptions as retrieved in TheMealDB API. It will
  * likely contain a single {@link MealDescription}.
  */
+@UseStag
 public class MealDescriptionsList {
 
     // A list of meal descriptions
@@ -25,6 +27,15 @@ public class MealDescriptionsList {
         return meals;
     }
 
+    /**
+     * Gets the list of meal descriptions, as named in the API.
+     *
+     * @return the list of meal descriptions.
+     */
+    public List<MealDescription> getMeals() {
+        return meals;
+    }
+
     /**
      * Sets the list of meal descriptions.
      *
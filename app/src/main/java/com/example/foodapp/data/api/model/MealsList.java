@@ -2,6 +2,7 @@ package com.example.foodapp.data.api.model;
 
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.vimeo.stag.UseStag;
 
 import java.util.List;
 
@@ -9,6 +10,7 @@ import java.util.List;
  * This class represents a list of meals as retrieved in TheMealDB API.
  * It contains a list of Meal objects.
  */
+@UseStag
 public class MealsList {
 
     // The list of meals.
@@ -25,6 +27,15 @@ public class MealsList {
         return meals;
     }
 
+    /**
+     * Sets the list of meals.
+     *
+     * @param meals the list of meals.
+     */
+    public void setMeals(List<Meal> meals) {
+        this.meals = meals;
+    }
+
     /**
      * Returns a string representation of the object.
      *
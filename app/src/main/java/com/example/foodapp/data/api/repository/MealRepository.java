@@ -0,0 +1,835 @@
+package com.example.foodapp.data.api.repository;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.example.foodapp.data.api.APIClient;
+import com.example.foodapp.data.api.APIInterface;
+import com.example.foodapp.data.api.StreamingListDecoder;
+import com.example.foodapp.data.api.model.CategoriesList;
+import com.example.foodapp.data.api.model.Category;
+import com.example.foodapp.data.api.model.Meal;
+import com.example.foodapp.data.api.model.MealDescription;
+import com.example.foodapp.data.api.model.MealDescriptionsList;
+import com.example.foodapp.data.api.model.MealsList;
+import com.example.foodapp.data.cache.SnapshotStore;
+import com.example.foodapp.data.cache.TtlLruCache;
+import com.example.foodapp.data.dao.CatalogDao;
+import com.example.foodapp.data.dao.FavoriteDatabase;
+import com.example.foodapp.data.dao.MealDescriptionDao;
+import com.example.foodapp.data.dao.entity.CatalogCategoryEntity;
+import com.example.foodapp.data.dao.entity.CatalogMealEntity;
+import com.example.foodapp.data.dao.entity.IngredientEntity;
+import com.example.foodapp.data.dao.entity.MealDescriptionEntity;
+import com.example.foodapp.data.dao.entity.MealDescriptionWithIngredients;
+import com.example.foodapp.data.index.IngredientIndex;
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Completable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * A repository owning every access to TheMealDB API.
+ * Responses are kept in bounded in-memory caches, so that going back and forth between
+ * screens renders from memory instead of calling the API again. Meal descriptions are also
+ * cached in the database, so that recently viewed meals and favorites open offline.
+ * The categories and their meals last received are kept in the catalog of the database,
+ * filled by the background synchronization, and displayed at once while they are
+ * revalidated with the API. Every list received from the API is written back to the
+ * catalog. Before the first synchronization, the last list of categories is read from a
+ * snapshot file instead.
+ */
+public class MealRepository {
+
+    // Key of the single entry of the categories cache.
+    private static final String CATEGORIES_KEY = "categories";
+
+    // Name of the directory, in the app's files directory, holding the snapshots.
+    private static final String SNAPSHOTS_DIR = "snapshots";
+    // Name of the snapshot of the last list of categories received.
+    private static final String CATEGORIES_SNAPSHOT = "categories.json";
+
+    // Number of meal descriptions kept in the database, besides those of favorite meals.
+    private static final int MAX_CACHED_DESCRIPTIONS = 200;
+
+    // The singleton instance of the repository.
+    private static MealRepository instance;
+
+    // The service used to call the API.
+    private final APIInterface apiService;
+
+    // A Data Access Object for the cached meal descriptions.
+    private final MealDescriptionDao mealDescriptionDao;
+
+    // A Data Access Object for the local copy of the catalog.
+    private final CatalogDao catalogDao;
+
+    // The last known versions of data of the API, kept across restarts.
+    private final SnapshotStore snapshotStore;
+
+    // Encodes and decodes the snapshots.
+    private final Gson gson = APIClient.getGson();
+
+    // Hashes of the last bodies received when revalidating, by endpoint and argument.
+    private final Map<String, String> bodyHashes = new ConcurrentHashMap<>();
+
+    // Decodes the meals of a category while the response is being downloaded.
+    private final StreamingListDecoder<Meal> mealsDecoder =
+            new StreamingListDecoder<>(APIClient.getGson(), "meals", Meal.class);
+
+    // The list of categories, weighted by its number of categories.
+    private final TtlLruCache<String, CategoriesList> categoriesCache =
+            new TtlLruCache<>(64, TimeUnit.DAYS.toMillis(1),
+                    categories -> sizeOf(categories.getCategories()));
+
+    // The meals of each category, weighted by their number of meals.
+    private final TtlLruCache<String, MealsList> mealsByCategoryCache =
+            new TtlLruCache<>(2000, TimeUnit.HOURS.toMillis(1),
+                    meals -> sizeOf(meals.getMeals()));
+
+    // The meals of each area or ingredient, by facet like "a=Italian", weighted by their
+    // number of meals.
+    private final TtlLruCache<String, MealsList> mealsByFacetCache =
+            new TtlLruCache<>(3000, TimeUnit.HOURS.toMillis(1),
+                    meals -> 1 + sizeOf(meals.getMeals()));
+
+    // The descriptions of meals by id, weighted by their number of ingredients.
+    private final TtlLruCache<String, MealDescription> descriptionsCache =
+            new TtlLruCache<>(1500, TimeUnit.DAYS.toMillis(1),
+                    description -> 1 + description.getIngredientCount());
+
+    // The ingredients of the meal descriptions stored in the database.
+    private final IngredientIndex ingredientIndex = new IngredientIndex();
+    // Whether the ingredients stored before the application started have been indexed.
+    private boolean ingredientIndexLoaded;
+
+    // The meals found by each normalized search query, weighted by their number of meals.
+    private final TtlLruCache<String, List<Meal>> searchCache =
+            new TtlLruCache<>(1000, TimeUnit.HOURS.toMillis(1),
+                    meals -> 1 + meals.size());
+
+    /**
+     * Returns the singleton instance of the repository.
+     * Creates the instance if it does not exist.
+     *
+     * @param application the application in which the repository will be used
+     * @return the singleton instance of the repository
+     */
+    public static synchronized MealRepository getInstance(Application application) {
+        if (instance == null) {
+            Log.d("MealRepo", "Initializing repository");
+            FavoriteDatabase database = FavoriteDatabase.getDatabase(application);
+            instance = new MealRepository(APIClient.getService(),
+                    database.mealDescriptionDao(), database.catalogDao(),
+                    new SnapshotStore(new File(application.getFilesDir(), SNAPSHOTS_DIR)));
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a new repository calling the API through the given service.
+     *
+     * @param apiService the service used to call the API
+     * @param mealDescriptionDao the DAO of the meal descriptions cached in the database
+     * @param catalogDao the DAO of the local copy of the catalog
+     * @param snapshotStore the store of the snapshots of the API data
+     */
+    MealRepository(APIInterface apiService, MealDescriptionDao mealDescriptionDao,
+                   CatalogDao catalogDao, SnapshotStore snapshotStore) {
+        this.apiService = apiService;
+        this.mealDescriptionDao = mealDescriptionDao;
+        this.catalogDao = catalogDao;
+        this.snapshotStore = snapshotStore;
+    }
+
+    /**
+     * Retrieves the list of categories of meals, from memory if available.
+     * Otherwise the last list received, even in a previous run of the application, is
+     * emitted first, from the synchronized catalog or else from the snapshot, then the list
+     * is revalidated with the API and emitted again only if it changed. Must be subscribed
+     * to on a background thread, as it may query the database or read the snapshot.
+     *
+     * @return an Observable of the list of categories, emitting at most twice
+     */
+    public Observable<CategoriesList> getCategories() {
+        return Observable.defer(() -> {
+            CategoriesList cached = categoriesCache.get(CATEGORIES_KEY);
+            if (cached != null) {
+                return Observable.just(cached);
+            }
+            AtomicReference<String> lastKnownJson = new AtomicReference<>();
+            Maybe<CategoriesList> snapshot = snapshotStore.read(CATEGORIES_SNAPSHOT)
+                    .map(json -> gson.fromJson(json, CategoriesList.class))
+                    .doOnError(e -> Log.d("MealRepo", "Unreadable categories snapshot: " + e))
+                    .onErrorComplete();
+            Observable<CategoriesList> lastKnown = catalogDao.getCategories()
+                    .filter(entities -> !entities.isEmpty())
+                    .map(MealRepository::toCategoriesList)
+                    .switchIfEmpty(snapshot)
+                    .doOnSuccess(categories -> lastKnownJson.set(gson.toJson(categories)))
+                    .toObservable();
+            Observable<CategoriesList> revalidated = apiService.getCategoriesList()
+                    .doOnNext(categories -> categoriesCache.put(CATEGORIES_KEY, categories))
+                    .filter(categories -> {
+                        String json = gson.toJson(categories);
+                        if (json.equals(lastKnownJson.get())) {
+                            return false;
+                        }
+                        saveSnapshot(CATEGORIES_SNAPSHOT, json);
+                        storeCategories(categories);
+                        return true;
+                    });
+            return Observable.concat(lastKnown, revalidated);
+        });
+    }
+
+    /**
+     * Returns the list of categories if it is in memory, without reading the snapshot or
+     * calling the API.
+     *
+     * @return the cached list of categories, or null if it has to be retrieved
+     */
+    public CategoriesList getCachedCategories() {
+        return categoriesCache.get(CATEGORIES_KEY);
+    }
+
+    /**
+     * Replaces a snapshot, logging failures as the snapshot is only an optimization.
+     *
+     * @param name the name of the snapshot
+     * @param json the new content of the snapshot
+     */
+    private void saveSnapshot(String name, String json) {
+        try {
+            snapshotStore.write(name, json);
+        } catch (IOException e) {
+            Log.d("MealRepo", "Cannot save snapshot " + name + ": " + e);
+        }
+    }
+
+    /**
+     * Stores a list of categories received from the API in the catalog, in a background
+     * thread, deleting the categories it no longer lists.
+     *
+     * @param categories the list of categories
+     */
+    private void storeCategories(CategoriesList categories) {
+        List<CatalogCategoryEntity> entities = CatalogCategoryEntity.listFrom(categories);
+        FavoriteDatabase.databaseWriteExecutor.execute(
+                () -> catalogDao.replaceCategories(entities));
+    }
+
+    /**
+     * Stores the meals of a category received from the API in the catalog, in a background
+     * thread, deleting the meals it no longer lists.
+     *
+     * @param category the name of the category
+     * @param meals the list of meals
+     */
+    private void storeMealsOfCategory(String category, MealsList meals) {
+        List<CatalogMealEntity> entities = CatalogMealEntity.listFrom(meals, category);
+        FavoriteDatabase.databaseWriteExecutor.execute(
+                () -> catalogDao.replaceMealsOfCategory(category, entities));
+    }
+
+    /**
+     * Retrieves the list of meals of a category, from memory if available.
+     * Otherwise the meals stored in the synchronized catalog are emitted first, if any, then
+     * the list is revalidated with the API and emitted again only if it changed.
+     * Must be subscribed to on a background thread, as it may query the database.
+     *
+     * @param category the name of the category
+     * @return an Observable of the list of meals, emitting at most twice
+     */
+    public Observable<MealsList> getMealsFromCategory(String category) {
+        return Observable.defer(() -> {
+            MealsList cached = mealsByCategoryCache.get(category);
+            if (cached != null) {
+                return Observable.just(cached);
+            }
+            AtomicReference<MealsList> lastKnown = new AtomicReference<>();
+            return getCatalogMealsFromCategory(category)
+                    .doOnSuccess(lastKnown::set)
+                    .toObservable()
+                    .concatWith(fetchMealsFromCategory(category)
+                            .filter(meals -> !isSameContent(meals, lastKnown.get())));
+        });
+    }
+
+    /**
+     * Retrieves the list of meals of a category from the API, and stores it in memory and
+     * in the catalog.
+     *
+     * @param category the name of the category
+     * @return an Observable of the list of meals
+     */
+    private Observable<MealsList> fetchMealsFromCategory(String category) {
+        return apiService.getMealsFromCategory(category)
+                .doOnNext(meals -> {
+                    mealsByCategoryCache.put(category, meals);
+                    storeMealsOfCategory(category, meals);
+                });
+    }
+
+    /**
+     * Reads the meals of a category from the synchronized catalog.
+     *
+     * @param category the name of the category
+     * @return a Maybe of the list of meals, empty if the category was never synchronized
+     */
+    private Maybe<MealsList> getCatalogMealsFromCategory(String category) {
+        return catalogDao.getMealsOfCategory(category)
+                .filter(entities -> !entities.isEmpty())
+                .map(entities -> {
+                    List<Meal> meals = new ArrayList<>(entities.size());
+                    for (CatalogMealEntity entity : entities) {
+                        meals.add(entity.toMeal());
+                    }
+                    MealsList list = new MealsList();
+                    list.setMeals(meals);
+                    return list;
+                });
+    }
+
+    private static CategoriesList toCategoriesList(List<CatalogCategoryEntity> entities) {
+        List<Category> categories = new ArrayList<>(entities.size());
+        for (CatalogCategoryEntity entity : entities) {
+            categories.add(entity.toCategory());
+        }
+        CategoriesList list = new CategoriesList();
+        list.setCategories(categories);
+        return list;
+    }
+
+    /**
+     * Returns the meals of a category if they are in memory, without calling the API.
+     *
+     * @param category the name of the category
+     * @return the cached list of meals, or null if it has to be retrieved
+     */
+    public MealsList getCachedMealsFromCategory(String category) {
+        return mealsByCategoryCache.get(category);
+    }
+
+    /**
+     * Loads the meals of a category into memory, unless they are already there, so that
+     * opening the category later displays them at once.
+     *
+     * @param category the name of the category
+     * @return a Completable completing once the meals are in memory
+     */
+    public Completable prefetchMealsFromCategory(String category) {
+        return Completable.defer(() -> mealsByCategoryCache.contains(category)
+                ? Completable.complete()
+                : getMealsFromCategory(category).ignoreElements());
+    }
+
+    /**
+     * Retrieves the list of meals from an area, from memory if available.
+     *
+     * @param area the area of the meals, like "Italian"
+     * @return an Observable of the list of meals
+     */
+    public Observable<MealsList> getMealsFromArea(String area) {
+        return getMealsWithFacet("a=" + area, () -> apiService.getMealsFromArea(area));
+    }
+
+    /**
+     * Retrieves the list of meals using an ingredient, from memory if available.
+     *
+     * @param ingredient the name of the ingredient, like "chicken breast"
+     * @return an Observable of the list of meals
+     */
+    public Observable<MealsList> getMealsWithIngredient(String ingredient) {
+        // The API expects underscores instead of spaces in the names of ingredients
+        String name = ingredient.replace(' ', '_');
+        return getMealsWithFacet("i=" + name, () -> apiService.getMealsWithIngredient(name));
+    }
+
+    /**
+     * Retrieves the meals matching a single criterion of filter.php, from memory if available.
+     *
+     * @param facet the criterion and its value, like "a=Italian"
+     * @param call the call retrieving the meals from the API
+     * @return an Observable of the list of meals
+     */
+    private Observable<MealsList> getMealsWithFacet(String facet,
+                                                   Callable<Observable<MealsList>> call) {
+        return Observable.defer(() -> {
+            MealsList cached = mealsByFacetCache.get(facet);
+            if (cached != null) {
+                return Observable.just(cached);
+            }
+            return call.call().doOnNext(meals -> mealsByFacetCache.put(facet, meals));
+        });
+    }
+
+    /**
+     * Retrieves the meals matching every given criterion, as the API only filters by one
+     * criterion at a time. The meals of each criterion are retrieved in parallel, each from
+     * memory if available, so that changing one criterion only calls the API for that one.
+     *
+     * @param category the category of the meals, or null or blank to ignore it
+     * @param area the area of the meals, or null or blank to ignore it
+     * @param ingredient an ingredient of the meals, or null or blank to ignore it
+     * @return an Observable of the meals matching every criterion, in the order of the
+     * criterion with the fewest meals, empty if no criterion is given
+     */
+    public Observable<List<Meal>> filterMeals(String category, String area, String ingredient) {
+        List<Observable<MealsList>> facets = new ArrayList<>();
+        if (!isBlank(category)) {
+            facets.add(getMealsFromCategory(category.trim()));
+        }
+        if (!isBlank(area)) {
+            facets.add(getMealsFromArea(area.trim()));
+        }
+        if (!isBlank(ingredient)) {
+            facets.add(getMealsWithIngredient(ingredient.trim()));
+        }
+        if (facets.isEmpty()) {
+            return Observable.just(Collections.emptyList());
+        }
+        List<Observable<MealsList>> parallelFacets = new ArrayList<>(facets.size());
+        for (Observable<MealsList> facet : facets) {
+            // The calls are blocking, so each one needs its own thread to run in parallel
+            parallelFacets.add(facet.firstElement().toObservable().subscribeOn(Schedulers.io()));
+        }
+        return Observable.zip(parallelFacets, MealRepository::intersect);
+    }
+
+    /**
+     * Keeps the meals present in every list, by looking up the meals of the smallest list in
+     * a hash set of the IDs of each other list.
+     *
+     * @param results the MealsList of each criterion
+     * @return the meals of the smallest list that are in every other list
+     */
+    private static List<Meal> intersect(Object[] results) {
+        List<List<Meal>> lists = new ArrayList<>(results.length);
+        for (Object result : results) {
+            List<Meal> meals = ((MealsList) result).getMeals();
+            lists.add(meals == null ? Collections.emptyList() : meals);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        List<Meal> intersection = new ArrayList<>(lists.get(0));
+        for (List<Meal> other : lists.subList(1, lists.size())) {
+            if (intersection.isEmpty()) {
+                break;
+            }
+            Set<String> ids = new HashSet<>(other.size() * 2);
+            for (Meal meal : other) {
+                ids.add(meal.getIdMeal());
+            }
+            intersection.removeIf(meal -> !ids.contains(meal.getIdMeal()));
+        }
+        return intersection;
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.trim().isEmpty();
+    }
+
+    /**
+     * Retrieves the meals of a category one by one, from memory if available, otherwise from
+     * the synchronized catalog. When calling the API, each meal is emitted as soon as it is
+     * decoded, and the whole list is cached and stored in the catalog once the response has
+     * been entirely read. The meals read from the catalog are revalidated with the API once
+     * emitted, so that the next opening of the category displays the current ones.
+     * Must be subscribed to on a background thread, as it may query the database or read the
+     * response.
+     *
+     * @param category the name of the category
+     * @return an Observable emitting each meal of the category, in order
+     */
+    public Observable<Meal> streamMealsFromCategory(String category) {
+        return Observable.defer(() -> {
+            MealsList cached = mealsByCategoryCache.get(category);
+            if (cached != null) {
+                List<Meal> meals = cached.getMeals();
+                return Observable.fromIterable(meals == null ? Collections.<Meal>emptyList() : meals);
+            }
+            List<Meal> received = new ArrayList<>();
+            Observable<Meal> streamed = apiService.streamMealsFromCategory(category)
+                    .concatMap(mealsDecoder::decode)
+                    .doOnNext(received::add)
+                    .doOnComplete(() -> {
+                        MealsList meals = new MealsList();
+                        meals.setMeals(received);
+                        mealsByCategoryCache.put(category, meals);
+                        storeMealsOfCategory(category, meals);
+                    });
+            return getCatalogMealsFromCategory(category)
+                    .flatMapObservable(meals -> Observable.fromIterable(meals.getMeals())
+                            .concatWith(fetchMealsFromCategory(category)
+                                    .ignoreElements()
+                                    .doOnError(e -> Log.d("MealRepo",
+                                            "Cannot revalidate meals of " + category + ": " + e))
+                                    .onErrorComplete()))
+                    .switchIfEmpty(streamed);
+        });
+    }
+
+    /**
+     * Retrieves the description of a meal, from memory if available, otherwise from the
+     * database, and only then from the API.
+     * The Observable completes without emitting anything if the API does not know the meal.
+     * Must be subscribed to on a background thread, as it may query the database.
+     *
+     * @param mealId the id of the meal
+     * @return an Observable of the description of the meal
+     */
+    public Observable<MealDescription> getMealDescription(String mealId) {
+        return Observable.defer(() -> {
+            MealDescription cached = descriptionsCache.get(mealId);
+            if (cached != null) {
+                return Observable.just(cached);
+            }
+            return mealDescriptionDao.getMealDescription(mealId)
+                    .map(MealDescriptionWithIngredients::toMealDescription)
+                    .switchIfEmpty(fetchMealDescription(mealId).firstElement())
+                    .doOnSuccess(description -> descriptionsCache.put(mealId, description))
+                    .toObservable();
+        });
+    }
+
+    /**
+     * Retrieves the description of a meal from the API, and caches it in the database.
+     *
+     * @param mealId the id of the meal
+     * @return an Observable of the description of the meal
+     */
+    private Observable<MealDescription> fetchMealDescription(String mealId) {
+        return apiService.getMealDescriptionFromId(mealId)
+                .filter(descriptions -> sizeOf(descriptions.getMealDescription()) > 0)
+                .map(descriptions -> descriptions.getMealDescription().get(0))
+                .doOnNext(this::storeMealDescription);
+    }
+
+    /**
+     * Indexes the ingredients of a meal description, and caches the description and its
+     * ingredients in the database in a background thread, then deletes the oldest
+     * descriptions that are not favorites, and removes them from the index.
+     *
+     * @param description the description retrieved in the API
+     */
+    private void storeMealDescription(MealDescription description) {
+        ingredientIndex.add(description);
+        FavoriteDatabase.databaseWriteExecutor.execute(() -> {
+            mealDescriptionDao.insert(
+                    MealDescriptionEntity.from(description, System.currentTimeMillis()),
+                    IngredientEntity.listFrom(description));
+            for (String mealId : mealDescriptionDao.deleteOldest(MAX_CACHED_DESCRIPTIONS)) {
+                ingredientIndex.remove(mealId);
+            }
+        });
+    }
+
+    /**
+     * Returns the index of the ingredients of the meal descriptions stored in the database,
+     * to keep it up to date when descriptions are stored elsewhere.
+     *
+     * @return the index of the ingredients
+     */
+    public IngredientIndex getIngredientIndex() {
+        return ingredientIndex;
+    }
+
+    /**
+     * Finds the meals that can be cooked with the ingredients of a pantry, among the meals
+     * whose description is stored, without calling the API. The meals are ranked by the
+     * share of their ingredients that are in the pantry.
+     * Must be subscribed to on a background thread, as the first call reads the database.
+     *
+     * @param pantry the names of the ingredients available
+     * @param limit the maximum number of meals to return
+     * @return a Single of the best matching meals, the best first
+     */
+    public Single<List<IngredientIndex.Match>> findMealsWithIngredients(Collection<String> pantry,
+                                                                       int limit) {
+        return Single.fromCallable(() -> {
+            loadIngredientIndex();
+            return ingredientIndex.findMeals(pantry, limit);
+        });
+    }
+
+    /**
+     * Indexes the ingredients stored in the database the first time the index is queried.
+     * Meals indexed since the application started are newer, so they are kept.
+     */
+    private synchronized void loadIngredientIndex() {
+        if (ingredientIndexLoaded) {
+            return;
+        }
+        Map<String, List<String>> ingredientsByMeal = new HashMap<>();
+        for (IngredientEntity ingredient : mealDescriptionDao.getAllIngredients()) {
+            List<String> ingredients = ingredientsByMeal.get(ingredient.getIdMeal());
+            if (ingredients == null) {
+                ingredients = new ArrayList<>();
+                ingredientsByMeal.put(ingredient.getIdMeal(), ingredients);
+            }
+            ingredients.add(ingredient.getIngredient());
+        }
+        for (Map.Entry<String, List<String>> meal : ingredientsByMeal.entrySet()) {
+            if (!ingredientIndex.contains(meal.getKey())) {
+                ingredientIndex.add(meal.getKey(), meal.getValue());
+            }
+        }
+        ingredientIndexLoaded = true;
+        Log.d("MealRepo", "Indexed " + ingredientIndex.size() + " meals using "
+                + ingredientIndex.ingredientCount() + " ingredients");
+    }
+
+    /**
+     * Normalizes a search query, so that queries only differing by their case or spaces
+     * share their results.
+     *
+     * @param query the text typed by the user
+     * @return the normalized query, empty if there is nothing to search
+     */
+    public static String normalizeQuery(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tells whether the results of a search are in memory, without counting it as a hit.
+     *
+     * @param query the search query, normalized or not
+     * @return true if searching it does not call the API
+     */
+    public boolean isSearchCached(String query) {
+        return searchCache.contains(normalizeQuery(query));
+    }
+
+    /**
+     * Searches the meals whose name contains a query, from memory if it was searched
+     * recently. The descriptions of the meals found are cached as well, so that opening one
+     * of them does not call the API again.
+     *
+     * @param query the search query, normalized or not
+     * @return an Observable of the meals found, possibly empty
+     */
+    public Observable<List<Meal>> searchMeals(String query) {
+        String normalized = normalizeQuery(query);
+        return Observable.defer(() -> {
+            List<Meal> cached = searchCache.get(normalized);
+            if (cached != null) {
+                return Observable.just(cached);
+            }
+            return apiService.searchMealsByName(normalized)
+                    .map(results -> {
+                        List<Meal> meals = new ArrayList<>();
+                        if (results.getMealDescription() != null) {
+                            for (MealDescription description : results.getMealDescription()) {
+                                descriptionsCache.put(description.getIdMeal(), description);
+                                meals.add(toMeal(description));
+                            }
+                        }
+                        return meals;
+                    })
+                    .doOnNext(meals -> searchCache.put(normalized, meals));
+        });
+    }
+
+    /**
+     * Creates the summary of a meal displayed in the lists, from its description.
+     *
+     * @param description the description of the meal
+     * @return the meal
+     */
+    private static Meal toMeal(MealDescription description) {
+        Meal meal = new Meal();
+        meal.setIdMeal(description.getIdMeal());
+        meal.setStrMeal(description.getStrMeal());
+        meal.setStrMealThumb(description.getStrMealThumb());
+        return meal;
+    }
+
+    /**
+     * Revalidates the list of categories with the API, bypassing the freshness of the caches.
+     * Must be subscribed to on a background thread.
+     *
+     * @return a Maybe of the new list of categories, empty if it did not change
+     */
+    public Maybe<CategoriesList> refreshCategories() {
+        return Maybe.defer(() -> {
+            CategoriesList current = categoriesCache.get(CATEGORIES_KEY);
+            return revalidate("categories.php", apiService.revalidateCategoriesList(),
+                    CategoriesList.class)
+                    .filter(categories -> !isSameContent(categories, current))
+                    .doOnSuccess(categories -> {
+                        categoriesCache.put(CATEGORIES_KEY, categories);
+                        saveSnapshot(CATEGORIES_SNAPSHOT, gson.toJson(categories));
+                        storeCategories(categories);
+                    })
+                    .doOnComplete(() -> renew(categoriesCache, CATEGORIES_KEY, current));
+        });
+    }
+
+    /**
+     * Revalidates the list of meals of a category with the API, bypassing the freshness of
+     * the caches. Must be subscribed to on a background thread.
+     *
+     * @param category the name of the category
+     * @return a Maybe of the new list of meals, empty if it did not change
+     */
+    public Maybe<MealsList> refreshMealsFromCategory(String category) {
+        return Maybe.defer(() -> {
+            MealsList current = mealsByCategoryCache.get(category);
+            return revalidate("filter.php?c=" + category,
+                    apiService.revalidateMealsFromCategory(category), MealsList.class)
+                    .filter(meals -> !isSameContent(meals, current))
+                    .doOnSuccess(meals -> {
+                        mealsByCategoryCache.put(category, meals);
+                        storeMealsOfCategory(category, meals);
+                    })
+                    .doOnComplete(() -> renew(mealsByCategoryCache, category, current));
+        });
+    }
+
+    /**
+     * Revalidates the description of a meal with the API, bypassing the freshness of the
+     * caches. A new description is also stored in the database.
+     * Must be subscribed to on a background thread.
+     *
+     * @param mealId the id of the meal
+     * @return a Maybe of the new description of the meal, empty if it did not change
+     */
+    public Maybe<MealDescription> refreshMealDescription(String mealId) {
+        return Maybe.defer(() -> {
+            MealDescription current = descriptionsCache.get(mealId);
+            return revalidate("lookup.php?i=" + mealId,
+                    apiService.revalidateMealDescriptionFromId(mealId), MealDescriptionsList.class)
+                    .filter(descriptions -> sizeOf(descriptions.getMealDescription()) > 0)
+                    .map(descriptions -> descriptions.getMealDescription().get(0))
+                    .filter(description -> !isSameContent(description, current))
+                    .doOnSuccess(description -> {
+                        descriptionsCache.put(mealId, description);
+                        storeMealDescription(description);
+                    })
+                    .doOnComplete(() -> renew(descriptionsCache, mealId, current));
+        });
+    }
+
+    /**
+     * Reads the response of a revalidation, without decoding it when the server answered
+     * 304 Not Modified, or when its body is identical to the last one received.
+     * A response served from the cache because the network failed is ignored too, as it
+     * brings nothing new.
+     *
+     * @param key the endpoint and argument of the call
+     * @param call the revalidation call
+     * @param type the class of the response
+     * @param <T> the type of the response
+     * @return a Maybe of the decoded response, empty if it is known already
+     */
+    private <T> Maybe<T> revalidate(String key, Observable<Response<ResponseBody>> call,
+                                    Class<T> type) {
+        return call.firstElement().flatMap(response -> {
+            okhttp3.Response networkResponse = response.raw().networkResponse();
+            try (ResponseBody body = response.body()) {
+                if (networkResponse == null
+                        || networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED
+                        || body == null) {
+                    Log.d("MealRepo", key + " not modified");
+                    return Maybe.empty();
+                }
+                byte[] bytes = body.bytes();
+                String hash = sha256(bytes);
+                if (hash.equals(bodyHashes.get(key))) {
+                    Log.d("MealRepo", key + " has the same content");
+                    return Maybe.empty();
+                }
+                T value = gson.fromJson(new String(bytes, StandardCharsets.UTF_8), type);
+                bodyHashes.put(key, hash);
+                return Maybe.just(value);
+            }
+        });
+    }
+
+    /**
+     * Tells whether two values of the API hold the same data, by comparing their JSON.
+     *
+     * @param value the value received
+     * @param current the value displayed so far, possibly null
+     * @return true if both values hold the same data
+     */
+    private boolean isSameContent(Object value, Object current) {
+        return current != null && gson.toJson(value).equals(gson.toJson(current));
+    }
+
+    /**
+     * Caches a value again, as the API confirmed it has not changed, so that it stays valid
+     * for a whole time-to-live.
+     *
+     * @param cache the cache of the value
+     * @param key the key of the value
+     * @param current the value, or null if there was none
+     */
+    private static <V> void renew(TtlLruCache<String, V> cache, String key, V current) {
+        if (current != null) {
+            cache.put(key, current);
+        }
+    }
+
+    /**
+     * Hashes the body of a response.
+     *
+     * @param bytes the body of the response
+     * @return the SHA-256 hash of the body, in hexadecimal
+     */
+    private static String sha256(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the hits, misses and sizes of the in-memory caches of the repository.
+     *
+     * @return a human-readable summary of the caches
+     */
+    public String getCacheStats() {
+        return "categories=" + categoriesCache +
+                "\nmealsByCategory=" + mealsByCategoryCache +
+                "\nmealsByFacet=" + mealsByFacetCache +
+                "\ndescriptions=" + descriptionsCache +
+                "\nsearches=" + searchCache;
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.foodapp.data.api.resilience;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+
+/**
+ * A circuit breaker guarding an endpoint of the API.
+ * After too many consecutive failures, the circuit opens and calls fail at once instead of
+ * waiting for a server that is down. Once the open duration has elapsed, the circuit is
+ * half-open: a single call is let through, closing the circuit if it succeeds or opening it
+ * again if it fails.
+ */
+public class CircuitBreaker {
+
+    /**
+     * The states of a circuit breaker.
+     */
+    public enum State {
+        // Calls go through, failures are counted.
+        CLOSED,
+        // Calls fail at once.
+        OPEN,
+        // A single call goes through to probe the endpoint.
+        HALF_OPEN
+    }
+
+    // The name of the guarded endpoint.
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationMillis;
+    // Gives the current time, so that tests can control it.
+    private final Scheduler clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    // When the circuit was last opened, in milliseconds.
+    private long openedAt;
+    // Whether the probing call of the half-open state is running.
+    private boolean probeInFlight;
+
+    /**
+     * Creates a closed circuit breaker.
+     *
+     * @param name the name of the guarded endpoint
+     * @param failureThreshold the number of consecutive failures opening the circuit
+     * @param openDurationMillis how long the circuit stays open before probing the endpoint
+     * @param clock the scheduler giving the current time
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMillis,
+                          Scheduler clock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Asks for the permission to call the endpoint.
+     * Every call allowed must then be reported with {@link #onSuccess()},
+     * {@link #onFailure()} or {@link #onCancelled()}.
+     *
+     * @return true if the call can be made, false if it must fail at once
+     */
+    public synchronized boolean tryAcquire() {
+        updateState();
+        switch (state) {
+            case OPEN:
+                return false;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Reports that a call answered, closing the circuit.
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * Reports that a call failed, opening the circuit if the endpoint failed too many times
+     * in a row or if the call was probing it.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = now();
+        }
+    }
+
+    /**
+     * Reports that a call was cancelled before it answered, so that another call can probe
+     * the endpoint.
+     */
+    public synchronized void onCancelled() {
+        probeInFlight = false;
+    }
+
+    /**
+     * Returns the current state of the circuit.
+     *
+     * @return the state of the circuit
+     */
+    public synchronized State getState() {
+        updateState();
+        return state;
+    }
+
+    /**
+     * Returns the number of calls that failed since the last successful one.
+     *
+     * @return the number of consecutive failures
+     */
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Turns an open circuit into a half-open one once its open duration has elapsed.
+    private void updateState() {
+        if (state == State.OPEN && now() - openedAt >= openDurationMillis) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+    }
+
+    private long now() {
+        return clock.now(TimeUnit.MILLISECONDS);
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        return name + " " + getState() + " (" + consecutiveFailures + " failures)";
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.foodapp.data.api.resilience;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of calling an endpoint of the API whose circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+    /**
+     * Creates the exception for a given circuit breaker.
+     *
+     * @param circuitBreaker the open circuit breaker
+     */
+    public CircuitBreakerOpenException(CircuitBreaker circuitBreaker) {
+        super("Circuit breaker of " + circuitBreaker.getName() + " is open");
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.foodapp.data.api.resilience;
+
+import java.util.Random;
+
+/**
+ * How calls to an endpoint of the API are protected against failures: how long a call may
+ * take, how many times and how quickly it is retried, and when the endpoint is considered
+ * down by its {@link CircuitBreaker}.
+ */
+public class ResiliencePolicy {
+
+    // Maximum duration of a single attempt, in milliseconds.
+    private final long timeoutMillis;
+
+    // Number of retries after the first attempt failed.
+    private final int maxRetries;
+
+    // Delay before the first retry, in milliseconds, doubled at every retry.
+    private final long baseDelayMillis;
+
+    // Upper bound of the delay between two attempts, in milliseconds.
+    private final long maxDelayMillis;
+
+    // Number of consecutive failures opening the circuit breaker.
+    private final int failureThreshold;
+
+    // How long the circuit breaker stays open before letting a call through, in milliseconds.
+    private final long openDurationMillis;
+
+    /**
+     * Constructs a ResiliencePolicy object with the given field values.
+     *
+     * @param timeoutMillis the maximum duration of a single attempt
+     * @param maxRetries the number of retries after the first attempt failed
+     * @param baseDelayMillis the delay before the first retry
+     * @param maxDelayMillis the upper bound of the delay between two attempts
+     * @param failureThreshold the number of consecutive failures opening the circuit breaker
+     * @param openDurationMillis how long the circuit breaker stays open
+     */
+    public ResiliencePolicy(long timeoutMillis, int maxRetries, long baseDelayMillis,
+                            long maxDelayMillis, int failureThreshold, long openDurationMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxRetries = maxRetries;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Returns the delay before a retry: it grows exponentially with the number of the retry,
+     * up to the maximum delay, and half of it is random so that clients failing together do
+     * not retry together.
+     *
+     * @param retry the number of the retry, starting at 0
+     * @param random the source of the jitter
+     * @return the delay in milliseconds
+     */
+    public long backoffDelayMillis(int retry, Random random) {
+        long exponentialDelay = baseDelayMillis << Math.min(retry, 30);
+        long delay = Math.min(maxDelayMillis, exponentialDelay);
+        long halfDelay = delay / 2;
+        return halfDelay + (halfDelay > 0 ? (long) (random.nextDouble() * (delay - halfDelay)) : 0);
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getOpenDurationMillis() {
+        return openDurationMillis;
+    }
+}
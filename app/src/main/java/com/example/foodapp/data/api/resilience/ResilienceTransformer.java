@@ -0,0 +1,149 @@
+package com.example.foodapp.data.api.resilience;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import retrofit2.HttpException;
+
+/**
+ * Protects a call to the API following a {@link ResiliencePolicy}.
+ * Each attempt is bounded by a timeout, transient failures are retried after an exponential
+ * backoff with jitter, and the outcome of every attempt is reported to the
+ * {@link CircuitBreaker} of the endpoint, which makes calls fail at once while it is open.
+ * While it is open, the call is answered by its fallback instead if there is one, typically
+ * the same request read from the HTTP cache, so that the last known data is still displayed.
+ * Only attempts that failed before emitting anything are retried.
+ *
+ * @param <T> the type of the response
+ */
+public class ResilienceTransformer<T> implements ObservableTransformer<T, T> {
+
+    private final ResiliencePolicy policy;
+    private final CircuitBreaker circuitBreaker;
+    // Runs the timeouts and the delays between attempts.
+    private final Scheduler scheduler;
+    // Source of the jitter of the delays.
+    private final Random random;
+    // Answers the call while the circuit breaker is open, null to fail at once.
+    private final Observable<T> fallback;
+
+    /**
+     * Creates a transformer protecting the calls to an endpoint.
+     *
+     * @param policy the timeout, retries and backoff of the endpoint
+     * @param circuitBreaker the circuit breaker of the endpoint
+     * @param scheduler the scheduler running the timeouts and the delays between attempts
+     * @param random the source of the jitter of the delays
+     */
+    public ResilienceTransformer(ResiliencePolicy policy, CircuitBreaker circuitBreaker,
+                                 Scheduler scheduler, Random random) {
+        this(policy, circuitBreaker, scheduler, random, null);
+    }
+
+    /**
+     * Creates a transformer protecting the calls to an endpoint, answered by a fallback while
+     * the circuit breaker is open.
+     *
+     * @param policy the timeout, retries and backoff of the endpoint
+     * @param circuitBreaker the circuit breaker of the endpoint
+     * @param scheduler the scheduler running the timeouts and the delays between attempts
+     * @param random the source of the jitter of the delays
+     * @param fallback answers the call while the circuit breaker is open, like the same request
+     *                 read from the cache, or null to fail at once
+     */
+    public ResilienceTransformer(ResiliencePolicy policy, CircuitBreaker circuitBreaker,
+                                 Scheduler scheduler, Random random, Observable<T> fallback) {
+        this.policy = policy;
+        this.circuitBreaker = circuitBreaker;
+        this.scheduler = scheduler;
+        this.random = random;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public ObservableSource<T> apply(Observable<T> upstream) {
+        return Observable.defer(() -> {
+            AtomicInteger retries = new AtomicInteger();
+            AtomicBoolean emitted = new AtomicBoolean();
+            return attempt(upstream, emitted)
+                    .retryWhen(errors -> errors.flatMap(error -> {
+                        int retry = retries.getAndIncrement();
+                        if (retry >= policy.getMaxRetries() || emitted.get() || !isTransient(error)) {
+                            return Observable.error(error);
+                        }
+                        long delay = policy.backoffDelayMillis(retry, random);
+                        Log.d("Resilience", circuitBreaker.getName() + " failed (" + error
+                                + "), retry " + (retry + 1) + " in " + delay + " ms");
+                        return Observable.timer(delay, TimeUnit.MILLISECONDS, scheduler);
+                    }));
+        });
+    }
+
+    /**
+     * Makes a single attempt of the call if the circuit breaker allows it, bounded by the
+     * timeout of the policy, and reports its outcome to the circuit breaker.
+     * Otherwise the fallback answers the call without being reported, and the call fails
+     * with a {@link CircuitBreakerOpenException} if the fallback fails too.
+     *
+     * @param upstream the call to the API
+     * @param emitted set once the call emitted something
+     * @return an Observable of the attempt
+     */
+    private Observable<T> attempt(Observable<T> upstream, AtomicBoolean emitted) {
+        return Observable.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                CircuitBreakerOpenException open = new CircuitBreakerOpenException(circuitBreaker);
+                if (fallback == null) {
+                    return Observable.error(open);
+                }
+                return fallback
+                        .doOnNext(response -> emitted.set(true))
+                        .onErrorResumeNext(Observable.error(open));
+            }
+            return upstream
+                    .timeout(policy.getTimeoutMillis(), TimeUnit.MILLISECONDS, scheduler)
+                    .doOnNext(response -> {
+                        emitted.set(true);
+                        circuitBreaker.onSuccess();
+                    })
+                    .doOnComplete(circuitBreaker::onSuccess)
+                    .doOnError(error -> {
+                        // The server answering with a client error is still up
+                        if (isTransient(error)) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            circuitBreaker.onSuccess();
+                        }
+                    })
+                    .doOnDispose(circuitBreaker::onCancelled);
+        });
+    }
+
+    /**
+     * Tells whether a failure may not happen again if the call is retried: the network or
+     * the server failed, or the call timed out.
+     *
+     * @param error the failure of a call
+     * @return true if the call can be retried
+     */
+    public static boolean isTransient(Throwable error) {
+        if (error instanceof CircuitBreakerOpenException) {
+            return false;
+        }
+        if (error instanceof HttpException) {
+            int code = ((HttpException) error).code();
+            return code >= 500 || code == 429;
+        }
+        return error instanceof IOException || error instanceof TimeoutException;
+    }
+}
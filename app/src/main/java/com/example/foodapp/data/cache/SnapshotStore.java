@@ -0,0 +1,79 @@
+package com.example.foodapp.data.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import io.reactivex.Maybe;
+
+/**
+ * Keeps the last known version of some data of the API in files, so that it can be
+ * displayed at once when the application starts, before the API answers.
+ * Each snapshot is a text file, replaced atomically so that a crash while writing never
+ * leaves a truncated snapshot behind.
+ */
+public class SnapshotStore {
+
+    // The directory holding the snapshots.
+    private final File directory;
+
+    /**
+     * Creates a store keeping its snapshots in a directory, created when first needed.
+     *
+     * @param directory the directory holding the snapshots
+     */
+    public SnapshotStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads a snapshot. Must be subscribed to on a background thread.
+     *
+     * @param name the name of the snapshot
+     * @return a Maybe of the content of the snapshot, empty if there is none
+     */
+    public Maybe<String> read(String name) {
+        return Maybe.fromCallable(() -> {
+            File file = new File(directory, name);
+            if (!file.isFile()) {
+                return null;
+            }
+            byte[] content = new byte[(int) file.length()];
+            try (InputStream in = new FileInputStream(file)) {
+                int read = 0;
+                while (read < content.length) {
+                    int count = in.read(content, read, content.length - read);
+                    if (count < 0) {
+                        break;
+                    }
+                    read += count;
+                }
+                return new String(content, 0, read, StandardCharsets.UTF_8);
+            }
+        });
+    }
+
+    /**
+     * Replaces a snapshot. Must be called on a background thread.
+     *
+     * @param name the name of the snapshot
+     * @param content the new content of the snapshot
+     * @throws IOException if the snapshot could not be written
+     */
+    public void write(String name, String content) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File temporary = new File(directory, name + ".tmp");
+        try (OutputStream out = new FileOutputStream(temporary)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!temporary.renameTo(new File(directory, name))) {
+            throw new IOException("Cannot replace snapshot " + name);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.foodapp.data.cache;
+
+import androidx.annotation.NonNull;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * A bounded in-memory cache evicting its least recently used entries.
+ * Each entry has a weight given by a {@link Weigher}, and the cache evicts entries
+ * as soon as the total weight exceeds its maximum. Entries also expire after a
+ * time-to-live, after which they are considered missing. A value heavier than the maximum
+ * weight is not cached, rather than evicting every other entry.
+ * Hits and misses are counted to monitor the efficiency of the cache.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public class TtlLruCache<K, V> {
+
+    /**
+     * Computes the weight of a value stored in the cache.
+     *
+     * @param <V> the type of the cached values
+     */
+    public interface Weigher<V> {
+        /**
+         * Returns the weight of a value, in any unit as long as it is consistent
+         * with the maximum weight of the cache.
+         *
+         * @param value the value to weigh
+         * @return the weight of the value, at least 1
+         */
+        int weigh(V value);
+    }
+
+    /**
+     * A value stored in the cache, along with its weight and expiry time.
+     */
+    private static class Entry<V> {
+        final V value;
+        final int weight;
+        final long expiresAt;
+
+        Entry(V value, int weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // The entries, from the least recently used to the most recently used.
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final Weigher<V> weigher;
+    // Gives the current time, so that tests can control it.
+    private final Scheduler clock;
+
+    // Sum of the weights of all the entries.
+    private long totalWeight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxWeight the maximum total weight of the entries
+     * @param ttlMillis how long an entry stays valid after being put, in milliseconds
+     * @param weigher computes the weight of each value
+     */
+    public TtlLruCache(long maxWeight, long ttlMillis, Weigher<V> weigher) {
+        this(maxWeight, ttlMillis, weigher, Schedulers.computation());
+    }
+
+    /**
+     * Creates an empty cache reading the time from a scheduler.
+     *
+     * @param maxWeight the maximum total weight of the entries
+     * @param ttlMillis how long an entry stays valid after being put, in milliseconds
+     * @param weigher computes the weight of each value
+     * @param clock the scheduler giving the current time
+     */
+    public TtlLruCache(long maxWeight, long ttlMillis, Weigher<V> weigher, Scheduler clock) {
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.weigher = weigher;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the value cached for a key, if it has not expired.
+     *
+     * @param key the key of the value
+     * @return the cached value, or null if absent or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= now()) {
+            removeEntry(key);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * Tells whether a value is cached for a key and has not expired, without counting
+     * a hit or a miss.
+     *
+     * @param key the key of the value
+     * @return true if a valid value is cached for the key
+     */
+    public synchronized boolean contains(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.expiresAt > now();
+    }
+
+    /**
+     * Caches a value, replacing any previous value of the same key, then evicts the
+     * least recently used entries until the cache fits within its maximum weight.
+     * A value heavier than the maximum weight only removes the previous value of its key.
+     *
+     * @param key the key of the value
+     * @param value the value to cache
+     */
+    public synchronized void put(K key, V value) {
+        int weight = Math.max(1, weigher.weigh(value));
+        removeEntry(key);
+        if (weight > maxWeight) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, weight, now() + ttlMillis));
+        totalWeight += weight;
+        trimToMaxWeight();
+    }
+
+    /**
+     * Removes the value cached for a key, if any.
+     *
+     * @param key the key of the value
+     */
+    public synchronized void remove(K key) {
+        removeEntry(key);
+    }
+
+    /**
+     * Removes every entry of the cache. Statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    private void removeEntry(K key) {
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+    }
+
+    private void trimToMaxWeight() {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            totalWeight -= iterator.next().getValue().weight;
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private long now() {
+        return clock.now(TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the number of entries in the cache, including expired ones not yet removed
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total weight of the entries in the cache
+     */
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    /**
+     * @return the number of lookups that found a valid value
+     */
+    public synchronized long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of lookups that found nothing, or an expired value
+     */
+    public synchronized long missCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of entries evicted to respect the maximum weight
+     */
+    public synchronized long evictionCount() {
+        return evictionCount;
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+        long lookups = hitCount + missCount;
+        return "TtlLruCache{" +
+                "size=" + entries.size() +
+                ", weight=" + totalWeight + "/" + maxWeight +
+                ", hits=" + hitCount +
+                ", misses=" + missCount +
+                ", evictions=" + evictionCount +
+                ", hitRate=" + (lookups == 0 ? 0 : 100 * hitCount / lookups) + "%" +
+                '}';
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.foodapp.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.foodapp.data.dao.entity.CatalogCategoryEntity;
+import com.example.foodapp.data.dao.entity.CatalogMealEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Maybe;
+
+/**
+ * Data Access Object for the local copy of the catalog of the API, filled by the
+ * background synchronization and updated with every list received from the API. The
+ * descriptions of its meals are accessed through {@link MealDescriptionDao}.
+ */
+@Dao
+public interface CatalogDao {
+
+    /**
+     * Inserts the categories that are not in the catalog yet, keeping the synchronization
+     * state of the others.
+     *
+     * @param categories the CatalogCategoryEntity objects to insert
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertCategories(List<CatalogCategoryEntity> categories);
+
+    /**
+     * Updates the fields of a category listed by the API, keeping its synchronization state.
+     *
+     * @param strCategory the name of the category
+     * @param idCategory the ID of the category
+     * @param strCategoryThumb the URL of the thumbnail image
+     * @param strCategoryDescription the description of the category
+     */
+    @Query("UPDATE CatalogCategoryEntity SET idCategory = :idCategory, " +
+            "strCategoryThumb = :strCategoryThumb, " +
+            "strCategoryDescription = :strCategoryDescription WHERE strCategory = :strCategory")
+    void updateCategory(String strCategory, String idCategory, String strCategoryThumb,
+                        String strCategoryDescription);
+
+    /**
+     * Deletes the categories that are not listed anymore.
+     *
+     * @param categories the names of the categories to keep
+     */
+    @Query("DELETE FROM CatalogCategoryEntity WHERE strCategory NOT IN (:categories)")
+    void deleteCategoriesExcept(List<String> categories);
+
+    /**
+     * Deletes the meals of the categories that are not listed anymore.
+     *
+     * @param categories the names of the categories whose meals are kept
+     */
+    @Query("DELETE FROM CatalogMealEntity WHERE strCategory NOT IN (:categories)")
+    void deleteMealsOfCategoriesExcept(List<String> categories);
+
+    /**
+     * Replaces the categories of the catalog by those listed by the API in a single
+     * transaction: new categories are inserted, the others are updated while keeping their
+     * synchronization state, and the categories no longer listed are deleted with their
+     * meals. An empty list is ignored, as the API always has categories.
+     *
+     * @param categories the categories listed by the API
+     */
+    @Transaction
+    default void replaceCategories(List<CatalogCategoryEntity> categories) {
+        if (categories.isEmpty()) {
+            return;
+        }
+        insertCategories(categories);
+        List<String> names = new ArrayList<>(categories.size());
+        for (CatalogCategoryEntity category : categories) {
+            updateCategory(category.getStrCategory(), category.getIdCategory(),
+                    category.getStrCategoryThumb(), category.getStrCategoryDescription());
+            names.add(category.getStrCategory());
+        }
+        deleteMealsOfCategoriesExcept(names);
+        deleteCategoriesExcept(names);
+    }
+
+    /**
+     * Retrieves the names of the categories whose meals are not synchronized yet.
+     *
+     * @return the names of the categories to synchronize
+     */
+    @Query("SELECT strCategory FROM CatalogCategoryEntity WHERE mealsSynced = 0")
+    List<String> getCategoriesToSync();
+
+    /**
+     * Inserts the meals of a category, replacing any previous version of them.
+     *
+     * @param meals the CatalogMealEntity objects to insert
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertMeals(List<CatalogMealEntity> meals);
+
+    /**
+     * Deletes the meals of a category.
+     *
+     * @param category the name of the category
+     */
+    @Query("DELETE FROM CatalogMealEntity WHERE strCategory = :category")
+    void deleteMealsOfCategory(String category);
+
+    /**
+     * Marks the meals of a category as synchronized.
+     *
+     * @param category the name of the category
+     */
+    @Query("UPDATE CatalogCategoryEntity SET mealsSynced = 1 WHERE strCategory = :category")
+    void markMealsSynced(String category);
+
+    /**
+     * Replaces the meals of a category and marks them as synchronized in a single
+     * transaction, so that an interrupted synchronization never skips a category, and the
+     * meals the API no longer lists are deleted.
+     *
+     * @param category the name of the category
+     * @param meals the meals of the category
+     */
+    @Transaction
+    default void replaceMealsOfCategory(String category, List<CatalogMealEntity> meals) {
+        deleteMealsOfCategory(category);
+        insertMeals(meals);
+        markMealsSynced(category);
+    }
+
+    /**
+     * Retrieves the IDs of the meals of the catalog whose description is not stored yet,
+     * and was not requested during the current synchronization.
+     *
+     * @return the IDs of the meals to describe
+     */
+    @Query("SELECT idMeal FROM CatalogMealEntity WHERE descriptionSynced = 0 " +
+            "AND idMeal NOT IN (SELECT idMeal FROM MealDescriptionEntity)")
+    List<String> getMealIdsToDescribe();
+
+    /**
+     * Marks the description of a meal as requested, whether the API had one or not.
+     *
+     * @param idMeal the ID of the meal
+     */
+    @Query("UPDATE CatalogMealEntity SET descriptionSynced = 1 WHERE idMeal = :idMeal")
+    void markDescriptionSynced(String idMeal);
+
+    /**
+     * Marks every category as not synchronized.
+     */
+    @Query("UPDATE CatalogCategoryEntity SET mealsSynced = 0")
+    void resetCategoriesSync();
+
+    /**
+     * Marks the description of every meal as not requested.
+     */
+    @Query("UPDATE CatalogMealEntity SET descriptionSynced = 0")
+    void resetDescriptionsSync();
+
+    /**
+     * Marks every category and every description as not synchronized in a single
+     * transaction, to start a new synchronization of the catalog once the previous one is
+     * complete.
+     */
+    @Transaction
+    default void resetSync() {
+        resetCategoriesSync();
+        resetDescriptionsSync();
+    }
+
+    /**
+     * Retrieves the categories of the catalog, in the order of their IDs in the API.
+     *
+     * @return a Maybe of the categories, an empty list if the catalog was never synchronized
+     */
+    @Query("SELECT * FROM CatalogCategoryEntity ORDER BY CAST(idCategory AS INTEGER)")
+    Maybe<List<CatalogCategoryEntity>> getCategories();
+
+    /**
+     * Retrieves the meals of a category from the catalog. As the meals of a category are
+     * always stored all at once, they are complete as of their last synchronization.
+     * They are sorted by name.
+     *
+     * @param category the name of the category
+     * @return a Maybe of the meals of the category, an empty list if it was never synchronized
+     */
+    @Query("SELECT * FROM CatalogMealEntity WHERE strCategory = :category ORDER BY strMeal")
+    Maybe<List<CatalogMealEntity>> getMealsOfCategory(String category);
+
+    /**
+     * Counts the meals of the catalog.
+     *
+     * @return the number of meals stored
+     */
+    @Query("SELECT COUNT(*) FROM CatalogMealEntity")
+    int countMeals();
+}
@@ -0,0 +1,104 @@
+package com.example.foodapp.data.dao;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * The migrations of {@link FavoriteDatabase} from each version to the next, so that the
+ * favorites and the cached data are kept when the application is updated.
+ * The schema of every version is exported to app/schemas, which the migrations are tested
+ * against. The statements must create the tables exactly as the schema of the next version.
+ */
+public final class DatabaseMigrations {
+
+    /**
+     * Adds the cache of the meal descriptions and of their ingredients.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `MealDescriptionEntity` ("
+                    + "`idMeal` TEXT NOT NULL, `strMeal` TEXT, `strDrinkAlternate` TEXT, "
+                    + "`strCategory` TEXT, `strArea` TEXT, `strInstructions` TEXT, "
+                    + "`strMealThumb` TEXT, `strTags` TEXT, `strYoutube` TEXT, "
+                    + "`cachedAt` INTEGER NOT NULL, PRIMARY KEY(`idMeal`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `IngredientEntity` ("
+                    + "`idMeal` TEXT NOT NULL, `position` INTEGER NOT NULL, `ingredient` TEXT, "
+                    + "`measure` TEXT, PRIMARY KEY(`idMeal`, `position`), "
+                    + "FOREIGN KEY(`idMeal`) REFERENCES `MealDescriptionEntity`(`idMeal`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+        }
+    };
+
+    /**
+     * Adds the local copy of the catalog.
+     */
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `CatalogCategoryEntity` ("
+                    + "`strCategory` TEXT NOT NULL, `idCategory` TEXT, `strCategoryThumb` TEXT, "
+                    + "`strCategoryDescription` TEXT, `mealsSynced` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`strCategory`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `CatalogMealEntity` ("
+                    + "`idMeal` TEXT NOT NULL, `strMeal` TEXT, `strMealThumb` TEXT, "
+                    + "`strCategory` TEXT, PRIMARY KEY(`idMeal`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_CatalogMealEntity_strCategory` "
+                    + "ON `CatalogMealEntity` (`strCategory`)");
+        }
+    };
+
+    /**
+     * Adds the time the favorites were added, and indexes them by date, name and category.
+     * The table is rebuilt, since SQLite cannot change the collation of the name column.
+     * The favorites added before get their row ID as time, which keeps their order and sorts
+     * them before those added afterwards.
+     */
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `_new_MealEntity` ("
+                    + "`idMeal` TEXT NOT NULL, `strMeal` TEXT NOT NULL COLLATE NOCASE, "
+                    + "`strMealThumb` TEXT NOT NULL, `idMealCategory` TEXT, "
+                    + "`createdAt` INTEGER NOT NULL, PRIMARY KEY(`idMeal`))");
+            database.execSQL("INSERT INTO `_new_MealEntity` "
+                    + "(`idMeal`, `strMeal`, `strMealThumb`, `idMealCategory`, `createdAt`) "
+                    + "SELECT `idMeal`, `strMeal`, `strMealThumb`, `idMealCategory`, `rowid` "
+                    + "FROM `MealEntity`");
+            database.execSQL("DROP TABLE `MealEntity`");
+            database.execSQL("ALTER TABLE `_new_MealEntity` RENAME TO `MealEntity`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_MealEntity_createdAt` "
+                    + "ON `MealEntity` (`createdAt`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_MealEntity_strMeal` "
+                    + "ON `MealEntity` (`strMeal`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS "
+                    + "`index_MealEntity_idMealCategory_strMeal` "
+                    + "ON `MealEntity` (`idMealCategory`, `strMeal`)");
+        }
+    };
+
+    /**
+     * Records which descriptions of the catalog were requested. The meals already described
+     * are marked as requested, so that the synchronization in progress goes on from there.
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `CatalogMealEntity` "
+                    + "ADD COLUMN `descriptionSynced` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE `CatalogMealEntity` SET `descriptionSynced` = 1 "
+                    + "WHERE `idMeal` IN (SELECT `idMeal` FROM `MealDescriptionEntity`)");
+        }
+    };
+
+    // Every migration, to be added to the database builder.
+    public static final Migration[] ALL =
+            {MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9};
+
+    // The versions older than the first exported schema, which are recreated empty.
+    static final int[] VERSIONS_WITHOUT_SCHEMA = {1, 2, 3, 4};
+
+    private DatabaseMigrations() {
+    }
+}
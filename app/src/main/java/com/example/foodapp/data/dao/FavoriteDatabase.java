@@ -6,20 +6,33 @@ import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 
+import com.example.foodapp.data.dao.entity.CatalogCategoryEntity;
+import com.example.foodapp.data.dao.entity.CatalogMealEntity;
+import com.example.foodapp.data.dao.entity.IngredientEntity;
+import com.example.foodapp.data.dao.entity.MealDescriptionEntity;
 import com.example.foodapp.data.dao.entity.MealEntity;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
- * A Room database for storing favorite meals.
+ * A Room database for storing favorite meals, caching the descriptions of the meals
+ * that were viewed, and keeping a local copy of the whole catalog of the API.
+ * Its schema is exported to app/schemas at every version, and upgraded by the
+ * {@link DatabaseMigrations}, so that updating the application keeps the stored data.
  * This class is vastly reusing code as provided in "TD 6. Room"
  */
-@Database(entities = {MealEntity.class}, version = 5, exportSchema = false)
+@Database(entities = {MealEntity.class, MealDescriptionEntity.class, IngredientEntity.class,
+        CatalogCategoryEntity.class, CatalogMealEntity.class},
+        version = 9)
 public abstract class FavoriteDatabase extends RoomDatabase {
 
     public abstract MealDao mealDao();
 
+    public abstract MealDescriptionDao mealDescriptionDao();
+
+    public abstract CatalogDao catalogDao();
+
     // database name and version go here
     public static final String DB_NAME = "favorites_db";
     // A singleton instance of the database.
@@ -43,7 +56,9 @@ public abstract class FavoriteDatabase extends RoomDatabase {
                 if (INSTANCE == null) {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                                     FavoriteDatabase.class, DB_NAME)
-                            .fallbackToDestructiveMigration()
+                            .addMigrations(DatabaseMigrations.ALL)
+                            .fallbackToDestructiveMigrationFrom(
+                                    DatabaseMigrations.VERSIONS_WITHOUT_SCHEMA)
                             .build();
                 }
             }
@@ -1,21 +1,29 @@
 package com.example.foodapp.data.dao;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
+import com.example.foodapp.data.dao.entity.CategoryCount;
 import com.example.foodapp.data.dao.entity.MealEntity;
 
 import java.util.List;
 
+import io.reactivex.Flowable;
+
 /**
  * Data Access Object for the MealEntity class, providing database access methods.
  */
 @Dao
 public interface MealDao {
 
+    // The maximum number of IDs bound to a statement, below the 999 arguments of old SQLite.
+    int MAX_IDS_PER_STATEMENT = 500;
+
     /**
      * Inserts a meal into the database.
      * If the meal already exists, the insertion is ignored.
@@ -25,6 +33,15 @@ public interface MealDao {
     @Insert(onConflict = OnConflictStrategy.IGNORE)
     void insert(MealEntity meal);
 
+    /**
+     * Inserts meals into the database in a single transaction.
+     * The meals that already exist are ignored.
+     *
+     * @param meals the MealEntity objects to insert
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<MealEntity> meals);
+
     /**
      * Deletes all meals from the database.
      */
@@ -39,6 +56,49 @@ public interface MealDao {
     @Query("SELECT * FROM MealEntity")
     LiveData<List<MealEntity>> getAllMeals();
 
+    /**
+     * Loads the meals by pages, the most recently added first, along the index of their date.
+     *
+     * @return a source of the pages of meals, invalidated when the favorites change
+     */
+    @Query("SELECT * FROM MealEntity ORDER BY createdAt DESC")
+    PagingSource<Integer, MealEntity> getPagedMealsByRecency();
+
+    /**
+     * Loads the meals by pages, sorted by name regardless of case, along the index of their
+     * name.
+     *
+     * @return a source of the pages of meals, invalidated when the favorites change
+     */
+    @Query("SELECT * FROM MealEntity ORDER BY strMeal")
+    PagingSource<Integer, MealEntity> getPagedMealsByName();
+
+    /**
+     * Loads the meals by pages, grouped by category then sorted by name, along the index of
+     * their category and name.
+     *
+     * @return a source of the pages of meals, invalidated when the favorites change
+     */
+    @Query("SELECT * FROM MealEntity ORDER BY idMealCategory, strMeal")
+    PagingSource<Integer, MealEntity> getPagedMealsByCategory();
+
+    /**
+     * Counts the meals of every category, along the index of their category.
+     *
+     * @return a LiveData list of the number of meals of each category, sorted by category
+     */
+    @Query("SELECT idMealCategory, COUNT(*) AS count FROM MealEntity " +
+            "GROUP BY idMealCategory ORDER BY idMealCategory")
+    LiveData<List<CategoryCount>> getCategoryCounts();
+
+    /**
+     * Retrieves the IDs of all the favorite meals, again every time they change.
+     *
+     * @return a Flowable of the IDs of the favorite meals
+     */
+    @Query("SELECT idMeal FROM MealEntity")
+    Flowable<List<String>> getFavoriteIds();
+
     /**
      * Retrieves a meal from the database by its ID.
      *
@@ -55,4 +115,42 @@ public interface MealDao {
      */
     @Query("DELETE FROM MealEntity WHERE idMeal = :mealId")
     void delete(String mealId);
-}
\ No newline at end of file
+
+    /**
+     * Deletes meals from the database by their IDs, at most
+     * {@link #MAX_IDS_PER_STATEMENT} of them.
+     *
+     * @param mealIds the IDs of the meals to delete
+     */
+    @Query("DELETE FROM MealEntity WHERE idMeal IN (:mealIds)")
+    void deleteChunk(List<String> mealIds);
+
+    /**
+     * Deletes meals from the database by their IDs in a single transaction, so that their
+     * observers are notified once. The IDs are bound in chunks, SQLite limiting the number
+     * of arguments of a statement.
+     *
+     * @param mealIds the IDs of the meals to delete
+     */
+    @Transaction
+    default void deleteAll(List<String> mealIds) {
+        for (int from = 0; from < mealIds.size(); from += MAX_IDS_PER_STATEMENT) {
+            int to = Math.min(from + MAX_IDS_PER_STATEMENT, mealIds.size());
+            deleteChunk(mealIds.subList(from, to));
+        }
+    }
+
+    /**
+     * Inserts some meals and deletes others in a single transaction.
+     *
+     * @param inserted the MealEntity objects to insert
+     * @param deletedIds the IDs of the meals to delete
+     */
+    @Transaction
+    default void update(List<MealEntity> inserted, List<String> deletedIds) {
+        if (!inserted.isEmpty()) {
+            insertAll(inserted);
+        }
+        deleteAll(deletedIds);
+    }
+}
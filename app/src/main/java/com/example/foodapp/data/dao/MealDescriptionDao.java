@@ -0,0 +1,107 @@
+package com.example.foodapp.data.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.foodapp.data.dao.entity.IngredientEntity;
+import com.example.foodapp.data.dao.entity.MealDescriptionEntity;
+import com.example.foodapp.data.dao.entity.MealDescriptionWithIngredients;
+
+import java.util.List;
+
+import io.reactivex.Maybe;
+
+/**
+ * Data Access Object for the cached meal descriptions and their ingredients.
+ */
+@Dao
+public interface MealDescriptionDao {
+
+    /**
+     * Retrieves a cached meal description, along with its ingredients.
+     *
+     * @param mealId the ID of the meal
+     * @return a Maybe of the description, empty if the meal is not cached
+     */
+    @Transaction
+    @Query("SELECT * FROM MealDescriptionEntity WHERE idMeal = :mealId")
+    Maybe<MealDescriptionWithIngredients> getMealDescription(String mealId);
+
+    /**
+     * Retrieves the ingredients of every cached meal description, to index them.
+     *
+     * @return the IngredientEntity objects of all the cached descriptions
+     */
+    @Query("SELECT * FROM IngredientEntity")
+    List<IngredientEntity> getAllIngredients();
+
+    /**
+     * Inserts a meal description, replacing any previous version of it.
+     * The ingredients of the previous version are deleted along with it.
+     *
+     * @param description the MealDescriptionEntity object to insert
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertDescription(MealDescriptionEntity description);
+
+    /**
+     * Inserts the ingredients of a meal description.
+     *
+     * @param ingredients the IngredientEntity objects to insert
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertIngredients(List<IngredientEntity> ingredients);
+
+    /**
+     * Inserts a meal description and its ingredients in a single transaction.
+     *
+     * @param description the MealDescriptionEntity object to insert
+     * @param ingredients the ingredients of the meal
+     */
+    @Transaction
+    default void insert(MealDescriptionEntity description, List<IngredientEntity> ingredients) {
+        insertDescription(description);
+        insertIngredients(ingredients);
+    }
+
+    /**
+     * Retrieves the IDs of the oldest cached descriptions, beyond the most recent ones,
+     * except those of favorite meals and those of the synchronized catalog.
+     *
+     * @param keep the number of most recently cached descriptions to keep
+     * @return the IDs of the meals whose description can be deleted
+     */
+    @Query("SELECT idMeal FROM MealDescriptionEntity " +
+            "WHERE idMeal NOT IN (SELECT idMeal FROM MealEntity) " +
+            "AND idMeal NOT IN (SELECT idMeal FROM CatalogMealEntity) " +
+            "AND idMeal NOT IN (SELECT idMeal FROM MealDescriptionEntity " +
+            "ORDER BY cachedAt DESC LIMIT :keep)")
+    List<String> getOldestIds(int keep);
+
+    /**
+     * Deletes cached descriptions, along with their ingredients.
+     *
+     * @param mealIds the IDs of the meals whose description to delete
+     */
+    @Query("DELETE FROM MealDescriptionEntity WHERE idMeal IN (:mealIds)")
+    void deleteDescriptions(List<String> mealIds);
+
+    /**
+     * Deletes the oldest cached descriptions in a single transaction, keeping the most recent
+     * ones, those of favorite meals and those of the synchronized catalog.
+     *
+     * @param keep the number of most recently cached descriptions to keep
+     * @return the IDs of the meals whose description was deleted
+     */
+    @Transaction
+    default List<String> deleteOldest(int keep) {
+        List<String> mealIds = getOldestIds(keep);
+        if (!mealIds.isEmpty()) {
+            deleteDescriptions(mealIds);
+        }
+        return mealIds;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.foodapp.data.dao.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import com.example.foodapp.data.api.model.CategoriesList;
+import com.example.foodapp.data.api.model.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Room database entity class representing a category of the local copy of the catalog.
+ * It also records whether the meals of the category have been synchronized, so that an
+ * interrupted synchronization resumes where it stopped.
+ */
+@Entity
+public class CatalogCategoryEntity {
+
+    // The primary key field, the name of the category, by which the API filters meals.
+    @PrimaryKey
+    @NonNull
+    private final String strCategory;
+
+    // The ID of the category in the API.
+    private final String idCategory;
+
+    // The URL of the thumbnail image of the category.
+    private final String strCategoryThumb;
+
+    // The description of the category.
+    private final String strCategoryDescription;
+
+    // Whether the meals of the category were stored during the current synchronization.
+    private final boolean mealsSynced;
+
+    /**
+     * Constructs a CatalogCategoryEntity object with the given field values.
+     *
+     * @param strCategory the category name
+     * @param idCategory the category ID
+     * @param strCategoryThumb the URL of the thumbnail image
+     * @param strCategoryDescription the category description
+     * @param mealsSynced whether the meals of the category were stored
+     */
+    public CatalogCategoryEntity(@NonNull String strCategory, String idCategory,
+                                 String strCategoryThumb, String strCategoryDescription,
+                                 boolean mealsSynced) {
+        this.strCategory = strCategory;
+        this.idCategory = idCategory;
+        this.strCategoryThumb = strCategoryThumb;
+        this.strCategoryDescription = strCategoryDescription;
+        this.mealsSynced = mealsSynced;
+    }
+
+    /**
+     * Creates the entity of a category retrieved in the API, whose meals are not synced yet.
+     *
+     * @param category the category retrieved in the API
+     * @return the entity to store in the database
+     */
+    public static CatalogCategoryEntity from(Category category) {
+        return new CatalogCategoryEntity(category.getStrCategory(), category.getIdCategory(),
+                category.getStrCategoryThumb(), category.getStrCategoryDescription(), false);
+    }
+
+    /**
+     * Creates the entities of the categories listed by the API, skipping those without name.
+     *
+     * @param categories the list of categories retrieved in the API
+     * @return the entities to store in the database
+     */
+    public static List<CatalogCategoryEntity> listFrom(CategoriesList categories) {
+        List<CatalogCategoryEntity> entities = new ArrayList<>();
+        if (categories.getCategories() != null) {
+            for (Category category : categories.getCategories()) {
+                if (category.getStrCategory() != null) {
+                    entities.add(from(category));
+                }
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Converts the entity back to a category as listed by the API.
+     *
+     * @return the Category object
+     */
+    public Category toCategory() {
+        Category category = new Category();
+        category.setStrCategory(strCategory);
+        category.setIdCategory(idCategory);
+        category.setStrCategoryThumb(strCategoryThumb);
+        category.setStrCategoryDescription(strCategoryDescription);
+        return category;
+    }
+
+    @NonNull
+    public String getStrCategory() {
+        return strCategory;
+    }
+
+    public String getIdCategory() {
+        return idCategory;
+    }
+
+    public String getStrCategoryThumb() {
+        return strCategoryThumb;
+    }
+
+    public String getStrCategoryDescription() {
+        return strCategoryDescription;
+    }
+
+    public boolean isMealsSynced() {
+        return mealsSynced;
+    }
+}
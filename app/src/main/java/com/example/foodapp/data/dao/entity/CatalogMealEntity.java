@@ -0,0 +1,127 @@
+package com.example.foodapp.data.dao.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.example.foodapp.data.api.model.Meal;
+import com.example.foodapp.data.api.model.MealsList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Room database entity class representing a meal of the local copy of the catalog,
+ * as listed in its category. Its description is stored in {@link MealDescriptionEntity}.
+ * It also records whether its description has been requested, so that a meal the API
+ * cannot describe is not requested again and again during the same synchronization.
+ */
+@Entity(indices = @Index("strCategory"))
+public class CatalogMealEntity {
+
+    // The primary key field, a unique identifier for the meal.
+    @PrimaryKey
+    @NonNull
+    private final String idMeal;
+
+    // The name of the meal.
+    private final String strMeal;
+
+    // The URL of the thumbnail image of the meal.
+    private final String strMealThumb;
+
+    // The name of the category listing the meal.
+    private final String strCategory;
+
+    // Whether the description of the meal was requested during the current synchronization,
+    // even if the API had none.
+    @ColumnInfo(defaultValue = "0")
+    private final boolean descriptionSynced;
+
+    /**
+     * Constructs a CatalogMealEntity object with the given field values.
+     *
+     * @param idMeal the meal ID
+     * @param strMeal the meal name
+     * @param strMealThumb the URL of the thumbnail image
+     * @param strCategory the name of the category of the meal
+     * @param descriptionSynced whether the description of the meal was requested
+     */
+    public CatalogMealEntity(@NonNull String idMeal, String strMeal, String strMealThumb,
+                             String strCategory, boolean descriptionSynced) {
+        this.idMeal = idMeal;
+        this.strMeal = strMeal;
+        this.strMealThumb = strMealThumb;
+        this.strCategory = strCategory;
+        this.descriptionSynced = descriptionSynced;
+    }
+
+    /**
+     * Creates the entity of a meal listed in a category by the API, whose description is
+     * not requested yet.
+     *
+     * @param meal the meal retrieved in the API
+     * @param category the name of the category listing the meal
+     * @return the entity to store in the database
+     */
+    public static CatalogMealEntity from(Meal meal, String category) {
+        return new CatalogMealEntity(meal.getIdMeal(), meal.getStrMeal(), meal.getStrMealThumb(),
+                category, false);
+    }
+
+    /**
+     * Creates the entities of the meals listed in a category by the API, skipping those
+     * without ID.
+     *
+     * @param meals the list of meals retrieved in the API
+     * @param category the name of the category listing the meals
+     * @return the entities to store in the database
+     */
+    public static List<CatalogMealEntity> listFrom(MealsList meals, String category) {
+        List<CatalogMealEntity> entities = new ArrayList<>();
+        if (meals.getMeals() != null) {
+            for (Meal meal : meals.getMeals()) {
+                if (meal.getIdMeal() != null) {
+                    entities.add(from(meal, category));
+                }
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Converts the entity back to a meal as listed by the API.
+     *
+     * @return the Meal object
+     */
+    public Meal toMeal() {
+        Meal meal = new Meal();
+        meal.setIdMeal(idMeal);
+        meal.setStrMeal(strMeal);
+        meal.setStrMealThumb(strMealThumb);
+        return meal;
+    }
+
+    @NonNull
+    public String getIdMeal() {
+        return idMeal;
+    }
+
+    public String getStrMeal() {
+        return strMeal;
+    }
+
+    public String getStrMealThumb() {
+        return strMealThumb;
+    }
+
+    public String getStrCategory() {
+        return strCategory;
+    }
+
+    public boolean isDescriptionSynced() {
+        return descriptionSynced;
+    }
+}
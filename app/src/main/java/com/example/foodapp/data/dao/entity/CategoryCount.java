@@ -0,0 +1,42 @@
+package com.example.foodapp.data.dao.entity;
+
+/**
+ * The number of favorite meals of a category, counted by the database.
+ */
+public class CategoryCount {
+
+    // The ID of the category, null for the meals without category.
+    private final String idMealCategory;
+
+    // The number of favorite meals of the category.
+    private final int count;
+
+    /**
+     * Constructs a CategoryCount object with the given field values.
+     *
+     * @param idMealCategory the category ID
+     * @param count the number of favorite meals of the category
+     */
+    public CategoryCount(String idMealCategory, int count) {
+        this.idMealCategory = idMealCategory;
+        this.count = count;
+    }
+
+    /**
+     * Returns the category id.
+     *
+     * @return the category id
+     */
+    public String getIdMealCategory() {
+        return idMealCategory;
+    }
+
+    /**
+     * Returns the number of favorite meals of the category.
+     *
+     * @return the number of meals
+     */
+    public int getCount() {
+        return count;
+    }
+}
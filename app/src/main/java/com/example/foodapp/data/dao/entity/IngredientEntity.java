@@ -0,0 +1,82 @@
+package com.example.foodapp.data.dao.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+import com.example.foodapp.data.api.model.MealDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Room database entity class representing one ingredient of a cached meal description,
+ * along with its measure. Rows are deleted along with their {@link MealDescriptionEntity}.
+ */
+@Entity(primaryKeys = {"idMeal", "position"},
+        foreignKeys = @ForeignKey(entity = MealDescriptionEntity.class,
+                parentColumns = "idMeal",
+                childColumns = "idMeal",
+                onDelete = ForeignKey.CASCADE))
+public class IngredientEntity {
+
+    // The ID of the meal using this ingredient.
+    @NonNull
+    private final String idMeal;
+
+    // The position of the ingredient in the recipe, starting at 0.
+    private final int position;
+
+    // The name of the ingredient.
+    private final String ingredient;
+
+    // The quantity of the ingredient.
+    private final String measure;
+
+    /**
+     * Constructs an IngredientEntity object with the given field values.
+     *
+     * @param idMeal the meal ID
+     * @param position the position of the ingredient in the recipe
+     * @param ingredient the name of the ingredient
+     * @param measure the quantity of the ingredient
+     */
+    public IngredientEntity(@NonNull String idMeal, int position, String ingredient, String measure) {
+        this.idMeal = idMeal;
+        this.position = position;
+        this.ingredient = ingredient;
+        this.measure = measure;
+    }
+
+    /**
+     * Creates the entities caching the ingredients of a meal description, in their order.
+     *
+     * @param description the description retrieved in the API
+     * @return the entities to store in the database
+     */
+    public static List<IngredientEntity> listFrom(MealDescription description) {
+        List<IngredientEntity> entities = new ArrayList<>(description.getIngredientCount());
+        for (int i = 0; i < description.getIngredientCount(); i++) {
+            entities.add(new IngredientEntity(description.getIdMeal(), i,
+                    description.getIngredient(i), description.getMeasure(i)));
+        }
+        return entities;
+    }
+
+    @NonNull
+    public String getIdMeal() {
+        return idMeal;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public String getIngredient() {
+        return ingredient;
+    }
+
+    public String getMeasure() {
+        return measure;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.foodapp.data.dao.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import com.example.foodapp.data.api.model.MealDescription;
+
+/**
+ * A Room database entity class caching the description of a meal, as retrieved in the API.
+ * Its ingredients and their measures are stored in {@link IngredientEntity} rows.
+ */
+@Entity
+public class MealDescriptionEntity {
+
+    // The primary key field, a unique identifier for the meal.
+    @PrimaryKey
+    @NonNull
+    private final String idMeal;
+
+    // The name of the meal.
+    private final String strMeal;
+
+    // The alternate drink for the meal.
+    private final String strDrinkAlternate;
+
+    // The category of the meal.
+    private final String strCategory;
+
+    // The area where the meal is from.
+    private final String strArea;
+
+    // The instructions on how to prepare the meal.
+    private final String strInstructions;
+
+    // The URL of the thumbnail image of the meal.
+    private final String strMealThumb;
+
+    // The tags related to the meal.
+    private final String strTags;
+
+    // The URL of a YouTube video of the meal's preparation.
+    private final String strYoutube;
+
+    // When the description was cached, in milliseconds since the epoch.
+    private final long cachedAt;
+
+    /**
+     * Constructs a MealDescriptionEntity object with the given field values.
+     *
+     * @param idMeal the meal ID
+     * @param strMeal the meal name
+     * @param strDrinkAlternate the alternate drink
+     * @param strCategory the meal category
+     * @param strArea the area of the meal
+     * @param strInstructions the preparation instructions
+     * @param strMealThumb the URL of the thumbnail image
+     * @param strTags the tags of the meal
+     * @param strYoutube the URL of the preparation video
+     * @param cachedAt when the description was cached
+     */
+    public MealDescriptionEntity(@NonNull String idMeal, String strMeal, String strDrinkAlternate,
+                                 String strCategory, String strArea, String strInstructions,
+                                 String strMealThumb, String strTags, String strYoutube,
+                                 long cachedAt) {
+        this.idMeal = idMeal;
+        this.strMeal = strMeal;
+        this.strDrinkAlternate = strDrinkAlternate;
+        this.strCategory = strCategory;
+        this.strArea = strArea;
+        this.strInstructions = strInstructions;
+        this.strMealThumb = strMealThumb;
+        this.strTags = strTags;
+        this.strYoutube = strYoutube;
+        this.cachedAt = cachedAt;
+    }
+
+    /**
+     * Creates the entity caching the fields of a meal description, except its ingredients.
+     *
+     * @param description the description retrieved in the API
+     * @param cachedAt when the description is cached
+     * @return the entity to store in the database
+     */
+    public static MealDescriptionEntity from(MealDescription description, long cachedAt) {
+        return new MealDescriptionEntity(description.getIdMeal(), description.getStrMeal(),
+                description.getStrDrinkAlternate(), description.getStrCategory(),
+                description.getStrArea(), description.getStrInstructions(),
+                description.getStrMealThumb(), description.getStrTags(),
+                description.getStrYoutube(), cachedAt);
+    }
+
+    @NonNull
+    public String getIdMeal() {
+        return idMeal;
+    }
+
+    public String getStrMeal() {
+        return strMeal;
+    }
+
+    public String getStrDrinkAlternate() {
+        return strDrinkAlternate;
+    }
+
+    public String getStrCategory() {
+        return strCategory;
+    }
+
+    public String getStrArea() {
+        return strArea;
+    }
+
+    public String getStrInstructions() {
+        return strInstructions;
+    }
+
+    public String getStrMealThumb() {
+        return strMealThumb;
+    }
+
+    public String getStrTags() {
+        return strTags;
+    }
+
+    public String getStrYoutube() {
+        return strYoutube;
+    }
+
+    public long getCachedAt() {
+        return cachedAt;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.foodapp.data.dao.entity;
+
+import androidx.room.Embedded;
+import androidx.room.Relation;
+
+import com.example.foodapp.data.api.model.MealDescription;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A cached meal description, loaded by Room along with all its ingredients.
+ */
+public class MealDescriptionWithIngredients {
+
+    // The fields of the description.
+    @Embedded
+    public MealDescriptionEntity description;
+
+    // The ingredients of the meal, in no particular order.
+    @Relation(parentColumn = "idMeal", entityColumn = "idMeal")
+    public List<IngredientEntity> ingredients;
+
+    /**
+     * Rebuilds the description of the meal as it was retrieved in the API.
+     *
+     * @return the cached MealDescription
+     */
+    public MealDescription toMealDescription() {
+        MealDescription mealDescription = new MealDescription();
+        mealDescription.setIdMeal(description.getIdMeal());
+        mealDescription.setStrMeal(description.getStrMeal());
+        mealDescription.setStrDrinkAlternate(description.getStrDrinkAlternate());
+        mealDescription.setStrCategory(description.getStrCategory());
+        mealDescription.setStrArea(description.getStrArea());
+        mealDescription.setStrInstructions(description.getStrInstructions());
+        mealDescription.setStrMealThumb(description.getStrMealThumb());
+        mealDescription.setStrTags(description.getStrTags());
+        mealDescription.setStrYoutube(description.getStrYoutube());
+
+        List<IngredientEntity> sortedIngredients = new ArrayList<>(ingredients);
+        sortedIngredients.sort(Comparator.comparingInt(IngredientEntity::getPosition));
+        String[] names = new String[sortedIngredients.size()];
+        String[] measures = new String[sortedIngredients.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = sortedIngredients.get(i).getIngredient().intern();
+            measures[i] = sortedIngredients.get(i).getMeasure();
+        }
+        mealDescription.setIngredientsAndQuantities(names, measures);
+        return mealDescription;
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.foodapp.data.dao.entity;
 
 import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * A Room database entity class representing a favorite meal.
- * Contains fields for the meal ID, name, thumbnail image URL, and meal category ID.
+ * Contains fields for the meal ID, name, thumbnail image URL, meal category ID, and the time
+ * the meal was added to the favorites.
+ * The favorites are indexed by every order they can be listed in, so that SQLite sorts them
+ * by walking an index.
  */
-@Entity
+@Entity(indices = {@Index("createdAt"), @Index("strMeal"),
+        @Index({"idMealCategory", "strMeal"})})
 public class MealEntity {
 
     // The primary key field, a unique identifier for the meal.
@@ -16,8 +22,9 @@ public class MealEntity {
     @NonNull
     private String idMeal;
 
-    // The name of the meal.
+    // The name of the meal, compared regardless of case so that sorting by name uses its index.
     @NonNull
+    @ColumnInfo(collate = ColumnInfo.NOCASE)
     private String strMeal;
 
     // The URL of the thumbnail image of the meal.
@@ -27,6 +34,9 @@ public class MealEntity {
     // The ID of the meal's category.
     private String idMealCategory;
 
+    // The time the meal was added to the favorites, in milliseconds since the epoch.
+    private long createdAt;
+
     /**
      * Constructs a MealEntity object with the given field values.
      *
@@ -40,6 +50,7 @@ public class MealEntity {
         this.strMeal = strMeal;
         this.strMealThumb = strMealThumb;
         this.idMealCategory = idMealCategory;
+        this.createdAt = System.currentTimeMillis();
     }
 
     /**
@@ -117,6 +128,24 @@ public class MealEntity {
         this.idMealCategory = idMealCategory;
     }
 
+    /**
+     * Returns the time the meal was added to the favorites.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the time the meal was added to the favorites.
+     *
+     * @param createdAt the time in milliseconds since the epoch
+     */
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
     /**
      * Returns a string representation of this MealEntity object.
      *
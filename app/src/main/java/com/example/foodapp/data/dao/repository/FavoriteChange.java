@@ -0,0 +1,81 @@
+package com.example.foodapp.data.dao.repository;
+
+/**
+ * A change of the favorites, telling that a single meal was added to or removed from them.
+ * The changes are emitted by the {@link FavoritesRepository} from its own writes, so that a
+ * screen only learns about the meals that changed without reading the favorites again.
+ */
+public abstract class FavoriteChange {
+
+    private final String mealId;
+
+    private FavoriteChange(String mealId) {
+        this.mealId = mealId;
+    }
+
+    /**
+     * Gets the ID of the meal that changed.
+     *
+     * @return the ID of the meal
+     */
+    public String getMealId() {
+        return mealId;
+    }
+
+    /**
+     * Tells whether the meal is now a favorite.
+     *
+     * @return true if the meal was added, false if it was removed
+     */
+    public abstract boolean isFavorite();
+
+    /**
+     * A meal added to the favorites.
+     */
+    public static final class Added extends FavoriteChange {
+
+        /**
+         * Creates the change of a meal added to the favorites.
+         *
+         * @param mealId the ID of the meal
+         */
+        public Added(String mealId) {
+            super(mealId);
+        }
+
+        @Override
+        public boolean isFavorite() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Added(" + getMealId() + ")";
+        }
+    }
+
+    /**
+     * A meal removed from the favorites.
+     */
+    public static final class Removed extends FavoriteChange {
+
+        /**
+         * Creates the change of a meal removed from the favorites.
+         *
+         * @param mealId the ID of the meal
+         */
+        public Removed(String mealId) {
+            super(mealId);
+        }
+
+        @Override
+        public boolean isFavorite() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "Removed(" + getMealId() + ")";
+        }
+    }
+}
@@ -3,29 +3,92 @@ package com.example.foodapp.data.dao.repository;
 import android.app.Application;
 import android.util.Log;
 
-import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.Observer;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+import androidx.paging.PagingSource;
 
 import com.example.foodapp.data.dao.FavoriteDatabase;
 import com.example.foodapp.data.dao.MealDao;
+import com.example.foodapp.data.dao.entity.CategoryCount;
 import com.example.foodapp.data.dao.entity.MealEntity;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
 
 /**
  * A repository for accessing favorite meals in the database.
  * Provides methods for inserting, deleting, and retrieving meals.
+ * The IDs of the favorite meals are also kept in memory, fed by a single query observing the
+ * database, so that lists can tell whether each of their meals is a favorite without any
+ * query per row.
+ * Meals can be added or removed in bulk, in a single transaction, so that the observers of the
+ * favorites are notified once whatever the number of meals.
+ * The writes go through a {@link FavoritesWritePipeline}, which collapses the changes made to a
+ * meal in a short window and commits them in order, so that the IDs kept in memory show the
+ * intended state at once, then the committed one.
+ * Since every write goes through the pipeline, the favorites are read from the database once,
+ * and each change is emitted as the meals it added or removed, to which a screen may subscribe
+ * for a single meal.
  */
 public class FavoritesRepository {
 
+    /**
+     * The orders the favorites can be listed in, all sorted by the database along an index.
+     */
+    public enum SortOrder {
+        // The most recently added first.
+        RECENT,
+        // By name, regardless of case.
+        NAME,
+        // Grouped by category, then by name.
+        CATEGORY
+    }
+
+    // Time during which the changes of a meal are collapsed before being written.
+    private static final long WRITE_WINDOW_MS = 300;
+    // Number of times reading the stored favorites is retried before the writes give up on it.
+    private static final int READ_RETRIES = 3;
+    // Delay before the first retry of the read, doubled after each one.
+    private static final long READ_RETRY_DELAY_MS = 500;
+
     // A Data Access Object for the MealEntity class.
     private final MealDao mealDao;
 
     // A LiveData list of all favorite meals in the database.
     private final LiveData<List<MealEntity>> allMeals;
 
+    // The IDs of the favorite meals, replaced as a whole on every change.
+    private volatile Set<String> favoriteIds = Collections.emptySet();
+
+    // Emits the IDs of the favorite meals every time they change.
+    private final BehaviorSubject<Set<String>> favoriteIdsChanges =
+            BehaviorSubject.createDefault(Collections.emptySet());
+
+    // Emits every meal added to or removed from the favorites.
+    private final Subject<FavoriteChange> favoriteChanges =
+            PublishSubject.<FavoriteChange>create().toSerialized();
+
+    // Writes the changes of the favorites in order, reporting the intended then committed IDs.
+    private final FavoritesWritePipeline writePipeline;
+
     // A Data Access Object for the MealEntity class.
     private static FavoritesRepository instance;
 
@@ -56,36 +119,136 @@ public class FavoritesRepository {
         FavoriteDatabase mdb = FavoriteDatabase.getDatabase(application);
         mealDao = mdb.mealDao();
         allMeals = mealDao.getAllMeals();
+        writePipeline = new FavoritesWritePipeline(mealDao,
+                Schedulers.from(FavoriteDatabase.databaseWriteExecutor), Schedulers.computation(),
+                WRITE_WINDOW_MS, this::setFavoriteIds);
+        // The later changes are known from the writes, without querying the table again.
+        // The read ends by itself once the IDs are read or given up, so it is never disposed
+        AtomicInteger retries = new AtomicInteger();
+        Disposable result = mealDao.getFavoriteIds()
+                .firstOrError()
+                .subscribeOn(Schedulers.io())
+                .retryWhen(errors -> errors.flatMap(error -> {
+                    int retry = retries.getAndIncrement();
+                    if (retry >= READ_RETRIES) {
+                        return Flowable.error(error);
+                    }
+                    long delay = READ_RETRY_DELAY_MS << retry;
+                    Log.d("Repo", "Cannot read favorites (" + error + "), retry " + (retry + 1)
+                            + " in " + delay + " ms");
+                    return Flowable.timer(delay, TimeUnit.MILLISECONDS);
+                }))
+                .subscribe(ids -> writePipeline.setCommittedIds(
+                        Collections.unmodifiableSet(new HashSet<>(ids))),
+                        e -> {
+                            // The changes waiting fail, rather than waiting for the read forever
+                            Log.d("Repo", "Cannot read favorites: " + e);
+                            writePipeline.failLoading(e);
+                        });
     }
 
     /**
-     * Currently only required to update whether a meal is bookmarked or not
-     * when it's being added (on a meal description view)
-     * @param owner the Activity or Fragment in which the meals are being displayed
-     * @param observer the observer that will perform an activity based on the meals
+     * Replaces the IDs of the favorite meals and notifies their observers, then those of
+     * the meals that changed.
+     *
+     * @param ids the new IDs of the favorite meals, not modified afterwards
+     * @param changes the meals added or removed
      */
-    public void observeMealEntity(LifecycleOwner owner, Observer<List<MealEntity>> observer) {
-        allMeals.observe(owner, observer);
+    private synchronized void setFavoriteIds(Set<String> ids, List<FavoriteChange> changes) {
+        favoriteIds = ids;
+        favoriteIdsChanges.onNext(ids);
+        for (FavoriteChange change : changes) {
+            favoriteChanges.onNext(change);
+        }
     }
 
     /**
-     * Inserts a meal into the database in a background thread.
+     * Inserts a meal into the database in a background thread, after the changes made to it
+     * before.
      *
      * @param meal the MealEntity object to insert
+     * @return a Completable completing once the meal is inserted, or failing if it is not
      */
-    public void insert(MealEntity meal) {
-        FavoriteDatabase.databaseWriteExecutor.execute(() -> mealDao.insert(meal));
+    public Completable insert(MealEntity meal) {
         Log.d("Repo", "Inserting " + meal.getStrMeal());
+        return writePipeline.submit(meal.getIdMeal(), meal, true);
+    }
+
+    /**
+     * Inserts meals into the database in a background thread, in a single transaction.
+     *
+     * @param meals the MealEntity objects to insert
+     * @return a Completable completing once the meals are inserted, or failing if they are not
+     */
+    public Completable insertAll(List<MealEntity> meals) {
+        Log.d("Repo", "Inserting " + meals.size() + " meals");
+        return writePipeline.submitAll(new ArrayList<>(meals));
     }
 
     /**
-     * Deletes a meal from the database in a background thread.
+     * Deletes a meal from the database in a background thread, after the changes made to it
+     * before.
      *
      * @param meal the MealEntity object to delete
+     * @return a Completable completing once the meal is deleted, or failing if it is not
      */
-    public void delete(MealEntity meal) {
-        FavoriteDatabase.databaseWriteExecutor.execute(() -> mealDao.delete(meal.getIdMeal()));
+    public Completable delete(MealEntity meal) {
         Log.d("Repo", "Deleting " + meal.getStrMeal());
+        return writePipeline.submit(meal.getIdMeal(), null, false);
+    }
+
+    /**
+     * Deletes meals from the database by their IDs in a background thread, in a single
+     * transaction.
+     *
+     * @param mealIds the IDs of the meals to delete
+     * @return a Completable completing once the meals are deleted, or failing if they are not
+     */
+    public Completable deleteAll(Collection<String> mealIds) {
+        Log.d("Repo", "Deleting " + mealIds.size() + " meals");
+        return writePipeline.removeAll(new ArrayList<>(mealIds));
+    }
+
+    /**
+     * Returns the meals in the database loaded by pages, sorted by the database.
+     * A new page of meals is emitted every time the favorites change, without loading the
+     * meals not displayed.
+     *
+     * @param sortOrder the order of the meals
+     * @param pagingConfig the size of the pages and the distance at which they are loaded
+     * @return a LiveData of the pages of MealEntity objects
+     */
+    public LiveData<PagingData<MealEntity>> getPagedMeals(SortOrder sortOrder,
+                                                          PagingConfig pagingConfig) {
+        Pager<Integer, MealEntity> pager =
+                new Pager<>(pagingConfig, () -> getPagingSource(sortOrder));
+        return PagingLiveData.getLiveData(pager);
+    }
+
+    /**
+     * Creates a source of the pages of meals, replaced by the pager once the favorites change.
+     *
+     * @param sortOrder the order of the meals
+     * @return a source of the pages of meals, sorted by the database
+     */
+    private PagingSource<Integer, MealEntity> getPagingSource(SortOrder sortOrder) {
+        switch (sortOrder) {
+            case NAME:
+                return mealDao.getPagedMealsByName();
+            case CATEGORY:
+                return mealDao.getPagedMealsByCategory();
+            default:
+                return mealDao.getPagedMealsByRecency();
+        }
+    }
+
+    /**
+     * Returns the number of favorite meals of every category, counted by the database.
+     *
+     * @return a LiveData list of the counts, sorted by category
+     */
+    public LiveData<List<CategoryCount>> getCategoryCounts() {
+        return mealDao.getCategoryCounts();
     }
 
     /**
@@ -98,31 +261,46 @@ public class FavoritesRepository {
     }
 
     /**
-     * Returns in a LiveData the MealEntity of corresponding mealId value
-     * @param mealId of a Meal or MealDescription to be used to retrieve the MealEntity in the DB
-     * @return the MealEntity in the DB corresponding to a Meal or MealDescription
+     * Returns the IDs of the favorite meals every time they change, starting with the
+     * current ones. A change is emitted once made, then again if it could not be committed.
+     * Changes may be emitted from any thread.
+     *
+     * @return an Observable of the IDs of the favorite meals
+     */
+    public Observable<Set<String>> observeFavoriteIds() {
+        return favoriteIdsChanges.hide();
+    }
+
+    /**
+     * Returns every meal added to or removed from the favorites, once the change is made, then
+     * again if it could not be committed. The changes already made are not emitted.
+     * Changes may be emitted from any thread.
+     *
+     * @return an Observable of the changes of the favorites
      */
-    public LiveData<MealEntity> getMeal(String mealId) {
-        return mealDao.getMealById(mealId); }
+    public Observable<FavoriteChange> observeFavoriteChanges() {
+        return favoriteChanges.hide();
+    }
 
     /**
-     * Checks in the local database if the meal ID passed as parameter
-     * corresponds to a meal that is in the MealDao
+     * Returns the changes of a single meal, for the screens displaying it, which are not
+     * notified of the changes of the other meals.
+     *
+     * @param mealId the ID of the meal
+     * @return an Observable of the meal being added to or removed from the favorites
+     */
+    public Observable<FavoriteChange> observeFavoriteChanges(String mealId) {
+        return favoriteChanges.filter(change -> change.getMealId().equals(mealId));
+    }
+
+    /**
+     * Checks whether the meal ID passed as parameter corresponds to a favorite meal,
+     * without querying the database.
      * @param mealId the id of a meal displayed on some page
-     * @return true if the meal is in local favorites>, false otherwise
+     * @return true if the meal is in local favorites, false otherwise
      */
     public boolean isFavoriteMeal(String mealId) {
-        boolean result = false;
-        Log.d("Repo",String.valueOf(getAllMeals().getValue()));
-        for (MealEntity m : getAllMeals().getValue()) {
-            if (Objects.equals(m.getIdMeal(), mealId)) {
-                result = true;
-                break;
-            }
-        }
-        Log.d("Repo", String.format("Meal id %s is %sin the repo", mealId, result ? "" : "NOT "));
-        return result;
+        return favoriteIds.contains(mealId);
     }
 
 }
-
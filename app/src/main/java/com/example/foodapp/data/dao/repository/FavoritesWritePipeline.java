@@ -0,0 +1,335 @@
+package com.example.foodapp.data.dao.repository;
+
+import android.util.Log;
+
+import com.example.foodapp.data.dao.MealDao;
+import com.example.foodapp.data.dao.entity.MealEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
+import io.reactivex.subjects.CompletableSubject;
+
+/**
+ * Writes the changes of the favorites to the database, keyed by ID of meal.
+ * The changes of a meal are kept for a short window before being written, so that toggling a
+ * meal several times only writes its final state.
+ * A meal is never written by two transactions at once, so its changes are committed in the
+ * order they were made, while the changes of the other meals are written in parallel.
+ * The favorites reported include the changes not committed yet, and go back to the stored
+ * state of a meal if writing it fails.
+ * Every write of the favorites goes through the pipeline, so the stored favorites are read
+ * once, then kept up to date from the transactions committed. Each change is reported along
+ * the meals it added or removed, found among the meals it touched.
+ */
+class FavoritesWritePipeline {
+
+    /**
+     * Notified every time the IDs of the favorite meals change.
+     */
+    interface Listener {
+
+        /**
+         * Called with the IDs of the favorite meals, including the changes not committed yet,
+         * and the meals added or removed since the previous call.
+         *
+         * @param favoriteIds the IDs of the favorite meals, not modified afterwards
+         * @param changes the meals added or removed, never empty
+         */
+        void onFavoriteIdsChanged(Set<String> favoriteIds, List<FavoriteChange> changes);
+    }
+
+    /**
+     * The state intended for a meal, not committed yet.
+     */
+    private static class Intent {
+
+        // The meal to store, null if it is removed from the favorites.
+        final MealEntity meal;
+        final boolean favorite;
+        // Completes once the intended state, or a later one, is committed.
+        final CompletableSubject committed;
+
+        Intent(MealEntity meal, boolean favorite, CompletableSubject committed) {
+            this.meal = meal;
+            this.favorite = favorite;
+            this.committed = committed;
+        }
+    }
+
+    private final MealDao mealDao;
+    // Runs the transactions, several at once.
+    private final Scheduler writeScheduler;
+    // Ends the window during which the changes are collapsed.
+    private final Scheduler timerScheduler;
+    private final long windowMs;
+    private final Listener listener;
+
+    // The IDs of the favorite meals stored in the database, replaced as a whole on every change.
+    private Set<String> committedIds = Collections.emptySet();
+    // Whether the stored IDs were read, or given up, before which nothing is written.
+    private boolean loaded;
+    // The IDs of the favorite meals last reported to the listener.
+    private Set<String> notifiedIds = Collections.emptySet();
+    // The changes waiting for the end of the window, by ID of meal.
+    private final Map<String, Intent> pending = new LinkedHashMap<>();
+    // The changes being written, by ID of meal.
+    private final Map<String, Intent> writing = new HashMap<>();
+    // Whether the end of the window is scheduled.
+    private boolean flushScheduled;
+
+    /**
+     * Creates a pipeline writing the favorites with a DAO.
+     *
+     * @param mealDao the DAO of the favorites
+     * @param writeScheduler the scheduler running the transactions
+     * @param timerScheduler the scheduler ending the window of the changes
+     * @param windowMs the time during which the changes of a meal are collapsed
+     * @param listener notified every time the IDs of the favorite meals change
+     */
+    FavoritesWritePipeline(MealDao mealDao, Scheduler writeScheduler, Scheduler timerScheduler,
+                           long windowMs, Listener listener) {
+        this.mealDao = mealDao;
+        this.writeScheduler = writeScheduler;
+        this.timerScheduler = timerScheduler;
+        this.windowMs = windowMs;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the IDs of the favorite meals stored in the database, once read, then starts
+     * writing the changes made in the meantime.
+     * The stored IDs are read before any write, so that they include every committed change.
+     *
+     * @param ids the IDs of the stored favorite meals, not modified afterwards
+     */
+    synchronized void setCommittedIds(Set<String> ids) {
+        committedIds = ids;
+        loaded = true;
+        scheduleFlush();
+        notifyListener(null);
+    }
+
+    /**
+     * Gives up reading the stored IDs: the changes made in the meantime fail with the error,
+     * and the later ones are written without knowing the favorites stored before, which are
+     * reported as not favorite.
+     *
+     * @param error the error of the last attempt to read the stored IDs
+     */
+    synchronized void failLoading(Throwable error) {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        Log.d("Repo", "Failing " + pending.size() + " favorites: " + error);
+        List<Intent> failed = new ArrayList<>(pending.values());
+        pending.clear();
+        for (Intent intent : failed) {
+            intent.committed.onError(error);
+        }
+        notifyListener(null);
+    }
+
+    /**
+     * Adds a meal to the favorites, or removes it, once the window ends.
+     *
+     * @param mealId the ID of the meal
+     * @param meal the meal to store, null if it is removed
+     * @param favorite whether the meal is now a favorite
+     * @return a Completable completing once this state, or a later one, is committed
+     */
+    synchronized Completable submit(String mealId, MealEntity meal, boolean favorite) {
+        Completable committed = enqueue(mealId, meal, favorite);
+        scheduleFlush();
+        notifyListener(Collections.singleton(mealId));
+        return committed;
+    }
+
+    /**
+     * Adds meals to the favorites once the window ends, in a single transaction if none of
+     * them is being written.
+     *
+     * @param meals the meals to store
+     * @return a Completable completing once all the meals are committed
+     */
+    synchronized Completable submitAll(List<MealEntity> meals) {
+        // A meal listed twice is only waited for once, the last one being stored
+        Map<String, MealEntity> mealsById = new LinkedHashMap<>();
+        for (MealEntity meal : meals) {
+            mealsById.put(meal.getIdMeal(), meal);
+        }
+        List<Completable> committed = new ArrayList<>(mealsById.size());
+        for (MealEntity meal : mealsById.values()) {
+            committed.add(enqueue(meal.getIdMeal(), meal, true));
+        }
+        scheduleFlush();
+        notifyListener(mealsById.keySet());
+        return Completable.merge(committed);
+    }
+
+    /**
+     * Removes meals from the favorites once the window ends, in a single transaction if none
+     * of them is being written.
+     *
+     * @param mealIds the IDs of the meals to remove
+     * @return a Completable completing once all the meals are removed
+     */
+    synchronized Completable removeAll(List<String> mealIds) {
+        // A meal listed twice is only waited for once
+        Set<String> uniqueIds = new LinkedHashSet<>(mealIds);
+        List<Completable> committed = new ArrayList<>(uniqueIds.size());
+        for (String mealId : uniqueIds) {
+            committed.add(enqueue(mealId, null, false));
+        }
+        scheduleFlush();
+        notifyListener(uniqueIds);
+        return Completable.merge(committed);
+    }
+
+    /**
+     * Replaces the change waiting for a meal, if any, by a new one.
+     *
+     * @param mealId the ID of the meal
+     * @param meal the meal to store, null if it is removed
+     * @param favorite whether the meal is now a favorite
+     * @return a Completable completing once the change is committed
+     */
+    private Completable enqueue(String mealId, MealEntity meal, boolean favorite) {
+        Intent previous = pending.get(mealId);
+        CompletableSubject committed =
+                previous != null ? previous.committed : CompletableSubject.create();
+        pending.put(mealId, new Intent(meal, favorite, committed));
+        return committed.hide();
+    }
+
+    private void scheduleFlush() {
+        if (loaded && !flushScheduled && !pending.isEmpty()) {
+            flushScheduled = true;
+            timerScheduler.scheduleDirect(this::flush, windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the changes waiting in a single transaction, except those of the meals still
+     * being written, which wait for the next window.
+     */
+    private synchronized void flush() {
+        flushScheduled = false;
+        Map<String, Intent> batch = new HashMap<>();
+        List<MealEntity> inserted = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        Iterator<Map.Entry<String, Intent>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Intent> entry = iterator.next();
+            String mealId = entry.getKey();
+            Intent intent = entry.getValue();
+            if (writing.containsKey(mealId)) {
+                continue;
+            }
+            iterator.remove();
+            batch.put(mealId, intent);
+            if (intent.favorite) {
+                inserted.add(intent.meal);
+            } else {
+                deleted.add(mealId);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        writing.putAll(batch);
+        Completable.fromAction(() -> mealDao.update(inserted, deleted))
+                .subscribeOn(writeScheduler)
+                .subscribe(() -> onWritten(batch, null), e -> onWritten(batch, e));
+    }
+
+    /**
+     * Commits the changes written, or forgets them if the transaction failed, then writes the
+     * changes of these meals made in the meantime.
+     *
+     * @param batch the changes written, by ID of meal
+     * @param error the error of the transaction, null if it succeeded
+     */
+    private synchronized void onWritten(Map<String, Intent> batch, Throwable error) {
+        writing.keySet().removeAll(batch.keySet());
+        if (error == null) {
+            Set<String> ids = new HashSet<>(committedIds);
+            for (Map.Entry<String, Intent> entry : batch.entrySet()) {
+                if (entry.getValue().favorite) {
+                    ids.add(entry.getKey());
+                } else {
+                    ids.remove(entry.getKey());
+                }
+            }
+            committedIds = Collections.unmodifiableSet(ids);
+            Log.d("Repo", "Committed " + batch.size() + " favorites");
+        } else {
+            Log.d("Repo", "Cannot commit " + batch.size() + " favorites: " + error);
+        }
+        for (Intent intent : batch.values()) {
+            if (error == null) {
+                intent.committed.onComplete();
+            } else {
+                intent.committed.onError(error);
+            }
+        }
+        scheduleFlush();
+        notifyListener(batch.keySet());
+    }
+
+    /**
+     * Notifies the listener of the IDs of the favorite meals, the stored ones updated with the
+     * changes being written, then with those waiting, if some meals were added or removed.
+     *
+     * @param mealIds the IDs of the meals that may have changed, null to compare them all
+     */
+    private void notifyListener(Collection<String> mealIds) {
+        Set<String> ids = new HashSet<>(committedIds);
+        apply(writing, ids);
+        apply(pending, ids);
+
+        Collection<String> candidates;
+        if (mealIds != null) {
+            candidates = mealIds;
+        } else {
+            candidates = new HashSet<>(notifiedIds);
+            candidates.addAll(ids);
+        }
+        List<FavoriteChange> changes = new ArrayList<>();
+        for (String mealId : candidates) {
+            boolean favorite = ids.contains(mealId);
+            if (favorite != notifiedIds.contains(mealId)) {
+                changes.add(favorite
+                        ? new FavoriteChange.Added(mealId) : new FavoriteChange.Removed(mealId));
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        notifiedIds = Collections.unmodifiableSet(ids);
+        listener.onFavoriteIdsChanged(notifiedIds, changes);
+    }
+
+    private static void apply(Map<String, Intent> intents, Set<String> ids) {
+        for (Map.Entry<String, Intent> entry : intents.entrySet()) {
+            if (entry.getValue().favorite) {
+                ids.add(entry.getKey());
+            } else {
+                ids.remove(entry.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.foodapp.data.index;
+
+import androidx.annotation.NonNull;
+
+import com.example.foodapp.data.api.model.MealDescription;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An in-memory inverted index from ingredients to the meals using them, to find the meals
+ * that can be cooked with a pantry without calling the API.
+ * Each meal gets a dense integer ordinal, and the meals using an ingredient are stored as a
+ * {@link BitSet} of ordinals, so that a query only walks the bits of the pantry's
+ * ingredients. Meals can be added, replaced and removed at any time.
+ */
+public class IngredientIndex {
+
+    /**
+     * A meal using some ingredients of the pantry.
+     */
+    public static class Match {
+
+        private final String mealId;
+        // Number of ingredients of the meal that are in the pantry.
+        private final int matched;
+        // Number of distinct ingredients of the meal.
+        private final int total;
+
+        Match(String mealId, int matched, int total) {
+            this.mealId = mealId;
+            this.matched = matched;
+            this.total = total;
+        }
+
+        public String getMealId() {
+            return mealId;
+        }
+
+        public int getMatched() {
+            return matched;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Returns the share of the ingredients of the meal that are in the pantry.
+         *
+         * @return the coverage, between 0 and 1
+         */
+        public double getCoverage() {
+            return (double) matched / total;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return mealId + " (" + matched + "/" + total + ")";
+        }
+    }
+
+    // The ordinal of every meal ever indexed, by ID of meal.
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    // The ID of every meal, by ordinal.
+    private final List<String> mealIds = new ArrayList<>();
+    // The normalized ingredients of every meal, by ordinal, empty once the meal is removed.
+    private final List<Set<String>> ingredientsOf = new ArrayList<>();
+    // The ordinals of the meals using each normalized ingredient.
+    private final Map<String, BitSet> postings = new HashMap<>();
+
+    /**
+     * Normalizes the name of an ingredient, so that the API and the user may write it with
+     * a different case or spacing.
+     *
+     * @param ingredient the name of the ingredient
+     * @return the normalized name, empty if there is no ingredient
+     */
+    public static String normalize(String ingredient) {
+        return ingredient == null ? ""
+                : ingredient.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexes the ingredients of a meal description, replacing those indexed before for the
+     * same meal.
+     *
+     * @param description the description of the meal
+     */
+    public void add(MealDescription description) {
+        List<String> ingredients = new ArrayList<>(description.getIngredientCount());
+        for (int i = 0; i < description.getIngredientCount(); i++) {
+            ingredients.add(description.getIngredient(i));
+        }
+        add(description.getIdMeal(), ingredients);
+    }
+
+    /**
+     * Indexes the ingredients of a meal, replacing those indexed before for the same meal.
+     *
+     * @param mealId the ID of the meal
+     * @param ingredients the names of the ingredients of the meal
+     */
+    public synchronized void add(String mealId, Collection<String> ingredients) {
+        Set<String> normalized = new HashSet<>();
+        for (String ingredient : ingredients) {
+            String name = normalize(ingredient);
+            if (!name.isEmpty()) {
+                normalized.add(name);
+            }
+        }
+        Integer ordinal = ordinals.get(mealId);
+        if (ordinal == null) {
+            ordinal = mealIds.size();
+            ordinals.put(mealId, ordinal);
+            mealIds.add(mealId);
+            ingredientsOf.add(Collections.emptySet());
+        }
+        clearPostings(ordinal);
+        ingredientsOf.set(ordinal, normalized);
+        for (String name : normalized) {
+            BitSet meals = postings.get(name);
+            if (meals == null) {
+                meals = new BitSet();
+                postings.put(name, meals);
+            }
+            meals.set(ordinal);
+        }
+    }
+
+    /**
+     * Removes a meal from the index. Its ordinal is kept, to be reused if it is added again.
+     *
+     * @param mealId the ID of the meal
+     */
+    public synchronized void remove(String mealId) {
+        Integer ordinal = ordinals.get(mealId);
+        if (ordinal != null) {
+            clearPostings(ordinal);
+            ingredientsOf.set(ordinal, Collections.emptySet());
+        }
+    }
+
+    /**
+     * Removes the ordinal of a meal from the postings of its ingredients.
+     *
+     * @param ordinal the ordinal of the meal
+     */
+    private void clearPostings(int ordinal) {
+        for (String name : ingredientsOf.get(ordinal)) {
+            BitSet meals = postings.get(name);
+            meals.clear(ordinal);
+            if (meals.isEmpty()) {
+                postings.remove(name);
+            }
+        }
+    }
+
+    /**
+     * Tells whether a meal is indexed.
+     *
+     * @param mealId the ID of the meal
+     * @return true if the ingredients of the meal are indexed
+     */
+    public synchronized boolean contains(String mealId) {
+        Integer ordinal = ordinals.get(mealId);
+        return ordinal != null && !ingredientsOf.get(ordinal).isEmpty();
+    }
+
+    /**
+     * Finds the meals using at least one ingredient of a pantry, ranked by the share of
+     * their ingredients that are in the pantry, then by the number of those ingredients.
+     *
+     * @param pantry the names of the ingredients available
+     * @param limit the maximum number of meals to return
+     * @return the best matching meals, the best first
+     */
+    public synchronized List<Match> findMeals(Collection<String> pantry, int limit) {
+        Set<String> names = new HashSet<>();
+        for (String ingredient : pantry) {
+            names.add(normalize(ingredient));
+        }
+        // Counts the ingredients of the pantry used by every meal
+        int[] matched = new int[mealIds.size()];
+        BitSet candidates = new BitSet(mealIds.size());
+        for (String name : names) {
+            BitSet meals = postings.get(name);
+            if (meals == null) {
+                continue;
+            }
+            candidates.or(meals);
+            for (int i = meals.nextSetBit(0); i >= 0; i = meals.nextSetBit(i + 1)) {
+                matched[i]++;
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            matches.add(new Match(mealIds.get(i), matched[i], ingredientsOf.get(i).size()));
+        }
+        matches.sort((a, b) -> {
+            // Compares a.matched / a.total with b.matched / b.total without division
+            int byCoverage = Long.compare((long) b.matched * a.total, (long) a.matched * b.total);
+            return byCoverage != 0 ? byCoverage : Integer.compare(b.matched, a.matched);
+        });
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Returns the number of meals indexed.
+     *
+     * @return the number of meals whose ingredients are indexed
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Set<String> ingredients : ingredientsOf) {
+            if (!ingredients.isEmpty()) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct ingredients indexed.
+     *
+     * @return the number of ingredients used by at least one meal
+     */
+    public synchronized int ingredientCount() {
+        return postings.size();
+    }
+}
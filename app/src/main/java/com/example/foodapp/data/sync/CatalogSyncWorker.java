@@ -0,0 +1,88 @@
+package com.example.foodapp.data.sync;
+
+import android.app.Application;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.RxWorker;
+import androidx.work.WorkManager;
+import androidx.work.WorkerParameters;
+
+import com.example.foodapp.data.api.APIClient;
+import com.example.foodapp.data.api.repository.MealRepository;
+import com.example.foodapp.data.dao.FavoriteDatabase;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Background job running the {@link CatalogSynchronizer} once a day, only while the device
+ * is charging on an unmetered network, so that the copy of the whole catalog costs neither
+ * battery nor mobile data.
+ */
+public class CatalogSyncWorker extends RxWorker {
+
+    // Unique name of the periodic work, so that it is scheduled only once.
+    private static final String WORK_NAME = "catalog_sync";
+
+    // Maximum number of calls to the API running at the same time during a synchronization.
+    private static final int MAX_CONCURRENCY = 4;
+
+    // Number of attempts of a synchronization before giving up until the next period.
+    private static final int MAX_ATTEMPTS = 5;
+
+    public CatalogSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules the daily synchronization of the catalog, unless it is already scheduled.
+     *
+     * @param context any context of the application
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .build();
+        PeriodicWorkRequest request =
+                new PeriodicWorkRequest.Builder(CatalogSyncWorker.class, 1, TimeUnit.DAYS)
+                        .setConstraints(constraints)
+                        .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 10, TimeUnit.MINUTES)
+                        .build();
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Single<Result> createWork() {
+        // The worker may run without any activity, hence before the cache of the API is set up
+        APIClient.init(getApplicationContext());
+        FavoriteDatabase database = FavoriteDatabase.getDatabase(getApplicationContext());
+        MealRepository mealRepository =
+                MealRepository.getInstance((Application) getApplicationContext());
+        // A service of its own, so that the synchronization neither flushes the HTTP cache
+        // of the screens nor opens their circuit breakers
+        CatalogSynchronizer synchronizer = new CatalogSynchronizer(
+                APIClient.createSyncService(), database.catalogDao(),
+                database.mealDescriptionDao(), mealRepository.getIngredientIndex(),
+                MAX_CONCURRENCY, Schedulers.io());
+        return synchronizer.synchronize()
+                .toSingleDefault(Result.success())
+                .onErrorReturn(e -> {
+                    Log.d("CatalogSync", "Synchronization failed: " + e);
+                    // Every piece stored is kept, so the next attempt resumes from there
+                    return getRunAttemptCount() + 1 < MAX_ATTEMPTS
+                            ? Result.retry() : Result.failure();
+                });
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.foodapp.data.sync;
+
+import android.util.Log;
+
+import com.example.foodapp.data.api.APIInterface;
+import com.example.foodapp.data.api.model.MealDescription;
+import com.example.foodapp.data.dao.CatalogDao;
+import com.example.foodapp.data.dao.MealDescriptionDao;
+import com.example.foodapp.data.dao.entity.CatalogCategoryEntity;
+import com.example.foodapp.data.dao.entity.CatalogMealEntity;
+import com.example.foodapp.data.dao.entity.IngredientEntity;
+import com.example.foodapp.data.dao.entity.MealDescriptionEntity;
+import com.example.foodapp.data.index.IngredientIndex;
+
+import java.util.List;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * Copies the whole catalog of the API into the database: the categories, the meals of
+ * every category, then the description of every meal.
+ * Every category and every description is stored as soon as it is received, and is never
+ * requested again during the same synchronization, so that an interrupted synchronization
+ * resumes where it stopped. A meal the API has no description for is marked as requested
+ * all the same, so that it does not keep the synchronization from completing. Once a
+ * synchronization is complete, the next one starts over to pick up the changes of the API:
+ * the categories and meals it no longer lists are then deleted from the catalog.
+ */
+public class CatalogSynchronizer {
+
+    // The service used to call the API.
+    private final APIInterface apiService;
+
+    // A Data Access Object for the categories and meals of the catalog.
+    private final CatalogDao catalogDao;
+
+    // A Data Access Object for the descriptions of the meals.
+    private final MealDescriptionDao mealDescriptionDao;
+
+    // The index of the ingredients of the descriptions stored.
+    private final IngredientIndex ingredientIndex;
+
+    // Maximum number of calls to the API running at the same time.
+    private final int maxConcurrency;
+
+    // Runs the calls to the API and the writes to the database.
+    private final Scheduler scheduler;
+
+    /**
+     * Creates a synchronizer of the catalog.
+     *
+     * @param apiService the service used to call the API
+     * @param catalogDao the DAO of the categories and meals of the catalog
+     * @param mealDescriptionDao the DAO of the descriptions of the meals
+     * @param ingredientIndex the index of the ingredients, updated with every description
+     * @param maxConcurrency the maximum number of calls to the API running at the same time
+     * @param scheduler the scheduler running the calls and the writes, which must allow
+     *                  blocking
+     */
+    public CatalogSynchronizer(APIInterface apiService, CatalogDao catalogDao,
+                               MealDescriptionDao mealDescriptionDao,
+                               IngredientIndex ingredientIndex, int maxConcurrency,
+                               Scheduler scheduler) {
+        this.apiService = apiService;
+        this.catalogDao = catalogDao;
+        this.mealDescriptionDao = mealDescriptionDao;
+        this.ingredientIndex = ingredientIndex;
+        this.maxConcurrency = maxConcurrency;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Synchronizes the catalog, resuming the previous synchronization if it was interrupted.
+     * Failing calls do not stop the others, but the synchronization then ends with an error
+     * and has to be run again to complete.
+     *
+     * @return a Completable of the synchronization
+     */
+    public Completable synchronize() {
+        return Completable.fromAction(this::startNewSyncIfComplete)
+                .andThen(syncCategories())
+                .andThen(syncMealsOfCategories())
+                .andThen(syncDescriptions())
+                .subscribeOn(scheduler)
+                .doOnComplete(() -> Log.d("CatalogSync",
+                        "Catalog synchronized: " + catalogDao.countMeals() + " meals"));
+    }
+
+    /**
+     * Starts a new synchronization if the previous one completed, so that the meals of every
+     * category are fetched again.
+     */
+    private void startNewSyncIfComplete() {
+        if (catalogDao.getCategoriesToSync().isEmpty()
+                && catalogDao.getMealIdsToDescribe().isEmpty()) {
+            catalogDao.resetSync();
+        }
+    }
+
+    /**
+     * Replaces the categories of the catalog by those of the API, keeping the
+     * synchronization state of the categories already stored.
+     *
+     * @return a Completable of the synchronization of the categories
+     */
+    private Completable syncCategories() {
+        return apiService.getCategoriesList()
+                .firstOrError()
+                .flatMapCompletable(categories -> Completable.fromAction(() ->
+                        catalogDao.replaceCategories(CatalogCategoryEntity.listFrom(categories))));
+    }
+
+    /**
+     * Replaces the meals of every category not synchronized yet, a few categories at a time.
+     *
+     * @return a Completable of the synchronization of the meals
+     */
+    private Completable syncMealsOfCategories() {
+        return Flowable.defer(() -> Flowable.fromIterable(catalogDao.getCategoriesToSync()))
+                .flatMapCompletable(category -> apiService.getMealsFromCategory(category)
+                                .firstOrError()
+                                .flatMapCompletable(meals -> Completable.fromAction(() ->
+                                        catalogDao.replaceMealsOfCategory(category,
+                                                CatalogMealEntity.listFrom(meals, category))))
+                                .doOnError(e -> Log.d("CatalogSync",
+                                        "Meals of " + category + " failed: " + e))
+                                .subscribeOn(scheduler),
+                        true, maxConcurrency);
+    }
+
+    /**
+     * Stores the description of every meal of the catalog not described yet, a few meals at
+     * a time. Each meal is then marked as requested, even if the API had no description.
+     *
+     * @return a Completable of the synchronization of the descriptions
+     */
+    private Completable syncDescriptions() {
+        return Flowable.defer(() -> Flowable.fromIterable(catalogDao.getMealIdsToDescribe()))
+                .flatMapCompletable(mealId -> apiService.getMealDescriptionFromId(mealId)
+                                .firstOrError()
+                                .flatMapCompletable(descriptions -> Completable.fromAction(() -> {
+                                    List<MealDescription> list = descriptions.getMealDescription();
+                                    if (list != null && !list.isEmpty()) {
+                                        storeDescription(list.get(0));
+                                    } else {
+                                        Log.d("CatalogSync", "No description of " + mealId);
+                                    }
+                                    catalogDao.markDescriptionSynced(mealId);
+                                }))
+                                .doOnError(e -> Log.d("CatalogSync",
+                                        "Description of " + mealId + " failed: " + e))
+                                .subscribeOn(scheduler),
+                        true, maxConcurrency);
+    }
+
+    private void storeDescription(MealDescription description) {
+        mealDescriptionDao.insert(
+                MealDescriptionEntity.from(description, System.currentTimeMillis()),
+                IngredientEntity.listFrom(description));
+        ingredientIndex.add(description);
+    }
+}
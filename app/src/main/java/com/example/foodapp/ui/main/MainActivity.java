@@ -11,11 +11,15 @@ import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
 
 import com.example.foodapp.R;
+import com.example.foodapp.data.api.APIClient;
 import com.example.foodapp.data.dao.repository.FavoritesRepository;
+import com.example.foodapp.data.sync.CatalogSyncWorker;
 import com.example.foodapp.databinding.ActivityMainBinding;
 import com.example.foodapp.ui.main.fragment.FavoritesFragment;
+import com.example.foodapp.ui.main.fragment.FilterFragment;
 import com.example.foodapp.ui.main.fragment.HomeFragment;
 import com.example.foodapp.ui.main.fragment.MealFromCategoryFragment;
+import com.example.foodapp.ui.main.fragment.SearchFragment;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 import kotlin.NotImplementedError;
@@ -50,6 +54,12 @@ public class MainActivity extends AppCompatActivity {
         // Initialize the FavoritesRepository
         FavoritesRepository.getInstance(getApplication());
 
+        // Initialize the HTTP client and its cache of the API responses
+        APIClient.init(getApplication());
+
+        // Schedule the background copy of the catalog into the database
+        CatalogSyncWorker.schedule(getApplication());
+
         // Inflate the activity layout and set it as the content view
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
@@ -82,6 +92,12 @@ public class MainActivity extends AppCompatActivity {
                 } else if (itemId == R.id.fave) {
                     startNewFragment(fragmentTransaction, args,
                             new FavoritesFragment(), "Favorites", "FAVORITES");
+                } else if (itemId == R.id.search) {
+                    startNewFragment(fragmentTransaction, args,
+                            new SearchFragment(), "Search", "SEARCH");
+                } else if (itemId == R.id.filter) {
+                    startNewFragment(fragmentTransaction, args,
+                            new FilterFragment(), "Filter", "FILTER");
                 }
                 fragmentTransaction.commit();
             }
@@ -130,6 +146,10 @@ public class MainActivity extends AppCompatActivity {
             ((FavoritesFragment) currentFragment).updateFragmentDisplay();
         } else if (currentFragment instanceof MealFromCategoryFragment) {
             ((MealFromCategoryFragment) currentFragment).updateFragmentDisplay();
+        } else if (currentFragment instanceof SearchFragment) {
+            ((SearchFragment) currentFragment).updateFragmentDisplay();
+        } else if (currentFragment instanceof FilterFragment) {
+            ((FilterFragment) currentFragment).updateFragmentDisplay();
         } else {
             String errorMessage = String.format(
                     "Switching display for %s is not currently supported",
@@ -175,7 +195,9 @@ public class MainActivity extends AppCompatActivity {
     public void onBackPressed() {
         Fragment currentFragment = getSupportFragmentManager().findFragmentById(R.id.fragment_container);
         if (!(currentFragment instanceof HomeFragment ||
-                currentFragment instanceof FavoritesFragment)) {
+                currentFragment instanceof FavoritesFragment ||
+                currentFragment instanceof SearchFragment ||
+                currentFragment instanceof FilterFragment)) {
             super.onBackPressed();
         }
     }
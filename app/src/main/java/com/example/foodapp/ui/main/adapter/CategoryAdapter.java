@@ -1,13 +1,13 @@
 package com.example.foodapp.ui.main.adapter;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.RecyclerView.Adapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
@@ -16,6 +16,7 @@ import com.example.foodapp.data.api.model.Category;
 import com.example.foodapp.ui.main.viewholder.CategoryViewHolder;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * CategoryAdapter is an Adapter class that is responsible for displaying a list of meal
@@ -24,9 +25,43 @@ import java.util.List;
  * and can be updated using the setMealCategoryList method.
  * The CategoryAdapter also requires a Context object which it uses to inflate the layout
  * for each item in the list.
+ * A new list of categories is compared with the displayed one on a background thread, so that
+ * refreshing the categories only binds the rows that changed.
  */
-public class CategoryAdapter extends Adapter<CategoryViewHolder> {
+public class CategoryAdapter extends ListAdapter<Category, CategoryViewHolder> {
 
+    // Payload of the rows whose name only has to be updated.
+    private static final Object NAME_PAYLOAD = new Object();
+
+    /**
+     * Compares the categories of two lists by ID, then by the fields displayed in a row.
+     */
+    private static final DiffUtil.ItemCallback<Category> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<Category>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Category oldCategory,
+                                       @NonNull Category newCategory) {
+            return Objects.equals(oldCategory.getIdCategory(), newCategory.getIdCategory());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Category oldCategory,
+                                          @NonNull Category newCategory) {
+            return Objects.equals(oldCategory.getStrCategory(), newCategory.getStrCategory())
+                    && Objects.equals(oldCategory.getStrCategoryThumb(),
+                    newCategory.getStrCategoryThumb());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Category oldCategory,
+                                       @NonNull Category newCategory) {
+            // Keeps the image loaded if only the name changed
+            return Objects.equals(oldCategory.getStrCategoryThumb(),
+                    newCategory.getStrCategoryThumb()) ? NAME_PAYLOAD : null;
+        }
+    };
+
+    // The last list of categories submitted, which may still be compared with the displayed one.
     private List<Category> categories_list;
     private final Context context;
 
@@ -37,20 +72,32 @@ public class CategoryAdapter extends Adapter<CategoryViewHolder> {
      * @param context the context in which the adapter is used
      */
     public CategoryAdapter(List<Category> categories_list, Context context) {
-        this.categories_list = categories_list;
+        super(DIFF_CALLBACK);
         this.context = context;
+        setHasStableIds(true);
+        setMealCategoryList(categories_list);
     }
 
     /**
      * Sets the list of categories to display in the RecyclerView and updates the view to reflect
-     * the changes.
+     * the changes. The list must not be modified afterwards.
      *
      * @param categories_list list of categories to display in the RecyclerView
      */
-    @SuppressLint("NotifyDataSetChanged")
     public void setMealCategoryList(List<Category> categories_list) {
         this.categories_list = categories_list;
-        notifyDataSetChanged();
+        submitList(categories_list);
+    }
+
+    /**
+     * Returns the stable ID of a row, derived from the ID of its category.
+     *
+     * @param position The position of the item within the adapter's data set.
+     * @return the stable ID of the row
+     */
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getIdCategory());
     }
 
     /**
@@ -79,12 +126,30 @@ public class CategoryAdapter extends Adapter<CategoryViewHolder> {
      */
     @Override
     public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        Category category = this.getMealCategoriesList().get(position);
+        Category category = getItem(position);
         holder.getStrCategoryView()
                 .setText(category.getStrCategory());
         updateMealCategoryImage(holder, category);
     }
 
+    /**
+     * Only updates the name of a row when its image did not change.
+     *
+     * @param holder The ViewHolder which should be updated.
+     * @param position The position of the item within the adapter's data set.
+     * @param payloads The changes to apply, empty to bind the whole row.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (payloads.contains(NAME_PAYLOAD)) {
+            holder.getStrCategoryView()
+                    .setText(getItem(position).getStrCategory());
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
     /**
      * Updates the image of a given Category.
      * Use of Glide to display an image as provided in "TD 5. Appels réseaux"
@@ -100,19 +165,6 @@ public class CategoryAdapter extends Adapter<CategoryViewHolder> {
                 .into(holder.getStrThumbnailCategoryView());
     }
 
-    /**
-     * Gets the number of items in the adapter.
-     *
-     * @return The number of items in the adapter.
-     */
-    @Override
-    public int getItemCount() {
-        if (getMealCategoriesList() != null) {
-            return getMealCategoriesList().size();
-        }
-        return 0;
-    }
-
     /**
      * Gets the list of categories being displayed by the adapter.
      *
@@ -0,0 +1,102 @@
+package com.example.foodapp.ui.main.adapter;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.foodapp.R;
+import com.example.foodapp.data.dao.entity.CategoryCount;
+
+/**
+ * Draws a header above the meals of every category of the favorites, with the name of the
+ * category and its number of meals, when the favorites are sorted by category.
+ * The headers are drawn over the space left above the first row of each category, so the
+ * favorites stay a plain list of meals for the adapter. The categories are found from their
+ * number of meals, so the header of a category is drawn even before its meals are loaded.
+ */
+public class CategoryHeaderDecoration extends RecyclerView.ItemDecoration {
+
+    private final FavoritesAdapter adapter;
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final String otherCategory;
+    // The height of a header, in pixels.
+    private final int headerHeight;
+    // The space on the left of the text of a header, in pixels.
+    private final int headerPadding;
+
+    /**
+     * Creates the headers of the categories of a list of favorites.
+     *
+     * @param context the context in which the list is displayed
+     * @param adapter the adapter of the favorites, sorted by category
+     */
+    public CategoryHeaderDecoration(Context context, FavoritesAdapter adapter) {
+        this.adapter = adapter;
+        this.otherCategory = context.getString(R.string.favorites_no_category);
+        float density = context.getResources().getDisplayMetrics().density;
+        headerHeight = Math.round(32 * density);
+        headerPadding = Math.round(8 * density);
+        textPaint.setColor(ContextCompat.getColor(context, R.color.black));
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 16,
+                context.getResources().getDisplayMetrics()));
+    }
+
+    /**
+     * Leaves the space of a header above the first row of meals of every category.
+     */
+    @Override
+    public void getItemOffsets(@NonNull Rect outRect, @NonNull View view,
+                               @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        int position = parent.getChildAdapterPosition(view);
+        if (position != RecyclerView.NO_POSITION && adapter.getCategoryAt(position) != null
+                && adapter.getIndexInCategory(position) < getSpanCount(parent)) {
+            outRect.top = headerHeight;
+        }
+    }
+
+    /**
+     * Draws the header of a category above its first meal.
+     */
+    @Override
+    public void onDraw(@NonNull Canvas canvas, @NonNull RecyclerView parent,
+                       @NonNull RecyclerView.State state) {
+        RecyclerView.LayoutManager layoutManager = parent.getLayoutManager();
+        if (layoutManager == null) {
+            return;
+        }
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            int position = parent.getChildAdapterPosition(child);
+            if (position == RecyclerView.NO_POSITION
+                    || adapter.getIndexInCategory(position) != 0) {
+                continue;
+            }
+            CategoryCount category = adapter.getCategoryAt(position);
+            if (category == null) {
+                continue;
+            }
+            String header = (category.getIdMealCategory() != null
+                    ? category.getIdMealCategory() : otherCategory)
+                    + " (" + category.getCount() + ")";
+            float baseline = layoutManager.getDecoratedTop(child) + child.getTranslationY()
+                    + (headerHeight - textPaint.ascent() - textPaint.descent()) / 2;
+            canvas.drawText(header, parent.getPaddingLeft() + headerPadding, baseline, textPaint);
+        }
+    }
+
+    private static int getSpanCount(RecyclerView parent) {
+        RecyclerView.LayoutManager layoutManager = parent.getLayoutManager();
+        return layoutManager instanceof GridLayoutManager
+                ? ((GridLayoutManager) layoutManager).getSpanCount() : 1;
+    }
+}
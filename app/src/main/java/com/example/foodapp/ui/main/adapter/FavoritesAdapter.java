@@ -1,6 +1,5 @@
 package com.example.foodapp.ui.main.adapter;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -8,47 +7,156 @@ import android.view.ViewGroup;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-import androidx.lifecycle.LifecycleOwner;
-import androidx.recyclerview.widget.RecyclerView.Adapter;
+import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
 import com.example.foodapp.R;
+import com.example.foodapp.data.dao.entity.CategoryCount;
 import com.example.foodapp.data.dao.entity.MealEntity;
 import com.example.foodapp.data.dao.repository.FavoritesRepository;
 import com.example.foodapp.ui.main.viewholder.FavoritesViewHolder;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
 
 /**
  * The FavoritesAdapter class is responsible for providing views that represent the data
  * in the favoritesList to the RecyclerView. It creates view holders and binds them to their data.
+ * The favorites are loaded by pages from the database as the list is scrolled, the rows not
+ * loaded yet being displayed as empty placeholders. A new page of favorites is compared with
+ * the displayed one on a background thread, so that adding or removing a favorite only inserts
+ * or removes its row instead of redrawing the screen.
  */
-public class FavoritesAdapter extends Adapter<FavoritesViewHolder> {
+public class FavoritesAdapter extends PagingDataAdapter<MealEntity, FavoritesViewHolder> {
+
+    // Payload of the rows whose favorite icon only has to be updated.
+    private static final Object FAVORITE_PAYLOAD = new Object();
+    // Payload of the rows whose name only has to be updated.
+    private static final Object NAME_PAYLOAD = new Object();
+    // Payload of the rows whose selection only has to be updated.
+    private static final Object SELECTION_PAYLOAD = new Object();
+
+    /**
+     * Compares the favorite meals of two lists by ID, then by the fields displayed in a row.
+     */
+    private static final DiffUtil.ItemCallback<MealEntity> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<MealEntity>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull MealEntity oldMeal, @NonNull MealEntity newMeal) {
+            return Objects.equals(oldMeal.getIdMeal(), newMeal.getIdMeal());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull MealEntity oldMeal,
+                                          @NonNull MealEntity newMeal) {
+            return Objects.equals(oldMeal.getStrMeal(), newMeal.getStrMeal())
+                    && Objects.equals(oldMeal.getStrMealThumb(), newMeal.getStrMealThumb());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull MealEntity oldMeal, @NonNull MealEntity newMeal) {
+            // Keeps the image loaded if only the name changed
+            return Objects.equals(oldMeal.getStrMealThumb(), newMeal.getStrMealThumb())
+                    ? NAME_PAYLOAD : null;
+        }
+    };
 
-    private List<MealEntity> favoritesList;
     private final Context context;
+    private final FavoritesRepository favoritesRepository = FavoritesRepository.getInstance(null);
+    // Updates the favorite icons while the adapter is attached to a RecyclerView.
+    private Disposable favoritesSubscription;
+    // The meals selected to be removed from the favorites at once.
+    private final MealSelection selection = new MealSelection();
+    // The number of meals of every category, in the order of the favorites sorted by category.
+    private List<CategoryCount> categoryCounts = Collections.emptyList();
+    // The position of the first meal of every category, when sorted by category.
+    private int[] categoryStarts = new int[0];
 
     /**
      * Constructor for the FavoritesAdapter.
+     * The rows have no stable IDs, which paged adapters do not support: the rows are matched
+     * by the ID of their meal when a new page is compared with the displayed one.
      *
-     * @param favoritesList the list of favorite meals to be displayed
      * @param context the context in which the adapter is being used
      */
-    public FavoritesAdapter(List<MealEntity> favoritesList, Context context) {
-        this.favoritesList = favoritesList;
+    public FavoritesAdapter(Context context) {
+        super(DIFF_CALLBACK);
         this.context = context;
     }
 
     /**
-     * Sets the list of favorite meals to be displayed in the RecyclerView.
+     * Sets the number of meals of every category, counted by the database, from which the
+     * categories of the rows are found without loading their meals.
+     * The counts must be sorted as the favorites sorted by category.
+     *
+     * @param categoryCounts the number of meals of every category
+     */
+    public void setCategoryCounts(List<CategoryCount> categoryCounts) {
+        int[] starts = new int[categoryCounts.size()];
+        int start = 0;
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = start;
+            start += categoryCounts.get(i).getCount();
+        }
+        this.categoryCounts = categoryCounts;
+        this.categoryStarts = starts;
+    }
+
+    /**
+     * Returns the category of a meal and its number of meals, when sorted by category.
      *
-     * @param favoritesList the new list of favorite meals
+     * @param position The position of the meal in the list.
+     * @return the category of the meal, or null if the categories are not counted yet
      */
-    @SuppressLint("NotifyDataSetChanged")
-    public void setMealList(List<MealEntity> favoritesList) {
-        this.favoritesList = favoritesList;
-        notifyDataSetChanged();
+    public CategoryCount getCategoryAt(int position) {
+        int category = findCategory(position);
+        return category >= 0 ? categoryCounts.get(category) : null;
+    }
+
+    /**
+     * Returns the position of a meal among the meals of its category.
+     *
+     * @param position The position of the meal in the list.
+     * @return 0 for the first meal of a category
+     */
+    public int getIndexInCategory(int position) {
+        int category = findCategory(position);
+        return category >= 0 ? position - categoryStarts[category] : 0;
+    }
+
+    /**
+     * Tells whether a meal is the last one of its category.
+     *
+     * @param position The position of the meal in the list.
+     * @return true if the next meal belongs to another category, or if there is none
+     */
+    public boolean isLastOfCategory(int position) {
+        return Arrays.binarySearch(categoryStarts, position + 1) >= 0
+                || position + 1 >= getItemCount();
+    }
+
+    /**
+     * Finds the category of a meal among the counted ones.
+     *
+     * @param position The position of the meal in the list.
+     * @return the index of the category, -1 if the categories are not counted yet
+     */
+    private int findCategory(int position) {
+        int index = Arrays.binarySearch(categoryStarts, position);
+        // Between two starts, the meal belongs to the category starting before it
+        return index >= 0 ? index : -index - 2;
     }
 
     /**
@@ -76,40 +184,192 @@ public class FavoritesAdapter extends Adapter<FavoritesViewHolder> {
      */
     @Override
     public void onBindViewHolder(@NonNull FavoritesViewHolder holder, int position) {
-        // Get the current Meal object
-        MealEntity currentMeal = this.getFavoritesList().get(position);
+        // Get the current Meal object, loading its page if needed
+        MealEntity currentMeal = getItem(position);
+        if (currentMeal == null) {
+            bindPlaceholder(holder);
+            return;
+        }
+        holder.getHeartIcon().setVisibility(View.VISIBLE);
         // Set the text and image for the current item
         holder.getStrMealView()
                 .setText(currentMeal.getStrMeal());
         updateMealImage(holder, currentMeal);
         holder.setMealId(currentMeal.getIdMeal());
 
-        FavoritesRepository favoritesRepository = FavoritesRepository.getInstance(null);
-        // Creates an observer for each ViewHolder (each Meal), to verify if a Meal's mealId is
-        // in the FavoriteDB or not, and allow adding/deleting it from it through a button
-        favoritesRepository.getMeal(currentMeal.getIdMeal()).observe((LifecycleOwner) context, mealEntity -> {
-            // Initializes the color of the fav icon for that meal
-            if (mealEntity != null) {  // Which means if the meal's id is present in the MealDao
-                holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon);
+        bindSelection(holder, currentMeal.getIdMeal());
+        holder.itemView.setOnClickListener(v -> {
+            if (selection.isActive()) {
+                toggleSelection(holder, currentMeal.getIdMeal());
             } else {
-                holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon_selector);
+                holder.openMealDescription();
             }
+        });
+        holder.itemView.setOnLongClickListener(v -> {
+            toggleSelection(holder, currentMeal.getIdMeal());
+            return true;
+        });
 
-            // Initializes the fav button for that meal to toggle adding/deleting it of the DB
-            holder.getHeartIcon().setOnClickListener(v -> {
-                if (mealEntity != null) {
-                    // MealEntity is in the database, so delete it
-                    favoritesRepository.delete(mealEntity);
-                    holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon_selector);
-                    Toast.makeText(context, String.format(
-                            "Removed %s from favorites.", mealEntity.getStrMeal()
-                    ), Toast.LENGTH_SHORT).show();
-                }
-                // No 'else': if the meal gets deleted, it will be removed from the list
-            });
+        bindFavorite(holder, currentMeal);
+        holder.getHeartIcon().setOnClickListener(v -> {
+            if (favoritesRepository.isFavoriteMeal(currentMeal.getIdMeal())) {
+                // MealEntity is in the database, so delete it
+                favoritesRepository.delete(currentMeal);
+                Toast.makeText(context, String.format(
+                        "Removed %s from favorites.", currentMeal.getStrMeal()
+                ), Toast.LENGTH_SHORT).show();
+            }
+            // No 'else': if the meal gets deleted, it will be removed from the list
         });
     }
 
+    /**
+     * Only updates the parts of a row that changed, as told by the payloads.
+     *
+     * @param holder The view holder to update.
+     * @param position The position of the meal in the list.
+     * @param payloads The changes to apply, empty to bind the whole row.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull FavoritesViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        MealEntity meal = peek(position);
+        if (payloads.isEmpty() || payloads.contains(NAME_PAYLOAD) || meal == null) {
+            // The click listener of the heart icon refers to the previous version of the meal
+            onBindViewHolder(holder, position);
+            return;
+        }
+        if (payloads.contains(FAVORITE_PAYLOAD)) {
+            bindFavorite(holder, meal);
+        }
+        if (payloads.contains(SELECTION_PAYLOAD)) {
+            bindSelection(holder, meal.getIdMeal());
+        }
+    }
+
+    /**
+     * Empties a row whose meal is not loaded yet, until its page is loaded.
+     *
+     * @param holder The view holder of the row.
+     */
+    private void bindPlaceholder(@NonNull FavoritesViewHolder holder) {
+        holder.getStrMealView().setText(null);
+        Glide.with(this.getContext()).clear(holder.getStrMealThumbView());
+        holder.setMealId(null);
+        holder.getHeartIcon().setVisibility(View.INVISIBLE);
+        holder.getHeartIcon().setOnClickListener(null);
+        holder.itemView.setOnClickListener(null);
+        holder.itemView.setOnLongClickListener(null);
+        ((CardView) holder.itemView).setCardBackgroundColor(
+                ContextCompat.getColor(context, R.color.light_beige));
+    }
+
+    /**
+     * Highlights a row if its meal is selected.
+     *
+     * @param holder The view holder of the meal.
+     * @param mealId The ID of the meal displayed.
+     */
+    private void bindSelection(@NonNull FavoritesViewHolder holder, String mealId) {
+        ((CardView) holder.itemView).setCardBackgroundColor(ContextCompat.getColor(context,
+                selection.isSelected(mealId) ? R.color.beige : R.color.light_beige));
+    }
+
+    /**
+     * Selects the meal of a row if it is not selected, or unselects it otherwise.
+     *
+     * @param holder The view holder of the meal.
+     * @param mealId The ID of the meal displayed.
+     */
+    private void toggleSelection(@NonNull FavoritesViewHolder holder, String mealId) {
+        selection.toggle(mealId);
+        bindSelection(holder, mealId);
+    }
+
+    /**
+     * Unselects every meal, only updating the loaded rows that were selected.
+     */
+    public void clearSelection() {
+        for (int i = 0; i < getItemCount(); i++) {
+            MealEntity meal = peek(i);
+            if (meal != null && selection.isSelected(meal.getIdMeal())) {
+                notifyItemChanged(i, SELECTION_PAYLOAD);
+            }
+        }
+        selection.clear();
+    }
+
+    /**
+     * Gets the selection of meals of the adapter, to be notified when it changes.
+     *
+     * @return the meals selected in the list
+     */
+    public MealSelection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Colors the favorite icon of a row depending on whether its meal is still a favorite,
+     * from the favorite IDs kept in memory.
+     *
+     * @param holder The view holder of the meal.
+     * @param meal The meal displayed.
+     */
+    private void bindFavorite(@NonNull FavoritesViewHolder holder, MealEntity meal) {
+        if (favoritesRepository.isFavoriteMeal(meal.getIdMeal())) {
+            holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon);
+        } else {
+            holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon_selector);
+        }
+    }
+
+    /**
+     * Starts updating the favorite icons of the rows whose meal was added to or removed from
+     * the favorites, while the adapter is attached to a RecyclerView.
+     *
+     * @param recyclerView The RecyclerView the adapter is attached to.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        favoritesSubscription = favoritesRepository.observeFavoriteIds()
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Consumer<Set<String>>() {
+                    // The favorites the rows were bound with, the current ones at first
+                    private Set<String> boundIds;
+
+                    @Override
+                    public void accept(Set<String> ids) {
+                        if (boundIds == null) {
+                            boundIds = ids;
+                            return;
+                        }
+                        // Only the loaded rows are updated, the others being bound once loaded
+                        for (int i = 0; i < getItemCount(); i++) {
+                            MealEntity meal = peek(i);
+                            if (meal != null && boundIds.contains(meal.getIdMeal())
+                                    != ids.contains(meal.getIdMeal())) {
+                                notifyItemChanged(i, FAVORITE_PAYLOAD);
+                            }
+                        }
+                        boundIds = ids;
+                    }
+                });
+    }
+
+    /**
+     * Stops updating the favorite icons once the adapter is detached from its RecyclerView.
+     *
+     * @param recyclerView The RecyclerView the adapter was attached to.
+     */
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (favoritesSubscription != null) {
+            favoritesSubscription.dispose();
+        }
+    }
+
     /**
      * Updates the image for a given favorite meal.
      * Use of Glide to display an image as provided in "TD 5. Appels réseaux"
@@ -126,25 +386,12 @@ public class FavoritesAdapter extends Adapter<FavoritesViewHolder> {
     }
 
     /**
-     * Gets the number of items in the adapter.
-     *
-     * @return The number of items in the adapter.
-     */
-    @Override
-    public int getItemCount() {
-        if (getFavoritesList() != null) {
-            return getFavoritesList().size();
-        }
-        return 0;
-    }
-
-    /**
-     * Gets the list of meals entities being displayed by the adapter.
+     * Gets the list of meals entities loaded by the adapter.
      *
-     * @return The list of meals entities being displayed by the adapter.
+     * @return The list of meals entities loaded by the adapter, without the placeholders.
      */
     public List<MealEntity> getFavoritesList() {
-        return favoritesList;
+        return snapshot().getItems();
     }
 
     /**
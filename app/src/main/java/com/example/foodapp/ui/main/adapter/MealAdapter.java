@@ -1,6 +1,5 @@
 package com.example.foodapp.ui.main.adapter;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -8,8 +7,11 @@ import android.view.ViewGroup;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-import androidx.lifecycle.LifecycleOwner;
-import androidx.recyclerview.widget.RecyclerView.Adapter;
+import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
@@ -19,18 +21,65 @@ import com.example.foodapp.data.dao.entity.MealEntity;
 import com.example.foodapp.data.dao.repository.FavoritesRepository;
 import com.example.foodapp.ui.main.viewholder.MealViewHolder;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import io.reactivex.Completable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
 
 /**
  * This class is the RecyclerView Adapter for the meals list displayed in the HomeFragment
  * and MealFromCategoryFragment. It uses the ViewHolder design pattern to optimize the performance
  * of the RecyclerView by only inflating and binding views when necessary.
+ * New lists are compared with the displayed one on a background thread, so that only the
+ * rows that changed are bound again, and their image only reloaded if it changed.
  */
-public class MealAdapter extends Adapter<MealViewHolder> {
+public class MealAdapter extends ListAdapter<Meal, MealViewHolder> {
+
+    // Payload of the rows whose favorite icon only has to be updated.
+    private static final Object FAVORITE_PAYLOAD = new Object();
+    // Payload of the rows whose name only has to be updated.
+    private static final Object NAME_PAYLOAD = new Object();
+    // Payload of the rows whose selection only has to be updated.
+    private static final Object SELECTION_PAYLOAD = new Object();
 
+    /**
+     * Compares the meals of two lists by ID, then by the fields displayed in a row.
+     */
+    private static final DiffUtil.ItemCallback<Meal> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<Meal>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Meal oldMeal, @NonNull Meal newMeal) {
+            return Objects.equals(oldMeal.getIdMeal(), newMeal.getIdMeal());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Meal oldMeal, @NonNull Meal newMeal) {
+            return Objects.equals(oldMeal.getStrMeal(), newMeal.getStrMeal())
+                    && Objects.equals(oldMeal.getStrMealThumb(), newMeal.getStrMealThumb());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Meal oldMeal, @NonNull Meal newMeal) {
+            // Keeps the image loaded if only the name changed
+            return Objects.equals(oldMeal.getStrMealThumb(), newMeal.getStrMealThumb())
+                    ? NAME_PAYLOAD : null;
+        }
+    };
+
+    // The last list of meals submitted, which may still be compared with the displayed one.
     private List<Meal> mealsList;
     private final Context context;
     private final String categoryId;
+    private final FavoritesRepository favoritesRepository = FavoritesRepository.getInstance(null);
+    // Updates the favorite icons while the adapter is attached to a RecyclerView.
+    private Disposable favoritesSubscription;
+    // The meals selected to be added to or removed from the favorites at once.
+    private final MealSelection selection = new MealSelection();
 
     /**
      * Constructor for the MealAdapter class.
@@ -40,20 +89,48 @@ public class MealAdapter extends Adapter<MealViewHolder> {
      * @param context context of the application
      */
     public MealAdapter(List<Meal> mealsList, String categoryId, Context context) {
-        this.mealsList = mealsList;
+        super(DIFF_CALLBACK);
         this.context = context;
         this.categoryId = categoryId;
+        setHasStableIds(true);
+        setMealList(mealsList);
     }
 
     /**
      * Method to update the list of meals displayed in the RecyclerView.
+     * The list must not be modified afterwards.
      *
      * @param mealsList new list of meals to be displayed
      */
-    @SuppressLint("NotifyDataSetChanged")
     public void setMealList(List<Meal> mealsList) {
         this.mealsList = mealsList;
-        notifyDataSetChanged();
+        submitList(mealsList);
+    }
+
+    /**
+     * Method to add meals at the end of the list displayed in the RecyclerView,
+     * only binding the new rows.
+     *
+     * @param meals meals to be displayed after the current ones
+     */
+    public void appendMeals(List<Meal> meals) {
+        List<Meal> appended = new ArrayList<>((mealsList == null ? 0 : mealsList.size()) + meals.size());
+        if (mealsList != null) {
+            appended.addAll(mealsList);
+        }
+        appended.addAll(meals);
+        setMealList(appended);
+    }
+
+    /**
+     * Returns the stable ID of a row, derived from the ID of its meal.
+     *
+     * @param position The position of the item within the adapter's data set.
+     * @return the stable ID of the row
+     */
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getIdMeal());
     }
 
     /**
@@ -82,7 +159,7 @@ public class MealAdapter extends Adapter<MealViewHolder> {
      */
     @Override
     public void onBindViewHolder(@NonNull MealViewHolder holder, int position) {
-        Meal meal = this.getMealsList().get(position);
+        Meal meal = getItem(position);
 
         holder.getStrMealView()
                 .setText(meal.getStrMeal());
@@ -90,38 +167,207 @@ public class MealAdapter extends Adapter<MealViewHolder> {
         holder.setMealId(meal.getIdMeal());
         holder.setCategoryId(this.categoryId);
 
-        FavoritesRepository favoritesRepository = FavoritesRepository.getInstance(null);
-        // Creates an observer for each ViewHolder (each Meal), to verify if a Meal's mealId is
-        // in the FavoriteDB or not, and allow adding/deleting it from it through a button
-        favoritesRepository.getMeal(meal.getIdMeal()).observe((LifecycleOwner) context, mealEntity -> {
-            // Initializes the color of the fav icon for that meal
-            if (mealEntity != null) {  // Which means if the meal's id is present in the MealDao
-                holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon);
+        bindSelection(holder, meal.getIdMeal());
+        holder.itemView.setOnClickListener(v -> {
+            if (selection.isActive()) {
+                toggleSelection(holder, meal.getIdMeal());
             } else {
-                holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon_selector);
+                holder.openMealDescription();
             }
-
-            // Initializes the fav button for that meal to toggle adding/deleting it of the DB
-            holder.getHeartIcon().setOnClickListener(v -> {
-                if (mealEntity != null) {
-                    // MealEntity is in the database, so delete it
-                    favoritesRepository.delete(mealEntity);
-                    holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon_selector);
-                    Toast.makeText(context, String.format(
-                            "Removed %s from favorites.", mealEntity.getStrMeal()
-                    ), Toast.LENGTH_SHORT).show();
-                } else {
-                    // MealEntity is not in the database, so insert it
-                    favoritesRepository.insert(new MealEntity(
-                            meal.getIdMeal(), meal.getStrMeal(), meal.getStrMealThumb(), categoryId));
-                    holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon);
-                    Toast.makeText(context, String.format(
-                            "Added %s to favorites!", meal.getStrMeal()
-                    ), Toast.LENGTH_SHORT).show();
-                }
+        });
+        // Only the lists acting on the selection let meals be selected
+        if (selection.isEnabled()) {
+            holder.itemView.setOnLongClickListener(v -> {
+                toggleSelection(holder, meal.getIdMeal());
+                return true;
             });
+        } else {
+            holder.itemView.setOnLongClickListener(null);
+            holder.itemView.setLongClickable(false);
+        }
+
+        bindFavorite(holder, meal);
+        holder.getHeartIcon().setOnClickListener(v -> {
+            Completable write;
+            if (favoritesRepository.isFavoriteMeal(meal.getIdMeal())) {
+                // MealEntity is in the database, so delete it
+                write = favoritesRepository.delete(toMealEntity(meal));
+                Toast.makeText(context, String.format(
+                        "Removed %s from favorites.", meal.getStrMeal()
+                ), Toast.LENGTH_SHORT).show();
+            } else {
+                // MealEntity is not in the database, so insert it
+                write = favoritesRepository.insert(toMealEntity(meal));
+                Toast.makeText(context, String.format(
+                        "Added %s to favorites!", meal.getStrMeal()
+                ), Toast.LENGTH_SHORT).show();
+            }
+            bindFavorite(holder, meal);
+            // The icon goes back to the committed state along with the favorite IDs on failure
+            Disposable result = write.observeOn(AndroidSchedulers.mainThread())
+                    .subscribe(() -> { }, e -> Toast.makeText(context, String.format(
+                            "Could not update %s in favorites.", meal.getStrMeal()
+                    ), Toast.LENGTH_SHORT).show());
         });
+    }
+
+    /**
+     * Only updates the parts of a row that changed, as told by the payloads.
+     *
+     * @param holder The ViewHolder to update.
+     * @param position The position of the item within the adapter's data set.
+     * @param payloads The changes to apply, empty to bind the whole row.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull MealViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        Meal meal = getItem(position);
+        if (payloads.contains(NAME_PAYLOAD)) {
+            // The click listener of the heart icon refers to the previous version of the meal
+            onBindViewHolder(holder, position);
+            return;
+        }
+        if (payloads.contains(FAVORITE_PAYLOAD)) {
+            bindFavorite(holder, meal);
+        }
+        if (payloads.contains(SELECTION_PAYLOAD)) {
+            bindSelection(holder, meal.getIdMeal());
+        }
+    }
+
+    /**
+     * Highlights a row if its meal is selected.
+     *
+     * @param holder The ViewHolder of the meal.
+     * @param mealId The ID of the meal displayed.
+     */
+    private void bindSelection(@NonNull MealViewHolder holder, String mealId) {
+        ((CardView) holder.itemView).setCardBackgroundColor(ContextCompat.getColor(context,
+                selection.isSelected(mealId) ? R.color.beige : R.color.light_beige));
+    }
+
+    /**
+     * Selects the meal of a row if it is not selected, or unselects it otherwise.
+     *
+     * @param holder The ViewHolder of the meal.
+     * @param mealId The ID of the meal displayed.
+     */
+    private void toggleSelection(@NonNull MealViewHolder holder, String mealId) {
+        selection.toggle(mealId);
+        bindSelection(holder, mealId);
+    }
+
+    /**
+     * Unselects every meal, only updating the rows that were selected.
+     */
+    public void clearSelection() {
+        List<Meal> meals = getCurrentList();
+        for (int i = 0; i < meals.size(); i++) {
+            if (selection.isSelected(meals.get(i).getIdMeal())) {
+                notifyItemChanged(i, SELECTION_PAYLOAD);
+            }
+        }
+        selection.clear();
+    }
+
+    /**
+     * Returns the selected meals, as they would be stored in the favorites.
+     *
+     * @return the MealEntity of every selected meal displayed
+     */
+    public List<MealEntity> getSelectedMeals() {
+        List<MealEntity> selected = new ArrayList<>();
+        for (Meal meal : getCurrentList()) {
+            if (selection.isSelected(meal.getIdMeal())) {
+                selected.add(toMealEntity(meal));
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Gets the selection of meals of the adapter, to be notified when it changes.
+     *
+     * @return the meals selected in the list
+     */
+    public MealSelection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Colors the favorite icon of a row depending on whether its meal is a favorite,
+     * from the favorite IDs kept in memory.
+     *
+     * @param holder The ViewHolder of the meal.
+     * @param meal The meal displayed.
+     */
+    private void bindFavorite(@NonNull MealViewHolder holder, Meal meal) {
+        if (favoritesRepository.isFavoriteMeal(meal.getIdMeal())) {
+            holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon);
+        } else {
+            holder.getHeartIcon().setBackgroundResource(R.drawable.heart_icon_selector);
+        }
+    }
 
+    /**
+     * Creates the entity storing a meal of the list in the favorites.
+     *
+     * @param meal The meal displayed.
+     * @return the MealEntity of the meal, in the category of the list
+     */
+    private MealEntity toMealEntity(Meal meal) {
+        return new MealEntity(meal.getIdMeal(), meal.getStrMeal(), meal.getStrMealThumb(),
+                categoryId);
+    }
+
+    /**
+     * Starts updating the favorite icons of the rows whose meal was added to or removed from
+     * the favorites, while the adapter is attached to a RecyclerView.
+     *
+     * @param recyclerView The RecyclerView the adapter is attached to.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        favoritesSubscription = favoritesRepository.observeFavoriteIds()
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Consumer<Set<String>>() {
+                    // The favorites the rows were bound with, the current ones at first
+                    private Set<String> boundIds;
+
+                    @Override
+                    public void accept(Set<String> ids) {
+                        if (boundIds == null) {
+                            boundIds = ids;
+                            return;
+                        }
+                        List<Meal> meals = getCurrentList();
+                        for (int i = 0; i < meals.size(); i++) {
+                            String id = meals.get(i).getIdMeal();
+                            if (boundIds.contains(id) != ids.contains(id)) {
+                                notifyItemChanged(i, FAVORITE_PAYLOAD);
+                            }
+                        }
+                        boundIds = ids;
+                    }
+                });
+    }
+
+    /**
+     * Stops updating the favorite icons once the adapter is detached from its RecyclerView.
+     *
+     * @param recyclerView The RecyclerView the adapter was attached to.
+     */
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        if (favoritesSubscription != null) {
+            favoritesSubscription.dispose();
+        }
     }
 
     /**
@@ -139,19 +385,6 @@ public class MealAdapter extends Adapter<MealViewHolder> {
                 .into(holder.getStrThumbnailMealView());
     }
 
-    /**
-     * Gets the number of items in the adapter.
-     *
-     * @return The number of items in the adapter.
-     */
-    @Override
-    public int getItemCount() {
-        if (getMealsList() != null) {
-            return getMealsList().size();
-        }
-        return 0;
-    }
-
     /**
      * Gets the list of meals being displayed by the adapter.
      *
@@ -169,4 +402,4 @@ public class MealAdapter extends Adapter<MealViewHolder> {
     public Context getContext() {
         return context;
     }
-}
\ No newline at end of file
+}
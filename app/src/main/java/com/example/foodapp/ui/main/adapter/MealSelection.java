@@ -0,0 +1,108 @@
+package com.example.foodapp.ui.main.adapter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The meals selected in a list to be added to or removed from the favorites all at once.
+ * Meals can only be selected while a listener acts on the selection: a long click on a meal
+ * then starts the selection, and every click selects or unselects a meal, until no meal is
+ * selected anymore.
+ */
+public class MealSelection {
+
+    /**
+     * Notified every time a meal is selected or unselected.
+     */
+    public interface Listener {
+
+        /**
+         * Called when the number of selected meals changed.
+         *
+         * @param count the number of selected meals, 0 once the selection is over
+         */
+        void onSelectionChanged(int count);
+    }
+
+    // The IDs of the selected meals, in the order they were selected.
+    private final Set<String> selectedIds = new LinkedHashSet<>();
+    private Listener listener;
+
+    /**
+     * Sets the listener notified of the changes of the selection.
+     *
+     * @param listener the listener, or null to stop notifying
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Tells whether meals can be selected, which is only the case while a listener acts on
+     * the selection, so that a list without any action on its selection never enters it.
+     *
+     * @return true if a listener is set
+     */
+    public boolean isEnabled() {
+        return listener != null;
+    }
+
+    /**
+     * Tells whether meals are being selected, in which case a click selects a meal instead of
+     * opening it.
+     *
+     * @return true if at least one meal is selected
+     */
+    public boolean isActive() {
+        return !selectedIds.isEmpty();
+    }
+
+    /**
+     * Tells whether a meal is selected.
+     *
+     * @param mealId the ID of the meal
+     * @return true if the meal is selected
+     */
+    public boolean isSelected(String mealId) {
+        return selectedIds.contains(mealId);
+    }
+
+    /**
+     * Selects a meal if it is not selected, or unselects it otherwise.
+     *
+     * @param mealId the ID of the meal
+     */
+    void toggle(String mealId) {
+        if (!selectedIds.remove(mealId)) {
+            selectedIds.add(mealId);
+        }
+        notifyListener();
+    }
+
+    /**
+     * Unselects every meal.
+     */
+    void clear() {
+        if (!selectedIds.isEmpty()) {
+            selectedIds.clear();
+            notifyListener();
+        }
+    }
+
+    /**
+     * Returns the IDs of the selected meals.
+     *
+     * @return a copy of the IDs of the selected meals, in the order they were selected
+     */
+    public List<String> getSelectedIds() {
+        return new ArrayList<>(selectedIds);
+    }
+
+    private void notifyListener() {
+        if (listener != null) {
+            listener.onSelectionChanged(selectedIds.size());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.foodapp.ui.main.adapter;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Derives the stable IDs of the rows of the adapters from the IDs of the API, so that the
+ * RecyclerView keeps the same ViewHolder for an item when the list changes.
+ */
+final class StableIds {
+
+    private StableIds() {
+    }
+
+    /**
+     * Returns the stable ID of an item of the API.
+     * The IDs of TheMealDB are numeric, so they are used as they are; any other ID falls back
+     * on its hash.
+     *
+     * @param id the ID of a meal or category, like "52772"
+     * @return the stable ID of its row
+     */
+    static long of(String id) {
+        if (id == null) {
+            return RecyclerView.NO_ID;
+        }
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return id.hashCode();
+        }
+    }
+}
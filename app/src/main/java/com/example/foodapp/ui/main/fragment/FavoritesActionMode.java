@@ -0,0 +1,105 @@
+package com.example.foodapp.ui.main.fragment;
+
+import android.view.Menu;
+import android.view.MenuItem;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.view.ActionMode;
+
+import com.example.foodapp.R;
+import com.example.foodapp.ui.main.adapter.MealSelection;
+
+/**
+ * The contextual action bar displayed while meals are selected in a list, to add them to or
+ * remove them from the favorites all at once.
+ * It starts with the selection of a first meal, and ends once the action is done, the selection
+ * is cleared, or the user closes it, which clears the selection.
+ */
+class FavoritesActionMode implements ActionMode.Callback, MealSelection.Listener {
+
+    private final AppCompatActivity activity;
+    // Adds the selected meals to the favorites, null if they are favorites already.
+    private final Runnable addToFavorites;
+    // Removes the selected meals from the favorites.
+    private final Runnable removeFromFavorites;
+    // Unselects every meal.
+    private final Runnable clearSelection;
+    // The action bar displayed, null when no meal is selected.
+    private ActionMode actionMode;
+
+    /**
+     * Creates the action bar of a list of meals.
+     *
+     * @param activity the activity displaying the list
+     * @param addToFavorites adds the selected meals to the favorites, null to hide this action
+     * @param removeFromFavorites removes the selected meals from the favorites
+     * @param clearSelection unselects every meal
+     */
+    FavoritesActionMode(AppCompatActivity activity, Runnable addToFavorites,
+                        Runnable removeFromFavorites, Runnable clearSelection) {
+        this.activity = activity;
+        this.addToFavorites = addToFavorites;
+        this.removeFromFavorites = removeFromFavorites;
+        this.clearSelection = clearSelection;
+    }
+
+    /**
+     * Displays the action bar with the number of selected meals, or hides it once no meal is
+     * selected.
+     *
+     * @param count the number of selected meals
+     */
+    @Override
+    public void onSelectionChanged(int count) {
+        if (count == 0) {
+            finish();
+            return;
+        }
+        if (actionMode == null) {
+            actionMode = activity.startSupportActionMode(this);
+        }
+        if (actionMode != null) {
+            actionMode.setTitle(activity.getString(R.string.selection_title, count));
+        }
+    }
+
+    /**
+     * Hides the action bar, for instance when the list is not displayed anymore.
+     */
+    void finish() {
+        if (actionMode != null) {
+            actionMode.finish();
+        }
+    }
+
+    @Override
+    public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+        mode.getMenuInflater().inflate(R.menu.selection_menu, menu);
+        menu.findItem(R.id.addSelectionToFavorites).setVisible(addToFavorites != null);
+        return true;
+    }
+
+    @Override
+    public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+        return false;
+    }
+
+    @Override
+    public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+        if (item.getItemId() == R.id.addSelectionToFavorites) {
+            addToFavorites.run();
+        } else if (item.getItemId() == R.id.removeSelectionFromFavorites) {
+            removeFromFavorites.run();
+        } else {
+            return false;
+        }
+        mode.finish();
+        return true;
+    }
+
+    @Override
+    public void onDestroyActionMode(ActionMode mode) {
+        actionMode = null;
+        clearSelection.run();
+    }
+}
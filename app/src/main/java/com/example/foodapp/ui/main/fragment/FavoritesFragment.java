@@ -5,6 +5,9 @@ import static com.example.foodapp.ui.main.MainActivity.displayMode;
 
 import android.os.Bundle;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuInflater;
+import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -13,30 +16,49 @@ import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.foodapp.R;
 import com.example.foodapp.data.dao.entity.MealEntity;
 import com.example.foodapp.data.dao.repository.FavoritesRepository;
+import com.example.foodapp.data.dao.repository.FavoritesRepository.SortOrder;
+import com.example.foodapp.ui.main.adapter.CategoryHeaderDecoration;
 import com.example.foodapp.ui.main.adapter.FavoritesAdapter;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * FavoritesFragment is a Fragment subclass that displays a list of the user's favorite meals.
  * It is initialized with a list of MealEntity objects, which are passed from the parent Activity.
  * The Fragment displays the name and image of each meal in a RecyclerView.
+ * The favorites are loaded by pages as the list is scrolled, so that large collections are
+ * never loaded into memory all at once.
  */
 public class FavoritesFragment extends Fragment {
 
+    // The order of the favorites, kept when the fragment is displayed again.
+    private static SortOrder sortOrder = SortOrder.RECENT;
+    // Number of rows of meals loaded at once, about two screens.
+    private static final int ROWS_PER_PAGE = 15;
+    // Number of rows left below the screen when the next page is loaded, about a screen.
+    private static final int PREFETCH_ROWS = 8;
+    // Number of pages kept loaded, the pages farther from the screen being dropped.
+    private static final int MAX_PAGES = 6;
+
     private FavoritesAdapter recyclerAdapter;
     private FavoritesRepository favoritesRepository;
     private String title;
     private RecyclerView recyclerView;
     private LinearLayoutManager layoutManager;
+    // The action bar of the meals selected to be removed from the favorites.
+    private FavoritesActionMode favoritesActionMode;
+    // The favorites displayed, sorted by the database in the current order.
+    private LiveData<PagingData<MealEntity>> mealsListLiveData;
+    // The headers of the categories, displayed when the favorites are sorted by category.
+    private CategoryHeaderDecoration categoryHeaders;
 
     /**
      * This method is called when the Fragment's view is created. It inflates the layout for the
@@ -58,11 +80,15 @@ public class FavoritesFragment extends Fragment {
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
         super.onCreateView(inflater, container, savedInstanceState);
-        setHasOptionsMenu(false);
+        setHasOptionsMenu(true);
 
         // Inflate the layout for this fragment
         View view = inflater.inflate(R.layout.recycler_layout, container, false);
 
+        // Favorites are stored locally, so there is nothing to refresh
+        SwipeRefreshLayout swipeRefreshLayout = view.findViewById(R.id.swipeRefreshLayout);
+        swipeRefreshLayout.setEnabled(false);
+
         // Calling the repository
         favoritesRepository = FavoritesRepository.getInstance(requireActivity().getApplication());
 
@@ -77,55 +103,175 @@ public class FavoritesFragment extends Fragment {
         }
 
         // Setting up the display of meals from favorites
-        List<MealEntity> list_favorites = new ArrayList<>();
         recyclerView = view.findViewById(R.id.recyclerView);
+        recyclerAdapter = new FavoritesAdapter(getContext());
+        categoryHeaders = new CategoryHeaderDecoration(requireContext(), recyclerAdapter);
         updateFragmentDisplay();
-        recyclerAdapter = new FavoritesAdapter(list_favorites, getContext());
         recyclerView.setAdapter(recyclerAdapter);
 
+        // The number of meals of every category is counted by the database
+        favoritesRepository.getCategoryCounts().observe(getViewLifecycleOwner(), counts -> {
+            recyclerAdapter.setCategoryCounts(counts);
+            recyclerView.invalidateItemDecorations();
+        });
+
+        // Selected meals are removed from the favorites in a single transaction
+        favoritesActionMode = new FavoritesActionMode((AppCompatActivity) requireActivity(),
+                null,
+                () -> favoritesRepository.deleteAll(recyclerAdapter.getSelection().getSelectedIds()),
+                recyclerAdapter::clearSelection);
+        recyclerAdapter.getSelection().setListener(favoritesActionMode);
+
         return view;
     }
 
+    /**
+     * Adds the menu sorting the favorites, with the current order checked.
+     *
+     * @param menu the options menu of the activity
+     * @param inflater the inflater of the menu
+     */
+    @Override
+    public void onCreateOptionsMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
+        inflater.inflate(R.menu.favorites_sort_menu, menu);
+        int checkedId;
+        switch (sortOrder) {
+            case NAME:
+                checkedId = R.id.sortFavoritesByName;
+                break;
+            case CATEGORY:
+                checkedId = R.id.sortFavoritesByCategory;
+                break;
+            default:
+                checkedId = R.id.sortFavoritesByRecency;
+        }
+        menu.findItem(checkedId).setChecked(true);
+    }
+
+    /**
+     * Sorts the favorites in the order chosen in the menu.
+     *
+     * @param item the item of the menu clicked
+     * @return true if the item is an order of the favorites
+     */
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        int itemId = item.getItemId();
+        if (itemId == R.id.sortFavoritesByRecency) {
+            sortOrder = SortOrder.RECENT;
+        } else if (itemId == R.id.sortFavoritesByName) {
+            sortOrder = SortOrder.NAME;
+        } else if (itemId == R.id.sortFavoritesByCategory) {
+            sortOrder = SortOrder.CATEGORY;
+        } else {
+            return super.onOptionsItemSelected(item);
+        }
+        item.setChecked(true);
+        updateFragmentDisplay();
+        return true;
+    }
+
+    /**
+     * Hides the action bar of the selected meals once the view is destroyed.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        favoritesActionMode.finish();
+        // The favorites are observed again by the next view
+        mealsListLiveData = null;
+    }
+
     /**
      * Called when the fragment is visible and in the foreground.
      * This method is responsible for updating the data displayed in the fragment by getting the
      * list of favorites from the repository and displaying it in the RecyclerView.
+     * The favorites are observed once per view, the pages loaded being kept when the fragment
+     * is resumed.
      */
     @Override
     public void onResume() {
         super.onResume();
 
         // Getting the list of favorites
-        displayFavorites(favoritesRepository);
+        if (mealsListLiveData == null) {
+            displayFavorites(favoritesRepository);
+        }
     }
 
     /**
      * Checks the value of MainActivity.displayMode and sets a new LayoutManage for this
      * Fragment depending on it.
+     * When the favorites are sorted by category, every category starts on a new row, below
+     * its header. The favorites displayed already are loaded again, by pages sized for the
+     * new layout and order.
      */
     public void updateFragmentDisplay() {
+        boolean grouped = sortOrder == SortOrder.CATEGORY;
         if (displayMode.equals("GRID")) {
-            layoutManager = new GridLayoutManager(getContext(), ITEM_PER_ROW);
+            GridLayoutManager gridLayoutManager = new GridLayoutManager(getContext(), ITEM_PER_ROW);
+            if (grouped) {
+                // The last meal of a category fills the rest of its row
+                gridLayoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+                    @Override
+                    public int getSpanSize(int position) {
+                        if (!recyclerAdapter.isLastOfCategory(position)) {
+                            return 1;
+                        }
+                        return ITEM_PER_ROW
+                                - recyclerAdapter.getIndexInCategory(position) % ITEM_PER_ROW;
+                    }
+                });
+            }
+            layoutManager = gridLayoutManager;
         } else {
             layoutManager = new LinearLayoutManager(getContext());
         }
         recyclerView.setLayoutManager(layoutManager);
+
+        recyclerView.removeItemDecoration(categoryHeaders);
+        if (grouped) {
+            recyclerView.addItemDecoration(categoryHeaders);
+        }
+
+        if (mealsListLiveData != null) {
+            displayFavorites(favoritesRepository);
+        }
     }
 
     /**
-     * Retrieves the list of favorite meals from the repository
+     * Retrieves the list of favorite meals from the repository, sorted in the current order,
      * and updates the RecyclerView with the new data.
      *
      * @param favoritesRepository the repository from which the list of favorite meals is retrieved
      */
     public void displayFavorites(FavoritesRepository favoritesRepository) {
-        // Get the LiveData object from the repository
-        LiveData<List<MealEntity>> mealsListLiveData = favoritesRepository.getAllMeals();
+        // Observes the favorites once, even if the fragment is resumed several times
+        if (mealsListLiveData != null) {
+            mealsListLiveData.removeObservers(getViewLifecycleOwner());
+        }
 
-        mealsListLiveData.observe(this, mealsList -> {
-            // Update the RecyclerView with the new data
-            recyclerAdapter.setMealList(mealsList);
+        // Get the LiveData object from the repository, sorted by the database
+        mealsListLiveData = favoritesRepository.getPagedMeals(sortOrder, createPagingConfig());
+        mealsListLiveData.observe(getViewLifecycleOwner(), pagingData -> {
+            // Update the RecyclerView with the new pages
+            recyclerAdapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData);
         });
     }
 
+    /**
+     * Sizes the pages of favorites in rows rather than in meals, so that a page fills the same
+     * part of the screen in both display modes.
+     * The meals not loaded yet are counted as placeholders, so the scroll bar and the headers
+     * of the categories match the whole list.
+     *
+     * @return the size of the pages and the distance at which they are loaded
+     */
+    private static PagingConfig createPagingConfig() {
+        int itemsPerRow = displayMode.equals("GRID") ? ITEM_PER_ROW : 1;
+        int pageSize = ROWS_PER_PAGE * itemsPerRow;
+        return new PagingConfig(pageSize, PREFETCH_ROWS * itemsPerRow, true, 2 * pageSize,
+                MAX_PAGES * pageSize);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.example.foodapp.ui.main.fragment;
+
+import static com.example.foodapp.ui.main.MainActivity.ITEM_PER_ROW;
+import static com.example.foodapp.ui.main.MainActivity.displayMode;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.inputmethod.EditorInfo;
+import android.widget.EditText;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.ActionBar;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.foodapp.R;
+import com.example.foodapp.data.api.model.Meal;
+import com.example.foodapp.data.api.repository.MealRepository;
+import com.example.foodapp.ui.main.adapter.MealAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.DisposableObserver;
+
+/**
+ * Displays the meals matching a category, an area and an ingredient at once.
+ * Each criterion left blank is ignored. The meals of every criterion are retrieved in
+ * parallel, then only the meals matching all of them are displayed.
+ */
+public class FilterFragment extends Fragment {
+
+    private MealAdapter mealAdapter;
+    private MealRepository mealRepository;
+    private String title;
+    private LinearLayoutManager layoutManager;
+    private RecyclerView recyclerView;
+    private EditText categoryFilter;
+    private EditText areaFilter;
+    private EditText ingredientFilter;
+
+    // The filtering in progress, disposed of when a new one starts.
+    private Disposable filterSubscription;
+
+    /**
+     * Called to have the fragment instantiate its user interface view.
+     * This method sets up the criteria fields, the display of the meals found, and the
+     * action bar title.
+     *
+     * @param inflater The LayoutInflater object that can be used to inflate any views in the fragment
+     * @param container If non-null, this is the parent view that the fragment's UI should be
+     *                  attached to.
+     * @param savedInstanceState If non-null, this fragment is being re-constructed from
+     *                           a previous saved state as given here.
+     * @return Return the View for the fragment's UI, or null.
+     */
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
+                             Bundle savedInstanceState) {
+        super.onCreateView(inflater, container, savedInstanceState);
+        setHasOptionsMenu(false);
+
+        // Inflate the layout for this fragment
+        View view = inflater.inflate(R.layout.filter_layout, container, false);
+
+        // Calling the repository
+        mealRepository = MealRepository.getInstance(requireActivity().getApplication());
+
+        // Retrieving the title of the fragment
+        if (getArguments() != null) {
+            title = getArguments().getString("title");
+        }
+        ActionBar actionBar = ((AppCompatActivity) requireActivity()).getSupportActionBar();
+        if (actionBar != null) {
+            actionBar.setDisplayHomeAsUpEnabled(false);
+            actionBar.setTitle(title);
+        }
+
+        // Setting up the display of the meals found
+        recyclerView = view.findViewById(R.id.recyclerView);
+        updateFragmentDisplay();
+        mealAdapter = new MealAdapter(new ArrayList<>(), null, getContext());
+        recyclerView.setAdapter(mealAdapter);
+
+        categoryFilter = view.findViewById(R.id.categoryFilter);
+        areaFilter = view.findViewById(R.id.areaFilter);
+        ingredientFilter = view.findViewById(R.id.ingredientFilter);
+        view.findViewById(R.id.applyFilterButton).setOnClickListener(v -> applyFilter());
+        ingredientFilter.setOnEditorActionListener((v, actionId, event) -> {
+            if (actionId == EditorInfo.IME_ACTION_SEARCH) {
+                applyFilter();
+                return true;
+            }
+            return false;
+        });
+
+        return view;
+    }
+
+    /**
+     * Stops filtering once the view is destroyed.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (filterSubscription != null) {
+            filterSubscription.dispose();
+        }
+    }
+
+    /**
+     * Checks the value of MainActivity.displayMode and sets a new LayoutManage for this
+     * Fragment depending on it.
+     */
+    public void updateFragmentDisplay() {
+        if (displayMode.equals("GRID")) {
+            layoutManager = new GridLayoutManager(getContext(), ITEM_PER_ROW);
+        } else {
+            layoutManager = new LinearLayoutManager(getContext());
+        }
+        recyclerView.setLayoutManager(layoutManager);
+    }
+
+    /**
+     * Retrieves the meals matching the criteria typed by the user and displays them,
+     * cancelling the previous filtering if it is still running.
+     */
+    private void applyFilter() {
+        if (filterSubscription != null) {
+            filterSubscription.dispose();
+        }
+        String category = categoryFilter.getText().toString();
+        String area = areaFilter.getText().toString();
+        String ingredient = ingredientFilter.getText().toString();
+
+        filterSubscription = mealRepository.filterMeals(category, area, ingredient)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribeWith(new DisposableObserver<List<Meal>>() {
+            @Override
+            public void onNext(@NonNull List<Meal> meals) {
+                mealAdapter.setMealList(meals);
+                if (meals.isEmpty()) {
+                    Toast.makeText(getContext(), "No meal matches these criteria",
+                            Toast.LENGTH_SHORT).show();
+                }
+                Log.d("FilterFrag", meals.size() + " meals match " + category + " + " + area
+                        + " + " + ingredient);
+            }
+
+            @Override
+            public void onError(@NonNull Throwable e) {
+                Log.d("FilterFrag", e.toString());
+            }
+
+            @Override
+            public void onComplete() {
+                Log.d("FilterFrag", "complet");
+            }
+        });
+    }
+}
@@ -16,23 +16,25 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.foodapp.R;
-import com.example.foodapp.data.api.APIClient;
-import com.example.foodapp.data.api.APIInterface;
 import com.example.foodapp.data.api.model.CategoriesList;
 import com.example.foodapp.data.api.model.Category;
+import com.example.foodapp.data.api.repository.MealRepository;
 import com.example.foodapp.ui.main.adapter.CategoryAdapter;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.SerialDisposable;
+import io.reactivex.observers.DisposableMaybeObserver;
 import io.reactivex.observers.DisposableObserver;
 import io.reactivex.schedulers.Schedulers;
 
@@ -44,9 +46,18 @@ import io.reactivex.schedulers.Schedulers;
  */
 public class HomeFragment extends Fragment {
 
+    // Maximum number of categories whose meals are prefetched at the same time.
+    private static final int PREFETCH_MAX_CONCURRENCY = 2;
+
+    // The prefetches of the categories displayed, replaced by those of the categories displayed
+    // next, and cancelled when leaving the fragment.
+    private final SerialDisposable prefetchDisposable = new SerialDisposable();
+
+    private MealRepository mealRepository;
     private CategoryAdapter recyclerAdapter;
     private LinearLayoutManager layoutManager;
     private RecyclerView recyclerView;
+    private SwipeRefreshLayout swipeRefreshLayout;
     private String title;
 
     /**
@@ -84,11 +95,26 @@ public class HomeFragment extends Fragment {
             actionBar.setTitle(title);
         }
 
-        List<Category> list_categories = new ArrayList<>();
+        // Displaying at once the categories already in memory, if any
+        mealRepository = MealRepository.getInstance(requireActivity().getApplication());
+        CategoriesList cachedCategories = mealRepository.getCachedCategories();
+        List<Category> list_categories = cachedCategories != null && cachedCategories.getCategories() != null
+                ? cachedCategories.getCategories()
+                : new ArrayList<>();
         recyclerView = view.findViewById(R.id.recyclerView);
         updateFragmentDisplay();
         recyclerAdapter = new CategoryAdapter(list_categories, getContext());
         recyclerView.setAdapter(recyclerAdapter);
+        swipeRefreshLayout = view.findViewById(R.id.swipeRefreshLayout);
+        swipeRefreshLayout.setOnRefreshListener(this::refreshCategories);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    prefetchVisibleCategories();
+                }
+            }
+        });
 
         return view;
     }
@@ -101,9 +127,18 @@ public class HomeFragment extends Fragment {
     public void onResume() {
         super.onResume();
 
-        APIInterface apiService = APIClient.getClient().create(APIInterface.class);
+        displayCategories(mealRepository);
+    }
+
+    /**
+     * Called when the fragment is no longer resumed, for instance when a category is opened.
+     * It cancels the prefetches still running.
+     */
+    @Override
+    public void onPause() {
+        super.onPause();
 
-        displayCategories(apiService);
+        prefetchDisposable.set(null);
     }
 
     /**
@@ -120,22 +155,29 @@ public class HomeFragment extends Fragment {
     }
 
     /**
-     * Retrieves the list of categories from the API and updates the RecyclerView
+     * Retrieves the list of categories from the repository and updates the RecyclerView
      * with the new data.
+     * The last known categories are displayed first, then replaced only if the API returns
+     * different ones.
      *
-     * @param apiService The API interface used to make the API call.
+     * @param mealRepository The repository providing the categories.
      */
-    private void displayCategories(APIInterface apiService) {
-        Observable<CategoriesList> categoriesListObservable = apiService.getCategoriesList()
+    private void displayCategories(MealRepository mealRepository) {
+        Observable<CategoriesList> categoriesListObservable = mealRepository.getCategories()
                 .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
-                .timeout(10, TimeUnit.SECONDS);
+                .observeOn(AndroidSchedulers.mainThread());
 
         Disposable result = categoriesListObservable.subscribeWith(new DisposableObserver<CategoriesList>() {
             @Override
             public void onNext(@NonNull CategoriesList categories) {
                 logCategories(categories);
+                if (categories.getCategories() == recyclerAdapter.getMealCategoriesList()) {
+                    // Already displayed from memory
+                    return;
+                }
                 recyclerAdapter.setMealCategoryList(categories.getCategories());
+                // Prefetching once the new categories are laid out
+                recyclerView.post(HomeFragment.this::prefetchVisibleCategories);
             }
 
             @Override
@@ -150,6 +192,63 @@ public class HomeFragment extends Fragment {
         });
     }
 
+    /**
+     * Revalidates the list of categories with the API when the user pulls the list down.
+     * The RecyclerView is only updated if the categories changed.
+     */
+    private void refreshCategories() {
+        Disposable result = mealRepository.refreshCategories()
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doFinally(() -> swipeRefreshLayout.setRefreshing(false))
+                .subscribeWith(new DisposableMaybeObserver<CategoriesList>() {
+            @Override
+            public void onSuccess(@NonNull CategoriesList categories) {
+                logCategories(categories);
+                recyclerAdapter.setMealCategoryList(categories.getCategories());
+            }
+
+            @Override
+            public void onError(@NonNull Throwable e) {
+                Log.d("HomeFrag", e.toString());
+            }
+
+            @Override
+            public void onComplete() {
+                Log.d("HomeFrag", "categories up to date");
+            }
+        });
+    }
+
+    /**
+     * Loads into the repository the meals of the categories currently visible, a few at a
+     * time, so that opening one of them displays its meals at once.
+     * The prefetches of the categories displayed before are cancelled, so that scrolling
+     * several times never runs more than a few prefetches at once.
+     * Prefetches failing are ignored, as the category will be loaded again when opened.
+     */
+    private void prefetchVisibleCategories() {
+        List<Category> categories = recyclerAdapter.getMealCategoriesList();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (!isResumed() || categories == null || first == RecyclerView.NO_POSITION
+                || first >= categories.size()) {
+            return;
+        }
+        List<String> visibleCategories = categories.subList(first, Math.min(last + 1, categories.size()))
+                .stream()
+                .map(Category::getStrCategory)
+                .collect(Collectors.toList());
+
+        prefetchDisposable.set(Flowable.fromIterable(visibleCategories)
+                .flatMapCompletable(category -> mealRepository.prefetchMealsFromCategory(category)
+                                .subscribeOn(Schedulers.io())
+                                .doOnError(e -> Log.d("HomeFrag", "Prefetch of " + category + " failed: " + e))
+                                .onErrorComplete(),
+                        false, PREFETCH_MAX_CONCURRENCY)
+                .subscribe(() -> Log.d("HomeFrag", "Prefetched " + visibleCategories)));
+    }
+
     /**
      * Logs the categories in the CategoriesList object.
      * If the categories object is not null, it maps each Category object in the list to
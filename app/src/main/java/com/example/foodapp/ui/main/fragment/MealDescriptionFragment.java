@@ -15,27 +15,23 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
+import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.bumptech.glide.Glide;
 import com.example.foodapp.R;
-import com.example.foodapp.data.api.APIClient;
-import com.example.foodapp.data.api.APIInterface;
 import com.example.foodapp.data.api.model.Meal;
 import com.example.foodapp.data.api.model.MealDescription;
-import com.example.foodapp.data.api.model.MealDescriptionsList;
 import com.example.foodapp.data.api.model.MealsList;
+import com.example.foodapp.data.api.repository.MealRepository;
 import com.example.foodapp.data.dao.entity.MealEntity;
 import com.example.foodapp.data.dao.repository.FavoritesRepository;
 
-import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import io.reactivex.Observable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.DisposableMaybeObserver;
 import io.reactivex.observers.DisposableObserver;
 import io.reactivex.schedulers.Schedulers;
 
@@ -46,14 +42,16 @@ import io.reactivex.schedulers.Schedulers;
  */
 public class MealDescriptionFragment extends Fragment {
 
-    private Fragment context;
     private View view;
     private Button heartIcon;
+    private SwipeRefreshLayout swipeRefreshLayout;
     private String mealId;
-    private APIInterface apiService;
+    private MealRepository mealRepository;
     private FavoritesRepository favoritesRepository;
     private MealEntity mealEntity;
     private String currentCategoryId;
+    // Updates the favorite icon when this meal is added to or removed from the favorites.
+    private Disposable favoriteChangesSubscription;
 
     /**
      * Called to have the fragment instantiate its user interface view.
@@ -72,14 +70,14 @@ public class MealDescriptionFragment extends Fragment {
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         super.onCreateView(inflater, container, savedInstanceState);
 
-        context = this;
-
         favoritesRepository = FavoritesRepository.getInstance(requireActivity().getApplication());
 
         // Inflate the layout for this fragment
         view = inflater.inflate(R.layout.item_description_layout, container, false);
 
         heartIcon = view.findViewById(R.id.favorite_heart);
+        swipeRefreshLayout = view.findViewById(R.id.swipeRefreshLayout);
+        swipeRefreshLayout.setOnRefreshListener(this::refreshMealDescription);
 
         // Retrieving the title of the fragment
         ActionBar actionBar = ((AppCompatActivity) requireActivity()).getSupportActionBar();
@@ -93,49 +91,54 @@ public class MealDescriptionFragment extends Fragment {
             currentCategoryId = getArguments().getString(getString(R.string.clicked_category_id));
         }
 
-        // Create the API service
-        apiService = APIClient.getClient().create(APIInterface.class);
+        // Calling the repository
+        mealRepository = MealRepository.getInstance(requireActivity().getApplication());
 
-        // Create the observable to fetch the meal description from the API
-        Observable<MealDescriptionsList> mealDescriptionsListObservable = apiService.getMealDescriptionFromId(mealId)
+        // Create the observable to fetch the meal description from the repository
+        Observable<MealDescription> mealDescriptionObservable = mealRepository.getMealDescription(mealId)
                 .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
-                .timeout(10, TimeUnit.SECONDS);
+                .observeOn(AndroidSchedulers.mainThread());
 
         // Display the meal description
-        handleMealDescription(mealId, mealDescriptionsListObservable);
+        handleMealDescription(mealId, mealDescriptionObservable);
 
         return view;
     }
 
     /**
-     * Handles the meal description data from the API and updates the layout with the retrieved data.
+     * Handles the meal description data from the repository and updates the layout with the
+     * retrieved data.
      * Also sets up the onClickListener for the bookmark (favorite) icon for this meal.
      *
      * @param meal_id the id of the meal to be displayed
-     * @param mealDescriptionsListObservable the observable object to fetch the meal
-     *                                       description data from the API
+     * @param mealDescriptionObservable the observable object to fetch the meal
+     *                                  description data from the repository
      */
     private void handleMealDescription(
-            String meal_id, Observable<MealDescriptionsList> mealDescriptionsListObservable) {
+            String meal_id, Observable<MealDescription> mealDescriptionObservable) {
 
-        Disposable disposableObserver = mealDescriptionsListObservable
-                .subscribeWith(new DisposableObserver<MealDescriptionsList>() {
+        Disposable disposableObserver = mealDescriptionObservable
+                .subscribeWith(new DisposableObserver<MealDescription>() {
             @Override
-            public void onNext(@NonNull MealDescriptionsList mealDescriptionsList) {
+            public void onNext(@NonNull MealDescription mealDescription) {
                 Log.d("MealDescriptionFrag", "Meal id " + meal_id + ":\n");
-                MealDescription mealDescription = mealDescriptionsList.getMealDescription().get(0);
 
                 // Set category meal description
                 if(currentCategoryId == null) currentCategoryId = mealDescription.getStrCategory();
-                logMeals(mealDescriptionsList);
+                Log.d("MealDescriptionAct", "\n" + mealDescription.getStrMeal());
 
                 updateLayoutWithData(mealDescription);
 
-                favoritesRepository.observeMealEntity(context, mealEntities -> {
-                    initMealEntityFromApi(meal_id, currentCategoryId);
-                    updateFavoriteIcon(mealDescription);
-                });
+                initMealEntityFromApi(meal_id, currentCategoryId);
+                updateFavoriteIcon(mealDescription);
+
+                // Only the changes of this meal update the icon, without reading the favorites
+                if (favoriteChangesSubscription != null) {
+                    favoriteChangesSubscription.dispose();
+                }
+                favoriteChangesSubscription = favoritesRepository.observeFavoriteChanges(meal_id)
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(change -> updateFavoriteIcon(mealDescription));
 
                 // Toggle bookmark (favorite) for this meal
                 heartIcon.setOnClickListener(v -> {
@@ -158,11 +161,26 @@ public class MealDescriptionFragment extends Fragment {
         });
     }
 
+    /**
+     * Stops updating the favorite icon once the view is destroyed.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (favoriteChangesSubscription != null) {
+            favoriteChangesSubscription.dispose();
+        }
+    }
+
     /**
      * Deletes the meal entity from the favorites database
      */
     private void deleteMealEntity() {
-        favoritesRepository.delete(mealEntity);
+        MealEntity deleted = mealEntity;
+        Disposable result = favoritesRepository.delete(deleted)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(() -> Log.d("MealDescriptionFrag", "Removed " + deleted.getIdMeal()),
+                        e -> onFavoriteNotCommitted(deleted));
         heartIcon.setBackgroundResource(R.drawable.heart_icon_selector);
         Toast.makeText(getActivity(), String.format(
                 "Removed %s from favorites.", mealEntity.getStrMeal()
@@ -173,13 +191,36 @@ public class MealDescriptionFragment extends Fragment {
      * Inserts the meal entity into the favorites database
      */
     private void insertMealEntity() {
-        favoritesRepository.insert(mealEntity);
+        MealEntity inserted = mealEntity;
+        Disposable result = favoritesRepository.insert(inserted)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(() -> Log.d("MealDescriptionFrag", "Added " + inserted.getIdMeal()),
+                        e -> onFavoriteNotCommitted(inserted));
         heartIcon.setBackgroundResource(R.drawable.heart_icon);
         Toast.makeText(getActivity(), String.format(
                 "Added %s to favorites!", mealEntity.getStrMeal()
         ), Toast.LENGTH_SHORT).show();
     }
 
+    /**
+     * Shows the committed state of the meal again when a change of its favorite state could
+     * not be written.
+     *
+     * @param meal the meal whose change was not written
+     */
+    private void onFavoriteNotCommitted(MealEntity meal) {
+        if (favoritesRepository.isFavoriteMeal(meal.getIdMeal())) {
+            heartIcon.setBackgroundResource(R.drawable.heart_icon);
+        } else {
+            heartIcon.setBackgroundResource(R.drawable.heart_icon_selector);
+        }
+        if (getActivity() != null) {
+            Toast.makeText(getActivity(), String.format(
+                    "Could not update %s in favorites.", meal.getStrMeal()
+            ), Toast.LENGTH_SHORT).show();
+        }
+    }
+
     /**
      * Updates the favorite icon for the meal depending on whether it is bookmarked or not
      *
@@ -194,6 +235,33 @@ public class MealDescriptionFragment extends Fragment {
         }
     }
 
+    /**
+     * Revalidates the description of the meal with the API when the user pulls the screen
+     * down. The layout is only updated if the description changed.
+     */
+    private void refreshMealDescription() {
+        Disposable result = mealRepository.refreshMealDescription(mealId)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doFinally(() -> swipeRefreshLayout.setRefreshing(false))
+                .subscribeWith(new DisposableMaybeObserver<MealDescription>() {
+            @Override
+            public void onSuccess(@NonNull MealDescription mealDescription) {
+                updateLayoutWithData(mealDescription);
+            }
+
+            @Override
+            public void onError(@NonNull Throwable e) {
+                Log.d("MealDescriptionFrag", e.toString());
+            }
+
+            @Override
+            public void onComplete() {
+                Log.d("MealDescriptionFrag", "description up to date");
+            }
+        });
+    }
+
     /**
      * Updates the layout with data from a MealDescription object.
      * This includes displaying the meal's title on the action bar,
@@ -242,35 +310,19 @@ public class MealDescriptionFragment extends Fragment {
      * @return a formatted string of the ingredients and quantities
      */
     private String formatIngredientsAndQuantities(MealDescription mealDescription) {
-        Map<String, String> mapIngredientsAndQuantities = mealDescription.getMapIngredientsAndQuantities();
         StringBuilder sb = new StringBuilder();
-        int size = mapIngredientsAndQuantities.size();
-        int i = 0;
+        int size = mealDescription.getIngredientCount();
 
-        for (Map.Entry<String, String> entry : mapIngredientsAndQuantities.entrySet()) {
-            sb.append(entry.getKey())
+        for (int i = 0; i < size; i++) {
+            sb.append(mealDescription.getIngredient(i))
                     .append(": ")
-                    .append(entry.getValue());
-            if (++i < size) { sb.append("\n"); }    // No newline for the last item
+                    .append(mealDescription.getMeasure(i));
+            if (i + 1 < size) { sb.append("\n"); }    // No newline for the last item
         }
 
         return sb.toString();
     }
 
-    /**
-     * Logs the names of the meals in a MealDescriptionsList object.
-     *
-     * @param meals the MealDescriptionsList object containing a list of MealDescription objects
-     */
-    private void logMeals(MealDescriptionsList meals) {
-        String mealsString = Optional.ofNullable(meals.getMealDescription())
-                .map(mealCategories -> mealCategories.stream()
-                        .map(MealDescription::getStrMeal)
-                        .collect(Collectors.joining("\n")))
-                .orElse("");
-        Log.d("MealDescriptionAct", "\n" + mealsString);
-    }
-
     /**
      * Checks in the local database to check if the meal currently displayed on the page
      * is bookmarked
@@ -282,18 +334,17 @@ public class MealDescriptionFragment extends Fragment {
     }
 
     /**
-     * Initializes a MealEntity object with data from the API.
+     * Initializes a MealEntity object with data from the repository.
      * The MealEntity object is created using the specified meal ID and category ID.
      *
      * @param mealId the ID of the meal to be initialized
      * @param categoryId the ID of the category the meal belongs to
      */
     private void initMealEntityFromApi(String mealId, String categoryId) {
-        // Create the observable to fetch the meal description from the API
-        Observable<MealsList> mealsListObservable = apiService.getMealsFromCategory(categoryId)
+        // Create the observable to fetch the meals of the category from the repository
+        Observable<MealsList> mealsListObservable = mealRepository.getMealsFromCategory(categoryId)
                 .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
-                .timeout(10, TimeUnit.SECONDS);
+                .observeOn(AndroidSchedulers.mainThread());
 
         Disposable result = mealsListObservable.subscribeWith(new DisposableObserver<MealsList>() {
             @Override
@@ -16,23 +16,24 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.foodapp.R;
-import com.example.foodapp.data.api.APIClient;
-import com.example.foodapp.data.api.APIInterface;
 import com.example.foodapp.data.api.model.Meal;
 import com.example.foodapp.data.api.model.MealsList;
+import com.example.foodapp.data.api.repository.MealRepository;
+import com.example.foodapp.data.dao.repository.FavoritesRepository;
 import com.example.foodapp.ui.main.adapter.MealAdapter;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import io.reactivex.Observable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.DisposableMaybeObserver;
 import io.reactivex.observers.DisposableObserver;
 import io.reactivex.schedulers.Schedulers;
 
@@ -42,12 +43,20 @@ import io.reactivex.schedulers.Schedulers;
  */
 public class MealFromCategoryFragment extends Fragment {
 
+    // Number of meals added at once to the RecyclerView while they are being downloaded.
+    private static final int MEALS_PER_CHUNK = 20;
+    // Maximum time a downloaded meal waits before being added to the RecyclerView.
+    private static final long CHUNK_MAX_DELAY_MS = 100;
+
     private MealAdapter mealAdapter;
-    private APIInterface apiService;
+    private MealRepository mealRepository;
     private String openedCategory;
     private String title;
     private LinearLayoutManager layoutManager;
     private RecyclerView recyclerView;
+    private SwipeRefreshLayout swipeRefreshLayout;
+    // The action bar of the meals selected to be added to or removed from the favorites.
+    private FavoritesActionMode favoritesActionMode;
 
     /**
      * Called to have the fragment instantiate its user interface view.
@@ -71,8 +80,8 @@ public class MealFromCategoryFragment extends Fragment {
         // Inflate the layout for this fragment
         View view = inflater.inflate(R.layout.recycler_layout, container, false);
 
-        // Calling the API
-        apiService = APIClient.getClient().create(APIInterface.class);
+        // Calling the repository
+        mealRepository = MealRepository.getInstance(requireActivity().getApplication());
 
         // Retrieving the current category passed in previous view
         if(getArguments() != null) {
@@ -93,9 +102,30 @@ public class MealFromCategoryFragment extends Fragment {
         mealAdapter = new MealAdapter(list_meals, openedCategory, getContext());
         recyclerView.setAdapter(mealAdapter);
 
+        // Selected meals are added to or removed from the favorites in a single transaction
+        FavoritesRepository favoritesRepository =
+                FavoritesRepository.getInstance(requireActivity().getApplication());
+        favoritesActionMode = new FavoritesActionMode((AppCompatActivity) requireActivity(),
+                () -> favoritesRepository.insertAll(mealAdapter.getSelectedMeals()),
+                () -> favoritesRepository.deleteAll(mealAdapter.getSelection().getSelectedIds()),
+                mealAdapter::clearSelection);
+        mealAdapter.getSelection().setListener(favoritesActionMode);
+
+        swipeRefreshLayout = view.findViewById(R.id.swipeRefreshLayout);
+        swipeRefreshLayout.setOnRefreshListener(() -> refreshMealsFrom(mealRepository, openedCategory));
+
         return view;
     }
 
+    /**
+     * Hides the action bar of the selected meals once the view is destroyed.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        favoritesActionMode.finish();
+    }
+
     /**
      * Checks the value of MainActivity.displayMode and sets a new LayoutManage for this
      * Fragment depending on it.
@@ -116,27 +146,45 @@ public class MealFromCategoryFragment extends Fragment {
     public void onResume() {
         super.onResume();
 
-        displayMealsFrom(apiService, openedCategory);
+        displayMealsFrom(mealRepository, openedCategory);
     }
 
     /**
-     * Fetches a list of meals belonging to a specific category from an API service,
-     * and displays them in a RecyclerView.
+     * Fetches the meals belonging to a specific category from the repository,
+     * and displays them in a RecyclerView by chunks, while they are being downloaded.
+     * Meals already in memory, for instance prefetched from the home screen, are displayed
+     * at once, before the first frame of the fragment is drawn.
      *
-     * @param apiService the API service used to fetch the data
+     * @param mealRepository the repository used to fetch the data
      * @param some_category the category of meals to display
      */
-    private void displayMealsFrom(APIInterface apiService, String some_category) {
-        Observable<MealsList> mealsListObservable = apiService.getMealsFromCategory(some_category)
+    private void displayMealsFrom(MealRepository mealRepository, String some_category) {
+        MealsList cachedMeals = mealRepository.getCachedMealsFromCategory(some_category);
+        if (cachedMeals != null && cachedMeals.getMeals() != null) {
+            mealAdapter.setMealList(cachedMeals.getMeals());
+            Log.d("MealFromCatFrag", "from memory");
+            return;
+        }
+
+        Observable<List<Meal>> mealsChunksObservable = mealRepository.streamMealsFromCategory(some_category)
                 .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
-                .timeout(10, TimeUnit.SECONDS);
+                .buffer(CHUNK_MAX_DELAY_MS, TimeUnit.MILLISECONDS, MEALS_PER_CHUNK)
+                .filter(meals -> !meals.isEmpty())
+                .observeOn(AndroidSchedulers.mainThread());
+
+        Disposable result = mealsChunksObservable.subscribeWith(new DisposableObserver<List<Meal>>() {
+            // The meals displayed so far during this call.
+            private final List<Meal> displayedMeals = new ArrayList<>();
 
-        Disposable result = mealsListObservable.subscribeWith(new DisposableObserver<MealsList>() {
             @Override
-            public void onNext(@NonNull MealsList mealsList) {
-                logMeals(mealsList);
-                mealAdapter.setMealList(mealsList.getMeals());
+            public void onNext(@NonNull List<Meal> meals) {
+                // The first chunk replaces the meals displayed before, the next ones are appended
+                if (displayedMeals.isEmpty()) {
+                    mealAdapter.setMealList(new ArrayList<>(meals));
+                } else {
+                    mealAdapter.appendMeals(meals);
+                }
+                displayedMeals.addAll(meals);
             }
 
             @Override
@@ -146,22 +194,57 @@ public class MealFromCategoryFragment extends Fragment {
 
             @Override
             public void onComplete() {
+                if (displayedMeals.isEmpty()) {
+                    mealAdapter.setMealList(displayedMeals);
+                }
+                logMeals(displayedMeals);
                 Log.d("MealFromCatFrag", "complet");
             }
         });
     }
 
     /**
-     * Logs the names of the meals in a MealsList object.
+     * Revalidates the meals of a category with the API when the user pulls the list down.
+     * The RecyclerView is only updated if the meals changed.
+     *
+     * @param mealRepository the repository used to fetch the data
+     * @param some_category the category of meals to refresh
+     */
+    private void refreshMealsFrom(MealRepository mealRepository, String some_category) {
+        Disposable result = mealRepository.refreshMealsFromCategory(some_category)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .doFinally(() -> swipeRefreshLayout.setRefreshing(false))
+                .subscribeWith(new DisposableMaybeObserver<MealsList>() {
+            @Override
+            public void onSuccess(@NonNull MealsList meals) {
+                if (meals.getMeals() != null) {
+                    mealAdapter.setMealList(meals.getMeals());
+                    logMeals(meals.getMeals());
+                }
+            }
+
+            @Override
+            public void onError(@NonNull Throwable e) {
+                Log.d("MealFromCatFrag", e.toString());
+            }
+
+            @Override
+            public void onComplete() {
+                Log.d("MealFromCatFrag", "meals up to date");
+            }
+        });
+    }
+
+    /**
+     * Logs the names of the meals in a list.
      *
-     * @param meals the MealsList object containing a list of Meal objects
+     * @param meals the list of Meal objects
      */
-    private void logMeals(MealsList meals) {
-        String mealsString = Optional.ofNullable(meals.getMeals())
-                .map(mealCategories -> mealCategories.stream()
-                        .map(Meal::getStrMeal)
-                        .collect(Collectors.joining("; ")))
-                .orElse("");
+    private void logMeals(List<Meal> meals) {
+        String mealsString = meals.stream()
+                .map(Meal::getStrMeal)
+                .collect(Collectors.joining("; "));
         Log.d("MealFromCatFrag", mealsString);
     }
 }
@@ -0,0 +1,186 @@
+package com.example.foodapp.ui.main.fragment;
+
+import static com.example.foodapp.ui.main.MainActivity.ITEM_PER_ROW;
+import static com.example.foodapp.ui.main.MainActivity.displayMode;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.ActionBar;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
+import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.foodapp.R;
+import com.example.foodapp.data.api.model.Meal;
+import com.example.foodapp.data.api.repository.MealRepository;
+import com.example.foodapp.ui.main.adapter.MealAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.DisposableObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+
+/**
+ * Searches meals by name while the user types.
+ * A query is only sent once the user stops typing for a moment, and the search of a previous
+ * query still running is cancelled, so that typing fast does not queue requests. Queries
+ * searched recently are displayed at once from memory.
+ */
+public class SearchFragment extends Fragment {
+
+    // Time without typing after which the query is searched in the API.
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+
+    private MealAdapter mealAdapter;
+    private MealRepository mealRepository;
+    private String title;
+    private LinearLayoutManager layoutManager;
+    private RecyclerView recyclerView;
+
+    // The texts typed in the search field.
+    private final PublishSubject<String> queries = PublishSubject.create();
+    // The subscription to the results of the queries, as long as the view exists.
+    private Disposable searchSubscription;
+
+    /**
+     * Called to have the fragment instantiate its user interface view.
+     * This method sets up the search field, the display of the meals found, and the action
+     * bar title.
+     *
+     * @param inflater The LayoutInflater object that can be used to inflate any views in the fragment
+     * @param container If non-null, this is the parent view that the fragment's UI should be
+     *                  attached to.
+     * @param savedInstanceState If non-null, this fragment is being re-constructed from
+     *                           a previous saved state as given here.
+     * @return Return the View for the fragment's UI, or null.
+     */
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
+                             Bundle savedInstanceState) {
+        super.onCreateView(inflater, container, savedInstanceState);
+        setHasOptionsMenu(false);
+
+        // Inflate the layout for this fragment
+        View view = inflater.inflate(R.layout.search_layout, container, false);
+
+        // Calling the repository
+        mealRepository = MealRepository.getInstance(requireActivity().getApplication());
+
+        // Retrieving the title of the fragment
+        if (getArguments() != null) {
+            title = getArguments().getString("title");
+        }
+        ActionBar actionBar = ((AppCompatActivity) requireActivity()).getSupportActionBar();
+        if (actionBar != null) {
+            actionBar.setDisplayHomeAsUpEnabled(false);
+            actionBar.setTitle(title);
+        }
+
+        // Setting up the display of the meals found
+        recyclerView = view.findViewById(R.id.recyclerView);
+        updateFragmentDisplay();
+        // The meals found belong to various categories, found by the description itself
+        mealAdapter = new MealAdapter(new ArrayList<>(), null, getContext());
+        recyclerView.setAdapter(mealAdapter);
+
+        SearchView searchView = view.findViewById(R.id.searchView);
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                queries.onNext(query);
+                searchView.clearFocus();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                queries.onNext(newText);
+                return true;
+            }
+        });
+        searchSubscription = displaySearchResults(mealRepository);
+
+        return view;
+    }
+
+    /**
+     * Stops searching once the view is destroyed, cancelling the search in progress.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        searchSubscription.dispose();
+    }
+
+    /**
+     * Checks the value of MainActivity.displayMode and sets a new LayoutManage for this
+     * Fragment depending on it.
+     */
+    public void updateFragmentDisplay() {
+        if (displayMode.equals("GRID")) {
+            layoutManager = new GridLayoutManager(getContext(), ITEM_PER_ROW);
+        } else {
+            layoutManager = new LinearLayoutManager(getContext());
+        }
+        recyclerView.setLayoutManager(layoutManager);
+    }
+
+    /**
+     * Searches the queries typed by the user and displays the meals found.
+     * Queries in memory skip the debounce, so that going back to a previous query by
+     * deleting characters displays its results immediately. A failed search keeps the
+     * results displayed before.
+     *
+     * @param mealRepository the repository used to search the meals
+     * @return the subscription to the results
+     */
+    private Disposable displaySearchResults(MealRepository mealRepository) {
+        Observable<List<Meal>> resultsObservable = queries
+                .map(MealRepository::normalizeQuery)
+                .debounce(query -> query.isEmpty() || mealRepository.isSearchCached(query)
+                        ? Observable.<Long>empty()
+                        : Observable.timer(SEARCH_DEBOUNCE_MS, TimeUnit.MILLISECONDS))
+                .distinctUntilChanged()
+                // A new query disposes of the search of the previous one, cancelling its call
+                .switchMap(query -> query.isEmpty()
+                        ? Observable.just(Collections.<Meal>emptyList())
+                        : mealRepository.searchMeals(query)
+                                .subscribeOn(Schedulers.io())
+                                .doOnError(e -> Log.d("SearchFrag", query + ": " + e))
+                                .onErrorResumeNext(Observable.empty()))
+                .observeOn(AndroidSchedulers.mainThread());
+
+        return resultsObservable.subscribeWith(new DisposableObserver<List<Meal>>() {
+            @Override
+            public void onNext(@NonNull List<Meal> meals) {
+                mealAdapter.setMealList(meals);
+                Log.d("SearchFrag", meals.size() + " meals found");
+            }
+
+            @Override
+            public void onError(@NonNull Throwable e) {
+                Log.d("SearchFrag", e.toString());
+            }
+
+            @Override
+            public void onComplete() {
+                Log.d("SearchFrag", "complet");
+            }
+        });
+    }
+}
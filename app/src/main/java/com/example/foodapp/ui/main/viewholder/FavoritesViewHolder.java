@@ -31,6 +31,7 @@ public class FavoritesViewHolder extends ViewHolder {
     private ImageView strMealThumbView;
     private String mealId;
     private Button heartIcon;
+    private final Context context;
 
     /**
      * Creates a ViewHolder for a single Meal
@@ -44,23 +45,29 @@ public class FavoritesViewHolder extends ViewHolder {
 
         setStrMealView((TextView) itemView.findViewById(R.id.strItem));
         setStrMealThumbView((ImageView) itemView.findViewById(R.id.imageView));
-        itemView.setOnClickListener(view -> {
-            Log.d(this.getClass().getName(), "clicked on meal id " + mealId);
-
-            FragmentManager fragmentManager = ((AppCompatActivity)context).getSupportFragmentManager();
-            FragmentTransaction fragmentTransaction = fragmentManager.beginTransaction();
-            MealDescriptionFragment mealDescriptionFragment = new MealDescriptionFragment();
-
-            // Adds a bundle to the fragment with the selected Meal
-            Bundle bundle = new Bundle();
-            bundle.putString(context.getString(R.string.clicked_meal_id), mealId);
-            mealDescriptionFragment.setArguments(bundle);
-
-            // Replaces current fragment by a new one
-            fragmentTransaction.replace(R.id.fragment_container, mealDescriptionFragment);
-            fragmentTransaction.addToBackStack("FAVORITES");
-            fragmentTransaction.commit();
-        });
+        this.context = context;
+        itemView.setOnClickListener(view -> openMealDescription());
+    }
+
+    /**
+     * Opens the description of the meal in a new Fragment, replacing the current one.
+     */
+    public void openMealDescription() {
+        Log.d(this.getClass().getName(), "clicked on meal id " + mealId);
+
+        FragmentManager fragmentManager = ((AppCompatActivity)context).getSupportFragmentManager();
+        FragmentTransaction fragmentTransaction = fragmentManager.beginTransaction();
+        MealDescriptionFragment mealDescriptionFragment = new MealDescriptionFragment();
+
+        // Adds a bundle to the fragment with the selected Meal
+        Bundle bundle = new Bundle();
+        bundle.putString(context.getString(R.string.clicked_meal_id), mealId);
+        mealDescriptionFragment.setArguments(bundle);
+
+        // Replaces current fragment by a new one
+        fragmentTransaction.replace(R.id.fragment_container, mealDescriptionFragment);
+        fragmentTransaction.addToBackStack("FAVORITES");
+        fragmentTransaction.commit();
     }
 
     /**
@@ -34,6 +34,7 @@ public class MealViewHolder extends ViewHolder {
     private String mealId;
     private String categoryId;
     private Button heartIcon;
+    private final Context context;
 
     /**
      * Creates a ViewHolder for a single Meal
@@ -48,25 +49,30 @@ public class MealViewHolder extends ViewHolder {
         setStrMealView((TextView) itemView.findViewById(R.id.strItem));
         setStrThumbnailMealView((ImageView) itemView.findViewById(R.id.imageView));
 
-        itemView.setOnClickListener(view -> {
-            Log.d(this.getClass().getName(), "clicked on meal id " + mealId);
-
-            FragmentManager fragmentManager = ((AppCompatActivity) context).getSupportFragmentManager();
-            FragmentTransaction fragmentTransaction = fragmentManager.beginTransaction();
-            MealDescriptionFragment mealDescriptionFragment = new MealDescriptionFragment();
-
-            // Adds a bundle to the fragment with the current category and the clicked meal
-            Bundle bundle = new Bundle();
-            bundle.putString(context.getString(R.string.clicked_meal_id), mealId);
-            bundle.putString(context.getString(R.string.clicked_category_id), categoryId);
-            mealDescriptionFragment.setArguments(bundle);
-
-            // Replaces current fragment by a new one
-            fragmentTransaction.replace(R.id.fragment_container, mealDescriptionFragment);
-            fragmentTransaction.addToBackStack("MEAL");
-            fragmentTransaction.commit();
-        });
+        this.context = context;
+        itemView.setOnClickListener(view -> openMealDescription());
+    }
 
+    /**
+     * Opens the description of the meal in a new Fragment, replacing the current one.
+     */
+    public void openMealDescription() {
+        Log.d(this.getClass().getName(), "clicked on meal id " + mealId);
+
+        FragmentManager fragmentManager = ((AppCompatActivity) context).getSupportFragmentManager();
+        FragmentTransaction fragmentTransaction = fragmentManager.beginTransaction();
+        MealDescriptionFragment mealDescriptionFragment = new MealDescriptionFragment();
+
+        // Adds a bundle to the fragment with the current category and the clicked meal
+        Bundle bundle = new Bundle();
+        bundle.putString(context.getString(R.string.clicked_meal_id), mealId);
+        bundle.putString(context.getString(R.string.clicked_category_id), categoryId);
+        mealDescriptionFragment.setArguments(bundle);
+
+        // Replaces current fragment by a new one
+        fragmentTransaction.replace(R.id.fragment_container, mealDescriptionFragment);
+        fragmentTransaction.addToBackStack("MEAL");
+        fragmentTransaction.commit();
     }
 
     /**
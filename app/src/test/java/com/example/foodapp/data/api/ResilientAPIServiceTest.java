@@ -0,0 +1,359 @@
+package com.example.foodapp.data.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.foodapp.data.api.interceptor.CacheOnlyInterceptor;
+import com.example.foodapp.data.api.model.CategoriesList;
+import com.example.foodapp.data.api.resilience.CircuitBreaker;
+import com.example.foodapp.data.api.resilience.CircuitBreakerOpenException;
+import com.example.foodapp.data.api.resilience.ResiliencePolicy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import retrofit2.HttpException;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Checks the timeouts, retries and circuit breakers of {@link ResilientAPIService} against
+ * a local server injecting faults. The timeouts, the delays between attempts and the clock
+ * of the circuit breakers run in virtual time.
+ */
+public class ResilientAPIServiceTest {
+
+    private static final String CATEGORIES_JSON =
+            "{\"categories\":[{\"idCategory\":\"1\",\"strCategory\":\"Beef\"}]}";
+
+    // Timeout of an attempt, in milliseconds.
+    private static final long TIMEOUT = 1000;
+    // Longest delay between two attempts, in milliseconds.
+    private static final long MAX_DELAY = 40;
+    // How long a circuit stays open, in milliseconds.
+    private static final long OPEN_DURATION = 10_000;
+    // Time letting every retry of a call run, well below the open duration, in milliseconds.
+    private static final long RETRY_WINDOW = 1000;
+
+    // Runs the timeouts, the delays between attempts and the clock of the circuit breakers.
+    private final TestScheduler scheduler = new TestScheduler();
+
+    private MockWebServer server;
+    // The HTTP cache of the services answering from the cache while down, null otherwise.
+    private Cache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        if (cache != null) {
+            cache.delete();
+        }
+    }
+
+    @Test
+    public void transientFailures_areRetried() {
+        ResilientAPIService service = createService(3, 5);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        server.enqueue(new MockResponse().setBody(CATEGORIES_JSON));
+
+        CategoriesList categories = categoriesOf(service);
+
+        assertEquals("Beef", categories.getCategories().get(0).getStrCategory());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breakerOf(service).getState());
+        assertEquals(0, breakerOf(service).getConsecutiveFailures());
+    }
+
+    @Test
+    public void retries_areBounded() {
+        ResilientAPIService service = createService(2, 5);
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+
+        Throwable error = errorOf(service);
+
+        assertTrue(error instanceof HttpException);
+        assertEquals(500, ((HttpException) error).code());
+        // The first attempt and its 2 retries
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void clientErrors_areNotRetried() {
+        ResilientAPIService service = createService(3, 1);
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setBody(CATEGORIES_JSON));
+
+        Throwable error = errorOf(service);
+
+        assertTrue(error instanceof HttpException);
+        assertEquals(1, server.getRequestCount());
+        // The server answered, so it is not considered down
+        assertEquals(CircuitBreaker.State.CLOSED, breakerOf(service).getState());
+    }
+
+    @Test
+    public void slowResponses_timeOutAndAreRetried() throws InterruptedException {
+        // The calls run in the background, so that virtual time can pass while one is waiting
+        OkHttpClient client = new OkHttpClient.Builder()
+                .retryOnConnectionFailure(false)
+                .build();
+        APIInterface api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create(APIClient.getGson()))
+                .addCallAdapterFactory(RxJava2CallAdapterFactory.createWithScheduler(
+                        Schedulers.io()))
+                .build()
+                .create(APIInterface.class);
+        ResilientAPIService service = new ResilientAPIService(api, createPolicies(1, 5),
+                scheduler);
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.enqueue(new MockResponse().setBody(CATEGORIES_JSON));
+
+        TestObserver<CategoriesList> observer = service.getCategoriesList().test();
+        // The first attempt reached the server, which never answers it
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        observer.assertNoValues();
+        scheduler.advanceTimeBy(TIMEOUT, TimeUnit.MILLISECONDS);
+        scheduler.advanceTimeBy(MAX_DELAY, TimeUnit.MILLISECONDS);
+
+        assertTrue(observer.awaitTerminalEvent(5, TimeUnit.SECONDS));
+        observer.assertValueCount(1);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breakerOf(service).getState());
+    }
+
+    @Test
+    public void openCircuit_failsFastWithoutCallingTheServer() {
+        ResilientAPIService service = createService(0, 2);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(CATEGORIES_JSON));
+
+        errorOf(service);
+        assertEquals(CircuitBreaker.State.CLOSED, breakerOf(service).getState());
+        errorOf(service);
+        assertEquals(CircuitBreaker.State.OPEN, breakerOf(service).getState());
+
+        Throwable error = errorOf(service);
+
+        assertTrue(error instanceof CircuitBreakerOpenException);
+        assertEquals(2, server.getRequestCount());
+        // Only the endpoint that failed is cut off
+        assertEquals(CircuitBreaker.State.CLOSED,
+                service.getCircuitBreakers().get("lookup.php").getState());
+    }
+
+    @Test
+    public void successfulProbe_closesCircuit() {
+        ResilientAPIService service = createService(0, 1);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(CATEGORIES_JSON));
+
+        errorOf(service);
+        assertEquals(CircuitBreaker.State.OPEN, breakerOf(service).getState());
+        scheduler.advanceTimeBy(OPEN_DURATION, TimeUnit.MILLISECONDS);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breakerOf(service).getState());
+
+        categoriesOf(service);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breakerOf(service).getState());
+    }
+
+    @Test
+    public void failedProbe_reopensCircuit() {
+        ResilientAPIService service = createService(0, 3);
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        errorOf(service);
+        errorOf(service);
+        errorOf(service);
+        scheduler.advanceTimeBy(OPEN_DURATION, TimeUnit.MILLISECONDS);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breakerOf(service).getState());
+
+        errorOf(service);
+
+        assertEquals(CircuitBreaker.State.OPEN, breakerOf(service).getState());
+        assertTrue(errorOf(service) instanceof CircuitBreakerOpenException);
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void openCircuit_servesCachedResponse() throws IOException {
+        ResilientAPIService service = createCachingService(0, 1);
+        // Stale at once, so that only a request allowed to read stale responses gets it
+        server.enqueue(new MockResponse().setBody(CATEGORIES_JSON)
+                .addHeader("Cache-Control", "max-age=0"));
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        categoriesOf(service);
+        errorOf(service);
+        assertEquals(CircuitBreaker.State.OPEN, breakerOf(service).getState());
+
+        CategoriesList categories = categoriesOf(service);
+
+        assertEquals("Beef", categories.getCategories().get(0).getStrCategory());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void openCircuit_withoutCachedResponse_failsFast() throws IOException {
+        ResilientAPIService service = createCachingService(0, 1);
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        errorOf(service);
+        assertEquals(CircuitBreaker.State.OPEN, breakerOf(service).getState());
+
+        assertTrue(errorOf(service) instanceof CircuitBreakerOpenException);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void syncPolicies_protectEveryEndpointOfTheSynchronization() {
+        ResilientAPIService service = new ResilientAPIService(
+                createAPI(new OkHttpClient()), ResilientAPIService.syncPolicies(),
+                Schedulers.computation());
+        server.enqueue(new MockResponse().setBody(CATEGORIES_JSON));
+        server.enqueue(new MockResponse().setBody("{\"meals\":[]}"));
+        server.enqueue(new MockResponse().setBody("{\"meals\":null}"));
+
+        service.getCategoriesList().blockingFirst();
+        service.getMealsFromCategory("Beef").blockingFirst();
+        service.getMealDescriptionFromId("52874").blockingFirst();
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breakerOf(service).getState());
+    }
+
+    /**
+     * Creates a service calling the local server, with short timeouts and delays.
+     *
+     * @param maxRetries the number of retries of each call
+     * @param failureThreshold the number of consecutive failures opening a circuit
+     * @return the service to test
+     */
+    private ResilientAPIService createService(int maxRetries, int failureThreshold) {
+        OkHttpClient client = new OkHttpClient.Builder()
+                // Only the service retries, so that requests can be counted
+                .retryOnConnectionFailure(false)
+                .build();
+        return new ResilientAPIService(createAPI(client), null,
+                createPolicies(maxRetries, failureThreshold), scheduler);
+    }
+
+    /**
+     * Creates a service calling the local server through an HTTP cache, which answers the
+     * calls while their circuit is open.
+     *
+     * @param maxRetries the number of retries of each call
+     * @param failureThreshold the number of consecutive failures opening a circuit
+     * @return the service to test
+     * @throws IOException if the directory of the cache cannot be created
+     */
+    private ResilientAPIService createCachingService(int maxRetries, int failureThreshold)
+            throws IOException {
+        cache = new Cache(Files.createTempDirectory("http_cache").toFile(), 1024 * 1024);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .retryOnConnectionFailure(false)
+                .cache(cache)
+                .build();
+        OkHttpClient cacheOnlyClient = client.newBuilder()
+                .addInterceptor(new CacheOnlyInterceptor())
+                .build();
+        return new ResilientAPIService(createAPI(client), createAPI(cacheOnlyClient),
+                createPolicies(maxRetries, failureThreshold), scheduler);
+    }
+
+    private APIInterface createAPI(OkHttpClient client) {
+        return new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create(APIClient.getGson()))
+                .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+                .build()
+                .create(APIInterface.class);
+    }
+
+    private static Map<String, ResiliencePolicy> createPolicies(int maxRetries,
+                                                                int failureThreshold) {
+        ResiliencePolicy policy = new ResiliencePolicy(TIMEOUT, maxRetries, 10, MAX_DELAY,
+                failureThreshold, OPEN_DURATION);
+        Map<String, ResiliencePolicy> policies = new HashMap<>();
+        policies.put("categories.php", policy);
+        policies.put("filter.php", policy);
+        policies.put("lookup.php", policy);
+        return policies;
+    }
+
+    private static CircuitBreaker breakerOf(ResilientAPIService service) {
+        return service.getCircuitBreakers().get("categories.php");
+    }
+
+    /**
+     * Makes a call, then lets virtual time pass for every retry of the call to run. The
+     * attempts answer at once, as the server is called on the calling thread.
+     *
+     * @param call the call to make
+     * @param <T> the type of the response
+     * @return the observer of the call
+     */
+    private <T> TestObserver<T> run(Observable<T> call) {
+        TestObserver<T> observer = call.test();
+        scheduler.advanceTimeBy(RETRY_WINDOW, TimeUnit.MILLISECONDS);
+        return observer;
+    }
+
+    /**
+     * Calls the categories endpoint, expecting it to answer.
+     *
+     * @param service the service to call
+     * @return the categories received
+     */
+    private CategoriesList categoriesOf(ResilientAPIService service) {
+        TestObserver<CategoriesList> observer = run(service.getCategoriesList());
+        observer.assertComplete();
+        observer.assertValueCount(1);
+        return observer.values().get(0);
+    }
+
+    /**
+     * Calls the categories endpoint, expecting it to fail.
+     *
+     * @param service the service to call
+     * @return the error of the call
+     */
+    private Throwable errorOf(ResilientAPIService service) {
+        TestObserver<CategoriesList> observer = run(service.getCategoriesList());
+        observer.assertError(Throwable.class);
+        return observer.errors().get(0);
+    }
+}
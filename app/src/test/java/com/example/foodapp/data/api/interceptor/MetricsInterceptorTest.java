@@ -0,0 +1,120 @@
+package com.example.foodapp.data.api.interceptor;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.foodapp.data.api.metrics.EndpointMetrics;
+import com.example.foodapp.data.api.metrics.NetworkMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Checks that {@link MetricsInterceptor} tells the responses served by the cache from those
+ * downloaded again, so that the cache hit ratio is not inflated.
+ */
+public class MetricsInterceptorTest {
+
+    private static final String BODY = "{\"categories\":[]}";
+
+    private MockWebServer server;
+    private Cache cache;
+    private NetworkMetrics metrics;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        cache = new Cache(Files.createTempDirectory("http_cache").toFile(), 1024 * 1024);
+        metrics = new NetworkMetrics();
+        client = new OkHttpClient.Builder()
+                .cache(cache)
+                .addInterceptor(new MetricsInterceptor(metrics))
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        cache.delete();
+    }
+
+    @Test
+    public void freshCachedResponse_isCacheHit() throws IOException {
+        server.enqueue(new MockResponse().setBody(BODY).addHeader("Cache-Control", "max-age=60"));
+
+        call(request());
+        call(request());
+
+        assertEquals(1, endpoint().getNetworkResponses());
+        assertEquals(1, endpoint().getCacheResponses());
+        assertEquals(0.5, endpoint().getCacheHitRatio(), 0);
+    }
+
+    @Test
+    public void notModifiedResponse_isConditionalCacheHit() throws IOException {
+        server.enqueue(staleWithETag());
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        call(request());
+        call(request());
+
+        assertEquals(1, endpoint().getConditionalCacheResponses());
+        assertEquals(0.5, endpoint().getCacheHitRatio(), 0);
+    }
+
+    @Test
+    public void conditionalRequestDownloadingAgain_isNetworkResponse() throws IOException {
+        server.enqueue(staleWithETag());
+        server.enqueue(new MockResponse().setBody(BODY).addHeader("ETag", "\"2\""));
+
+        call(request());
+        call(request());
+
+        assertEquals(2, endpoint().getNetworkResponses());
+        assertEquals(0, endpoint().getConditionalCacheResponses());
+        assertEquals(0, endpoint().getCacheHitRatio(), 0);
+    }
+
+    @Test
+    public void unsatisfiableCacheOnlyRequest_isCacheMiss() throws IOException {
+        call(OfflineCacheInterceptor.toCacheOnly(request()));
+
+        assertEquals(1, endpoint().getCacheMisses());
+        assertEquals(0, endpoint().getCacheResponses());
+        assertEquals(1, endpoint().getHttpErrors());
+        assertEquals(0, endpoint().getCacheHitRatio(), 0);
+        assertEquals(0, server.getRequestCount());
+    }
+
+    private Request request() {
+        return new Request.Builder().url(server.url("/categories.php")).build();
+    }
+
+    private static MockResponse staleWithETag() {
+        return new MockResponse().setBody(BODY)
+                .addHeader("Cache-Control", "max-age=0")
+                .addHeader("ETag", "\"1\"");
+    }
+
+    private void call(Request request) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            response.body().string();
+        }
+    }
+
+    private EndpointMetrics endpoint() {
+        return metrics.forEndpoint("categories.php");
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.foodapp.data.api.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.example.foodapp.data.api.APIClient;
+import com.google.gson.Gson;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checks that the TypeAdapters generated by Stag decode the recorded responses of the API
+ * exactly like Gson's reflection did.
+ */
+public class GeneratedAdaptersTest {
+
+    // Gson decoding the models through the generated adapters, as used by the app.
+    private final Gson generatedGson = APIClient.getGson();
+
+    // Gson decoding the models through reflection, as before.
+    private final Gson reflectiveGson = new Gson();
+
+    @Test
+    public void generatedAdapters_areUsed() {
+        assertFalse(generatedGson.getAdapter(Meal.class)
+                instanceof ReflectiveTypeAdapterFactory.Adapter);
+        assertFalse(generatedGson.getAdapter(Category.class)
+                instanceof ReflectiveTypeAdapterFactory.Adapter);
+        assertFalse(generatedGson.getAdapter(MealsList.class)
+                instanceof ReflectiveTypeAdapterFactory.Adapter);
+        assertFalse(generatedGson.getAdapter(CategoriesList.class)
+                instanceof ReflectiveTypeAdapterFactory.Adapter);
+        assertFalse(generatedGson.getAdapter(MealDescriptionsList.class)
+                instanceof ReflectiveTypeAdapterFactory.Adapter);
+    }
+
+    @Test
+    public void categories_decodedLikeReflection() throws IOException {
+        CategoriesList generated = read(generatedGson, "categories.json", CategoriesList.class);
+        CategoriesList reflective = read(reflectiveGson, "categories.json", CategoriesList.class);
+
+        assertEquals(3, generated.getCategories().size());
+        assertEquals("Beef", generated.getCategories().get(0).getStrCategory());
+        assertEquals(reflectiveGson.toJson(reflective), reflectiveGson.toJson(generated));
+    }
+
+    @Test
+    public void mealsFromCategory_decodedLikeReflection() throws IOException {
+        MealsList generated = read(generatedGson, "filter.json", MealsList.class);
+        MealsList reflective = read(reflectiveGson, "filter.json", MealsList.class);
+
+        assertEquals(3, generated.getMeals().size());
+        assertEquals("52959", generated.getMeals().get(0).getIdMeal());
+        assertEquals(reflectiveGson.toJson(reflective), reflectiveGson.toJson(generated));
+    }
+
+    @Test
+    public void mealDescription_decodedLikeReflection() throws IOException {
+        MealDescriptionsList generated =
+                read(generatedGson, "lookup.json", MealDescriptionsList.class);
+        MealDescriptionsList reflective =
+                read(reflectiveGson, "lookup.json", MealDescriptionsList.class);
+
+        MealDescription description = generated.getMeals().get(0);
+        assertEquals("Teriyaki Chicken Casserole", description.getStrMeal());
+        assertEquals(9, description.getIngredientCount());
+        assertEquals("brown rice", description.getIngredient(8));
+        assertEquals("3 cups", description.getMeasure(8));
+        assertEquals(reflectiveGson.toJson(reflective), reflectiveGson.toJson(generated));
+    }
+
+    @Test
+    public void models_encodedLikeReflection() throws IOException {
+        MealsList meals = read(reflectiveGson, "filter.json", MealsList.class);
+        CategoriesList categories = read(reflectiveGson, "categories.json", CategoriesList.class);
+
+        assertEquals(reflectiveGson.toJson(meals), generatedGson.toJson(meals));
+        assertEquals(reflectiveGson.toJson(categories), generatedGson.toJson(categories));
+    }
+
+    /**
+     * Decodes a recorded response of the API.
+     *
+     * @param gson the Gson instance to decode with
+     * @param fixture the name of the file in the fixtures resources
+     * @param type the class of the response
+     * @return the decoded response
+     * @throws IOException if the file could not be read
+     */
+    private <T> T read(Gson gson, String fixture, Class<T> type) throws IOException {
+        InputStream stream = getClass().getClassLoader().getResourceAsStream("fixtures/" + fixture);
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, type);
+        }
+    }
+}
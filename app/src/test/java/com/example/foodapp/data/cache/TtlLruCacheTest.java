@@ -0,0 +1,161 @@
+package com.example.foodapp.data.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.TestScheduler;
+
+/**
+ * Checks the least recently used order, the weights, the time-to-live and the statistics of
+ * {@link TtlLruCache}, with a clock in virtual time.
+ */
+public class TtlLruCacheTest {
+
+    // Time-to-live of the entries, in milliseconds.
+    private static final long TTL = 1000;
+
+    // Gives the current time of the caches.
+    private final TestScheduler clock = new TestScheduler();
+
+    @Test
+    public void leastRecentlyUsed_isEvictedFirst() {
+        TtlLruCache<String, String> cache = createCache(3);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        // Reading the oldest entry makes it the most recently used
+        assertEquals("A", cache.get("a"));
+
+        cache.put("d", "D");
+
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals("D", cache.get("d"));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void heavyValue_evictsUntilTotalWeightFits() {
+        TtlLruCache<String, String> cache = createCache(10);
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        assertEquals(8, cache.weight());
+
+        cache.put("c", "cccccc");
+
+        assertFalse(cache.contains("a"));
+        assertTrue(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertEquals(10, cache.weight());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void replacedValue_countsItsNewWeightOnly() {
+        TtlLruCache<String, String> cache = createCache(10);
+        cache.put("a", "aaaa");
+
+        cache.put("a", "aa");
+
+        assertEquals("aa", cache.get("a"));
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.weight());
+    }
+
+    @Test
+    public void valueHeavierThanCache_isNotCached() {
+        TtlLruCache<String, String> cache = createCache(5);
+        cache.put("a", "aa");
+        cache.put("b", "bb");
+        cache.put("b", "bbb");
+
+        cache.put("b", "bbbbbbbbbb");
+
+        // The other entries are kept, and the previous value of the key is not served
+        assertEquals("aa", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(2, cache.weight());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    public void entries_expireAfterTimeToLive() {
+        TtlLruCache<String, String> cache = createCache(10);
+        cache.put("a", "A");
+
+        clock.advanceTimeBy(TTL - 1, TimeUnit.MILLISECONDS);
+        assertTrue(cache.contains("a"));
+        assertEquals("A", cache.get("a"));
+
+        clock.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertFalse(cache.contains("a"));
+        assertNull(cache.get("a"));
+        // The expired entry is removed once looked up
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    public void putAgain_renewsTimeToLive() {
+        TtlLruCache<String, String> cache = createCache(10);
+        cache.put("a", "A");
+        clock.advanceTimeBy(TTL / 2, TimeUnit.MILLISECONDS);
+
+        cache.put("a", "A");
+        clock.advanceTimeBy(TTL - 1, TimeUnit.MILLISECONDS);
+
+        assertEquals("A", cache.get("a"));
+    }
+
+    @Test
+    public void lookups_areCounted() {
+        TtlLruCache<String, String> cache = createCache(10);
+        cache.put("a", "A");
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        // Checking the presence of a value is not a lookup
+        cache.contains("a");
+        cache.contains("b");
+        clock.advanceTimeBy(TTL, TimeUnit.MILLISECONDS);
+        cache.get("a");
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(0, cache.evictionCount());
+        assertTrue(cache.toString(), cache.toString().contains("hitRate=50%"));
+    }
+
+    @Test
+    public void clear_keepsStatistics() {
+        TtlLruCache<String, String> cache = createCache(10);
+        cache.put("a", "A");
+        cache.get("a");
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    /**
+     * Creates a cache of strings, each weighing its length.
+     *
+     * @param maxWeight the maximum total length of the strings
+     * @return the cache to test
+     */
+    private TtlLruCache<String, String> createCache(long maxWeight) {
+        return new TtlLruCache<>(maxWeight, TTL, String::length, clock);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.foodapp.data.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.paging.PagingSource;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.foodapp.data.dao.entity.CategoryCount;
+import com.example.foodapp.data.dao.entity.MealEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import kotlin.coroutines.EmptyCoroutineContext;
+import kotlinx.coroutines.BuildersKt;
+
+/**
+ * Runs the paged, sorted and grouped queries of the favorites on a large database, and checks
+ * that they are answered along an index within the budget, instead of sorting the whole table.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class MealDaoBenchmarkTest {
+
+    // Number of favorites of the database queried.
+    private static final int ROW_COUNT = 10_000;
+    // Number of categories of the favorites, the last one standing for the meals without any.
+    private static final int CATEGORY_COUNT = 15;
+    // Time a sorted query may take to load every favorite.
+    private static final long QUERY_BUDGET_MS = 300;
+
+    @Rule
+    public final InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private FavoriteDatabase database;
+    private MealDao mealDao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, FavoriteDatabase.class)
+                .allowMainThreadQueries()
+                .setQueryExecutor(Runnable::run)
+                .build();
+        mealDao = database.mealDao();
+
+        List<MealEntity> meals = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            // Names alternate between lower and upper case, which must not change their order
+            String name = String.format(Locale.ROOT, "%s %05d", i % 2 == 0 ? "meal" : "Meal", i);
+            MealEntity meal = new MealEntity(String.valueOf(i), name,
+                    "https://example.com/" + i + ".jpg", category(i));
+            meal.setCreatedAt(i);
+            meals.add(meal);
+        }
+        mealDao.insertAll(meals);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void pagedMealsByRecency_areSortedAlongIndex() throws InterruptedException {
+        List<MealEntity> meals =
+                timedLoad("getPagedMealsByRecency", mealDao.getPagedMealsByRecency());
+        for (int i = 0; i < ROW_COUNT; i++) {
+            assertEquals(ROW_COUNT - 1 - i, meals.get(i).getCreatedAt());
+        }
+        assertUsesIndex(paged("SELECT * FROM MealEntity ORDER BY createdAt DESC"));
+    }
+
+    @Test
+    public void pagedMealsByName_ignoreCaseAlongIndex() throws InterruptedException {
+        List<MealEntity> meals = timedLoad("getPagedMealsByName", mealDao.getPagedMealsByName());
+        for (int i = 0; i < ROW_COUNT; i++) {
+            assertEquals(String.valueOf(i), meals.get(i).getIdMeal());
+        }
+        assertUsesIndex(paged("SELECT * FROM MealEntity ORDER BY strMeal"));
+    }
+
+    @Test
+    public void pagedMealsByCategory_areGroupedAlongIndex() throws InterruptedException {
+        List<MealEntity> meals =
+                timedLoad("getPagedMealsByCategory", mealDao.getPagedMealsByCategory());
+        for (int i = 1; i < ROW_COUNT; i++) {
+            MealEntity previous = meals.get(i - 1);
+            MealEntity meal = meals.get(i);
+            int byCategory = compare(previous.getIdMealCategory(), meal.getIdMealCategory());
+            assertTrue(byCategory < 0 || byCategory == 0
+                    && previous.getStrMeal().compareToIgnoreCase(meal.getStrMeal()) < 0);
+        }
+        assertUsesIndex(paged("SELECT * FROM MealEntity ORDER BY idMealCategory, strMeal"));
+    }
+
+    @Test
+    public void categoryCounts_areCountedAlongIndex() {
+        List<CategoryCount> counts = timedLoad("getCategoryCounts", mealDao.getCategoryCounts());
+        assertEquals(CATEGORY_COUNT, counts.size());
+        int total = 0;
+        for (CategoryCount count : counts) {
+            total += count.getCount();
+        }
+        assertEquals(ROW_COUNT, total);
+        // The meals without category come first
+        assertNull(counts.get(0).getIdMealCategory());
+        assertUsesIndex("SELECT idMealCategory, COUNT(*) AS count FROM MealEntity "
+                + "GROUP BY idMealCategory ORDER BY idMealCategory");
+    }
+
+    /**
+     * Loads every meal of a paged query as a single page, and checks the time it took.
+     *
+     * @param name the name of the query, for the failure message
+     * @param source the source of the pages of the query
+     * @return the meals loaded
+     */
+    private static List<MealEntity> timedLoad(String name,
+                                              PagingSource<Integer, MealEntity> source)
+            throws InterruptedException {
+        PagingSource.LoadParams<Integer> params =
+                new PagingSource.LoadParams.Refresh<>(null, ROW_COUNT, false);
+        long start = System.nanoTime();
+        PagingSource.LoadResult<Integer, MealEntity> result = BuildersKt.runBlocking(
+                EmptyCoroutineContext.INSTANCE,
+                (scope, continuation) -> source.load(params, continuation));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(String.valueOf(result), result instanceof PagingSource.LoadResult.Page);
+        assertTrue(name + " took " + elapsedMs + " ms for " + ROW_COUNT + " rows",
+                elapsedMs < QUERY_BUDGET_MS);
+        return ((PagingSource.LoadResult.Page<Integer, MealEntity>) result).getData();
+    }
+
+    /**
+     * Wraps a query the way the paging sources generated by Room load a page of it.
+     *
+     * @param sql the query of the DAO
+     * @return the query of a page
+     */
+    private static String paged(String sql) {
+        return "SELECT * FROM ( " + sql + " ) LIMIT 60 OFFSET 0";
+    }
+
+    /**
+     * Observes a query until it delivers its result, and checks the time it took.
+     *
+     * @param name the name of the query, for the failure message
+     * @param liveData the result of the query
+     * @return the value delivered
+     */
+    private static <T> T timedLoad(String name, LiveData<T> liveData) {
+        Observer<T> observer = value -> { };
+        long start = System.nanoTime();
+        liveData.observeForever(observer);
+        T value = liveData.getValue();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        liveData.removeObserver(observer);
+
+        assertNotNull(value);
+        assertTrue(name + " took " + elapsedMs + " ms for " + ROW_COUNT + " rows",
+                elapsedMs < QUERY_BUDGET_MS);
+        return value;
+    }
+
+    /**
+     * Checks that SQLite answers a query along an index, without sorting the rows itself.
+     *
+     * @param sql the query to explain
+     */
+    private void assertUsesIndex(String sql) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = database.getOpenHelper().getReadableDatabase()
+                .query("EXPLAIN QUERY PLAN " + sql)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        assertTrue(plan.toString(), plan.toString().contains("INDEX"));
+        assertFalse(plan.toString(), plan.toString().contains("TEMP B-TREE"));
+    }
+
+    private static String category(int i) {
+        int category = i % CATEGORY_COUNT;
+        return category == CATEGORY_COUNT - 1 ? null : "Category " + category;
+    }
+
+    private static int compare(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+}
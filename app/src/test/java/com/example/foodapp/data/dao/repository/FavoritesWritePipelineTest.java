@@ -0,0 +1,222 @@
+package com.example.foodapp.data.dao.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.foodapp.data.dao.MealDao;
+import com.example.foodapp.data.dao.entity.MealEntity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+
+/**
+ * Drives {@link FavoritesWritePipeline} with virtual time against a fake DAO, to check that
+ * the changes of a meal are collapsed and written in order, while the other meals are written
+ * in parallel, that a failed transaction is reverted, and that the changes do not wait forever
+ * for stored IDs that cannot be read.
+ */
+public class FavoritesWritePipelineTest {
+
+    // Time during which the changes of a meal are collapsed, in milliseconds.
+    private static final long WINDOW = 300;
+
+    /**
+     * A call of {@link MealDao#update(List, List)}.
+     */
+    private static class Write {
+
+        final List<String> insertedIds = new ArrayList<>();
+        final List<String> deletedIds;
+
+        Write(List<MealEntity> inserted, List<String> deletedIds) {
+            for (MealEntity meal : inserted) {
+                insertedIds.add(meal.getIdMeal());
+            }
+            this.deletedIds = new ArrayList<>(deletedIds);
+        }
+    }
+
+    // Ends the windows of the changes.
+    private final TestScheduler timer = new TestScheduler();
+    // Runs the transactions, which are in flight until its actions are triggered.
+    private final TestScheduler database = new TestScheduler();
+    // The transactions run, in order.
+    private final List<Write> writes = new ArrayList<>();
+    // Whether the next transactions fail.
+    private boolean failing;
+    // The IDs of the favorites reported to the listener, in order.
+    private final List<Set<String>> reportedIds = new ArrayList<>();
+    // The changes reported to the listener, in order.
+    private final List<FavoriteChange> reportedChanges = new ArrayList<>();
+
+    private FavoritesWritePipeline pipeline;
+
+    @Before
+    public void setUp() {
+        MealDao mealDao = (MealDao) Proxy.newProxyInstance(MealDao.class.getClassLoader(),
+                new Class<?>[]{MealDao.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("update")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<MealEntity> inserted = (List<MealEntity>) args[0];
+                    @SuppressWarnings("unchecked")
+                    List<String> deletedIds = (List<String>) args[1];
+                    writes.add(new Write(inserted, deletedIds));
+                    if (failing) {
+                        throw new IllegalStateException("Disk full");
+                    }
+                    return null;
+                });
+        pipeline = new FavoritesWritePipeline(mealDao, database, timer, WINDOW,
+                (ids, changes) -> {
+                    reportedIds.add(ids);
+                    reportedChanges.addAll(changes);
+                });
+    }
+
+    @Test
+    public void nothingIsWritten_beforeStoredIdsAreRead() {
+        pipeline.submit("1", meal("1"), true);
+        endWindow();
+        assertTrue(writes.isEmpty());
+
+        pipeline.setCommittedIds(Collections.emptySet());
+        endWindow();
+
+        assertEquals(1, writes.size());
+        assertEquals(Collections.singletonList("1"), writes.get(0).insertedIds);
+    }
+
+    @Test
+    public void rapidToggles_collapseToOneWrite() {
+        pipeline.setCommittedIds(Collections.emptySet());
+
+        TestObserver<Void> added = pipeline.submit("1", meal("1"), true).test();
+        TestObserver<Void> removed = pipeline.submit("1", null, false).test();
+        TestObserver<Void> addedAgain = pipeline.submit("1", meal("1"), true).test();
+        endWindow();
+
+        assertEquals(1, writes.size());
+        assertEquals(Collections.singletonList("1"), writes.get(0).insertedIds);
+        assertTrue(writes.get(0).deletedIds.isEmpty());
+        // Every toggle is committed by the write of the final state
+        added.assertComplete();
+        removed.assertComplete();
+        addedAgain.assertComplete();
+        assertEquals(Collections.singleton("1"), lastReportedIds());
+    }
+
+    @Test
+    public void changeOfMealInFlight_waitsForItsTransaction() {
+        pipeline.setCommittedIds(Collections.emptySet());
+        pipeline.submit("1", meal("1"), true);
+        timer.advanceTimeBy(WINDOW, TimeUnit.MILLISECONDS);
+
+        // The meal is being written when it is removed
+        TestObserver<Void> removed = pipeline.submit("1", null, false).test();
+        timer.advanceTimeBy(WINDOW, TimeUnit.MILLISECONDS);
+        database.triggerActions();
+
+        // Only the first transaction ran, the removal waits for it
+        assertEquals(1, writes.size());
+        assertEquals(Collections.singletonList("1"), writes.get(0).insertedIds);
+        removed.assertNotComplete();
+
+        endWindow();
+
+        assertEquals(2, writes.size());
+        assertEquals(Collections.singletonList("1"), writes.get(1).deletedIds);
+        removed.assertComplete();
+        assertTrue(lastReportedIds().isEmpty());
+    }
+
+    @Test
+    public void otherMeal_isWrittenInParallel() {
+        pipeline.setCommittedIds(Collections.emptySet());
+        pipeline.submit("1", meal("1"), true);
+        timer.advanceTimeBy(WINDOW, TimeUnit.MILLISECONDS);
+
+        // The first meal is still being written
+        TestObserver<Void> second = pipeline.submit("2", meal("2"), true).test();
+        timer.advanceTimeBy(WINDOW, TimeUnit.MILLISECONDS);
+        database.triggerActions();
+
+        // Both transactions were in flight at once
+        assertEquals(2, writes.size());
+        assertEquals(Collections.singletonList("1"), writes.get(0).insertedIds);
+        assertEquals(Collections.singletonList("2"), writes.get(1).insertedIds);
+        second.assertComplete();
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), lastReportedIds());
+    }
+
+    @Test
+    public void failedTransaction_revertsIds() {
+        pipeline.setCommittedIds(Collections.singleton("3"));
+        failing = true;
+
+        TestObserver<Void> removed = pipeline.removeAll(Arrays.asList("3", "3")).test();
+        // The removal is reported at once, before being written
+        assertFalse(lastReportedIds().contains("3"));
+        endWindow();
+
+        assertEquals(1, writes.size());
+        removed.assertError(IllegalStateException.class);
+        assertEquals(Collections.singleton("3"), lastReportedIds());
+        FavoriteChange lastChange = reportedChanges.get(reportedChanges.size() - 1);
+        assertEquals("3", lastChange.getMealId());
+        assertTrue(lastChange.isFavorite());
+    }
+
+    @Test
+    public void failedRead_failsWaitingChanges_thenWritesLaterOnes() {
+        TestObserver<Void> waiting = pipeline.submit("1", meal("1"), true).test();
+        assertEquals(Collections.singleton("1"), lastReportedIds());
+
+        pipeline.failLoading(new IllegalStateException("Database locked"));
+
+        // The change made before does not wait for the stored IDs forever
+        waiting.assertError(IllegalStateException.class);
+        assertTrue(lastReportedIds().isEmpty());
+        endWindow();
+        assertTrue(writes.isEmpty());
+
+        TestObserver<Void> added = pipeline.submit("2", meal("2"), true).test();
+        endWindow();
+
+        assertEquals(1, writes.size());
+        assertEquals(Collections.singletonList("2"), writes.get(0).insertedIds);
+        added.assertComplete();
+        assertEquals(Collections.singleton("2"), lastReportedIds());
+    }
+
+    /**
+     * Ends the window of the changes waiting, and runs the transactions it starts.
+     */
+    private void endWindow() {
+        timer.advanceTimeBy(WINDOW, TimeUnit.MILLISECONDS);
+        database.triggerActions();
+    }
+
+    private Set<String> lastReportedIds() {
+        return reportedIds.get(reportedIds.size() - 1);
+    }
+
+    private static MealEntity meal(String mealId) {
+        return new MealEntity(mealId, "Meal " + mealId, "https://example.com/" + mealId + ".jpg",
+                "Beef");
+    }
+}
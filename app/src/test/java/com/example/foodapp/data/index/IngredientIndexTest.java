@@ -0,0 +1,147 @@
+package com.example.foodapp.data.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the ranking and the incremental updates of {@link IngredientIndex}, and that
+ * querying a few thousand meals takes a few milliseconds.
+ */
+public class IngredientIndexTest {
+
+    // Number of meals of the index queried against the budget.
+    private static final int LARGE_MEAL_COUNT = 5000;
+    // Number of distinct ingredients used by the meals of the large index.
+    private static final int INGREDIENT_COUNT = 600;
+    // Number of ingredients of every meal of the large index.
+    private static final int INGREDIENTS_PER_MEAL = 12;
+    // Number of ingredients of the pantry queried against the budget.
+    private static final int PANTRY_SIZE = 25;
+    // Time a single query may take on average, in milliseconds.
+    private static final double QUERY_BUDGET_MS = 10;
+
+    @Test
+    public void findMeals_ranksByCoverage() {
+        IngredientIndex index = new IngredientIndex();
+        index.add("half", Arrays.asList("Eggs", "Flour", "Milk", "Butter"));
+        index.add("all", Arrays.asList("Eggs", "Milk"));
+        index.add("quarter", Arrays.asList("Eggs", "Sugar", "Cocoa", "Butter"));
+        index.add("none", Arrays.asList("Rice", "Salmon"));
+
+        List<IngredientIndex.Match> matches =
+                index.findMeals(Arrays.asList("eggs", "  MILK "), 10);
+
+        assertEquals(Arrays.asList("all", "half", "quarter"), mealIdsOf(matches));
+        assertEquals(1.0, matches.get(0).getCoverage(), 0);
+        assertEquals(0.5, matches.get(1).getCoverage(), 0);
+        assertEquals(0.25, matches.get(2).getCoverage(), 0);
+    }
+
+    @Test
+    public void findMeals_breaksTiesByNumberOfIngredients() {
+        IngredientIndex index = new IngredientIndex();
+        index.add("one of two", Arrays.asList("Eggs", "Sugar"));
+        index.add("two of four", Arrays.asList("Eggs", "Milk", "Sugar", "Butter"));
+
+        List<IngredientIndex.Match> matches =
+                index.findMeals(Arrays.asList("Eggs", "Milk"), 10);
+
+        // Both use half of their ingredients, but the second uses more of the pantry
+        assertEquals(Arrays.asList("two of four", "one of two"), mealIdsOf(matches));
+    }
+
+    @Test
+    public void findMeals_isLimited() {
+        IngredientIndex index = new IngredientIndex();
+        for (int i = 0; i < 5; i++) {
+            index.add(String.valueOf(i), Collections.singletonList("Eggs"));
+        }
+
+        assertEquals(2, index.findMeals(Collections.singletonList("Eggs"), 2).size());
+    }
+
+    @Test
+    public void add_replacesIngredientsOfSameMeal() {
+        IngredientIndex index = new IngredientIndex();
+        index.add("52772", Arrays.asList("Soy Sauce", "Water"));
+
+        index.add("52772", Arrays.asList("Chicken", "Rice"));
+
+        assertTrue(index.findMeals(Collections.singletonList("Soy Sauce"), 10).isEmpty());
+        assertEquals(Collections.singletonList("52772"),
+                mealIdsOf(index.findMeals(Collections.singletonList("Chicken"), 10)));
+        assertEquals(1, index.size());
+        assertEquals(2, index.ingredientCount());
+    }
+
+    @Test
+    public void remove_dropsMealFromResults() {
+        IngredientIndex index = new IngredientIndex();
+        index.add("52772", Arrays.asList("Soy Sauce", "Water"));
+        index.add("52795", Arrays.asList("Chicken", "Water"));
+
+        index.remove("52772");
+
+        assertFalse(index.contains("52772"));
+        assertEquals(Collections.singletonList("52795"),
+                mealIdsOf(index.findMeals(Collections.singletonList("Water"), 10)));
+        assertEquals(1, index.size());
+        // The ingredients only used by the meal removed are forgotten
+        assertEquals(2, index.ingredientCount());
+
+        // A meal added again gets its ingredients back
+        index.add("52772", Collections.singletonList("Soy Sauce"));
+        assertTrue(index.contains("52772"));
+    }
+
+    @Test
+    public void findMeals_amongThousandsOfMeals_fitsBudget() {
+        Random random = new Random(42);
+        IngredientIndex index = new IngredientIndex();
+        for (int meal = 0; meal < LARGE_MEAL_COUNT; meal++) {
+            List<String> ingredients = new ArrayList<>(INGREDIENTS_PER_MEAL);
+            for (int i = 0; i < INGREDIENTS_PER_MEAL; i++) {
+                ingredients.add("Ingredient " + random.nextInt(INGREDIENT_COUNT));
+            }
+            index.add(String.valueOf(meal), ingredients);
+        }
+        List<List<String>> pantries = new ArrayList<>();
+        for (int p = 0; p < 100; p++) {
+            List<String> pantry = new ArrayList<>(PANTRY_SIZE);
+            for (int i = 0; i < PANTRY_SIZE; i++) {
+                pantry.add("ingredient " + random.nextInt(INGREDIENT_COUNT));
+            }
+            pantries.add(pantry);
+        }
+        // Lets the JIT compile the query before measuring it
+        for (List<String> pantry : pantries) {
+            index.findMeals(pantry, 20);
+        }
+
+        long start = System.nanoTime();
+        for (List<String> pantry : pantries) {
+            assertEquals(20, index.findMeals(pantry, 20).size());
+        }
+        double averageMs = (System.nanoTime() - start) / 1e6 / pantries.size();
+
+        assertTrue("A query took " + averageMs + " ms on average",
+                averageMs < QUERY_BUDGET_MS);
+    }
+
+    private static List<String> mealIdsOf(List<IngredientIndex.Match> matches) {
+        List<String> mealIds = new ArrayList<>(matches.size());
+        for (IngredientIndex.Match match : matches) {
+            mealIds.add(match.getMealId());
+        }
+        return mealIds;
+    }
+}